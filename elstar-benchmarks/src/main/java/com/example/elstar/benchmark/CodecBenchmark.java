@@ -0,0 +1,102 @@
+package com.example.elstar.benchmark;
+
+import com.example.elstar.jms.StatusCodec;
+import com.example.elstar.jms.UuidCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UuidCodec} and {@link StatusCodec} against the JDK calls the
+ * converters used before. Each {@code jdk*} benchmark has a {@code codec*}
+ * counterpart doing the same work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CodecBenchmark {
+
+    private static final String INVALID_CORRELATION_ID = "ID:414d5120514d31202020202020202020";
+
+    private String correlationId;
+    private String batchText;
+    private String statusText;
+    private Integer status;
+
+    @Setup
+    public void setUp() {
+        correlationId = UUID.randomUUID().toString();
+        batchText = "200;" + correlationId + "\n";
+        statusText = " 200\n";
+        status = 200;
+    }
+
+    @Benchmark
+    public UUID jdkUuidParse() {
+        return UUID.fromString(correlationId);
+    }
+
+    @Benchmark
+    public UUID codecUuidParse() {
+        return UuidCodec.parseOrNull(correlationId);
+    }
+
+    /** A provider-generated correlation ID, which the sender's converter maps to no UUID. */
+    @Benchmark
+    public UUID jdkUuidParseInvalid() {
+        try {
+            return UUID.fromString(INVALID_CORRELATION_ID);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public UUID codecUuidParseInvalid() {
+        return UuidCodec.parseOrNull(INVALID_CORRELATION_ID);
+    }
+
+    /** A UUID inside a larger text, as in a batched body. */
+    @Benchmark
+    public UUID jdkUuidParseAtOffset() {
+        return UUID.fromString(batchText.substring(4, 4 + UuidCodec.LENGTH));
+    }
+
+    @Benchmark
+    public UUID codecUuidParseAtOffset() {
+        return UuidCodec.parse(batchText, 4);
+    }
+
+    @Benchmark
+    public Integer jdkStatusParse() {
+        return Integer.parseInt(statusText.trim());
+    }
+
+    @Benchmark
+    public Integer codecStatusParse() {
+        return StatusCodec.valueOf(StatusCodec.parse(statusText));
+    }
+
+    @Benchmark
+    public String jdkStatusToString() {
+        return String.valueOf(status);
+    }
+
+    @Benchmark
+    public String codecStatusToString() {
+        return StatusCodec.toString(status);
+    }
+}
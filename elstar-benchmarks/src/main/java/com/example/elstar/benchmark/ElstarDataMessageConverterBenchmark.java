@@ -0,0 +1,91 @@
+package com.example.elstar.benchmark;
+
+import com.example.elstar.benchmark.jms.InMemorySession;
+import com.example.elstar.entity.ElstarData;
+import com.example.elstar.jms.ElstarDataMessageConverter;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Send side conversion of an ELStAM-like XML payload, with and without
+ * compression. The compression threshold is 0, so {@code compression}
+ * applies to every payload size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ElstarDataMessageConverterBenchmark {
+
+    @Param({"1024", "16384", "262144"})
+    private int payloadChars;
+
+    @Param({"none", "gzip", "deflate"})
+    private String compression;
+
+    private final InMemorySession session = new InMemorySession();
+    private final ElstarDataMessageConverter converter = new ElstarDataMessageConverter();
+    private ElstarData elstarData;
+    private Message message;
+
+    @Setup
+    public void setUp() throws JMSException {
+        converter.setCompression(compression);
+        converter.setCompressionThreshold(0);
+        elstarData = new ElstarData(xmlSample(payloadChars));
+        elstarData.setUuid(UUID.randomUUID());
+        message = converter.toMessage(elstarData, session);
+        if (message instanceof BytesMessage bytesMessage) {
+            bytesMessage.reset();
+        }
+    }
+
+    @Benchmark
+    public Message toMessage() throws JMSException {
+        return converter.toMessage(elstarData, session);
+    }
+
+    @Benchmark
+    public Object fromMessage() throws JMSException {
+        if (message instanceof BytesMessage bytesMessage) {
+            bytesMessage.reset();
+        }
+        return converter.fromMessage(message);
+    }
+
+    // ELStAM-like records cut to the requested number of characters
+    static String xmlSample(int chars) {
+        String[] names = {"Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner", "Becker"};
+        String[] firstNames = {"Jürgen", "Anna", "Peter", "Sabine", "Thomas", "Monika", "Stefan", "Ute"};
+        Random random = new Random(chars);
+        StringBuilder xml = new StringBuilder(chars + 512).append("<ElstarDaten>\n");
+        while (xml.length() < chars - 16) {
+            xml.append("  <Arbeitnehmer>\n")
+                    .append("    <PersonalNr>").append(10000 + random.nextInt(90000)).append("</PersonalNr>\n")
+                    .append("    <Name>").append(names[random.nextInt(names.length)]).append("</Name>\n")
+                    .append("    <Vorname>").append(firstNames[random.nextInt(firstNames.length)]).append("</Vorname>\n")
+                    .append("    <Steuerklasse>").append(1 + random.nextInt(6)).append("</Steuerklasse>\n")
+                    .append("  </Arbeitnehmer>\n");
+        }
+        xml.setLength(Math.min(xml.length(), chars - 15));
+        return xml.append("</ElstarDaten>\n").toString();
+    }
+}
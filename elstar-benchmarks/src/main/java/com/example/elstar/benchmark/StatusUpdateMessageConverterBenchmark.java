@@ -0,0 +1,66 @@
+package com.example.elstar.benchmark;
+
+import com.example.elstar.benchmark.jms.InMemorySession;
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.jms.StatusUpdateMessageConverter;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receive side conversion of a status update, in the text format (UUID in the
+ * correlation id, status as text body) and the 20-byte binary format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StatusUpdateMessageConverterBenchmark {
+
+    @Param({"text", "binary"})
+    private String format;
+
+    private final InMemorySession session = new InMemorySession();
+    private final StatusUpdateMessageConverter converter = new StatusUpdateMessageConverter();
+    private StatusUpdate statusUpdate;
+    private Message message;
+
+    @Setup
+    public void setUp() throws JMSException {
+        converter.setFormat(format);
+        statusUpdate = new StatusUpdate(UUID.randomUUID(), 200);
+        message = converter.toMessage(statusUpdate, session);
+        if (message instanceof BytesMessage bytesMessage) {
+            bytesMessage.reset();
+        }
+    }
+
+    @Benchmark
+    public Message toMessage() throws JMSException {
+        return converter.toMessage(statusUpdate, session);
+    }
+
+    @Benchmark
+    public Object fromMessage() throws JMSException {
+        if (message instanceof BytesMessage bytesMessage) {
+            bytesMessage.reset();
+        }
+        return converter.fromMessage(message);
+    }
+}
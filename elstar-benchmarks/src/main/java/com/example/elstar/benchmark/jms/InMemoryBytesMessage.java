@@ -0,0 +1,197 @@
+package com.example.elstar.benchmark.jms;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.MessageEOFException;
+import jakarta.jms.MessageNotReadableException;
+import jakarta.jms.MessageNotWriteableException;
+
+import java.util.Arrays;
+
+/**
+ * {@link BytesMessage} over a growable array. {@link #reset()} only flips the
+ * message into read mode and rewinds, so a message can be decoded repeatedly
+ * without allocating.
+ */
+class InMemoryBytesMessage extends InMemoryMessage implements BytesMessage {
+
+    private byte[] body = new byte[256];
+    private int length;
+    private int position;
+    private boolean readOnly;
+
+    @Override
+    public long getBodyLength() throws MessageNotReadableException {
+        checkReadable();
+        return length;
+    }
+
+    @Override
+    public void reset() {
+        readOnly = true;
+        position = 0;
+    }
+
+    @Override
+    public void clearBody() {
+        readOnly = false;
+        length = 0;
+        position = 0;
+    }
+
+    @Override
+    public boolean readBoolean() throws MessageNotReadableException, MessageEOFException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws MessageNotReadableException, MessageEOFException {
+        checkReadable();
+        if (position >= length) {
+            throw new MessageEOFException("End of message body");
+        }
+        return body[position++];
+    }
+
+    @Override
+    public int readUnsignedByte() throws MessageNotReadableException, MessageEOFException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws MessageNotReadableException, MessageEOFException {
+        return (short) readUnsignedShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws MessageNotReadableException, MessageEOFException {
+        return (readUnsignedByte() << 8) | readUnsignedByte();
+    }
+
+    @Override
+    public char readChar() throws MessageNotReadableException, MessageEOFException {
+        return (char) readUnsignedShort();
+    }
+
+    @Override
+    public int readInt() throws MessageNotReadableException, MessageEOFException {
+        return (readUnsignedShort() << 16) | readUnsignedShort();
+    }
+
+    @Override
+    public long readLong() throws MessageNotReadableException, MessageEOFException {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public float readFloat() throws MessageNotReadableException, MessageEOFException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws MessageNotReadableException, MessageEOFException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readUTF() {
+        throw new UnsupportedOperationException("readUTF");
+    }
+
+    @Override
+    public int readBytes(byte[] value) throws MessageNotReadableException {
+        return readBytes(value, value.length);
+    }
+
+    @Override
+    public int readBytes(byte[] value, int count) throws MessageNotReadableException {
+        checkReadable();
+        if (position >= length) {
+            return -1;
+        }
+        int read = Math.min(count, length - position);
+        System.arraycopy(body, position, value, 0, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws MessageNotWriteableException {
+        writeByte((byte) (value ? 1 : 0));
+    }
+
+    @Override
+    public void writeByte(byte value) throws MessageNotWriteableException {
+        ensureCapacity(1);
+        body[length++] = value;
+    }
+
+    @Override
+    public void writeShort(short value) throws MessageNotWriteableException {
+        writeByte((byte) (value >>> 8));
+        writeByte((byte) value);
+    }
+
+    @Override
+    public void writeChar(char value) throws MessageNotWriteableException {
+        writeShort((short) value);
+    }
+
+    @Override
+    public void writeInt(int value) throws MessageNotWriteableException {
+        writeShort((short) (value >>> 16));
+        writeShort((short) value);
+    }
+
+    @Override
+    public void writeLong(long value) throws MessageNotWriteableException {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    @Override
+    public void writeFloat(float value) throws MessageNotWriteableException {
+        writeInt(Float.floatToIntBits(value));
+    }
+
+    @Override
+    public void writeDouble(double value) throws MessageNotWriteableException {
+        writeLong(Double.doubleToLongBits(value));
+    }
+
+    @Override
+    public void writeUTF(String value) {
+        throw new UnsupportedOperationException("writeUTF");
+    }
+
+    @Override
+    public void writeBytes(byte[] value) throws MessageNotWriteableException {
+        writeBytes(value, 0, value.length);
+    }
+
+    @Override
+    public void writeBytes(byte[] value, int offset, int count) throws MessageNotWriteableException {
+        ensureCapacity(count);
+        System.arraycopy(value, offset, body, length, count);
+        length += count;
+    }
+
+    @Override
+    public void writeObject(Object value) {
+        throw new UnsupportedOperationException("writeObject");
+    }
+
+    private void checkReadable() throws MessageNotReadableException {
+        if (!readOnly) {
+            throw new MessageNotReadableException("Message is in write-only mode");
+        }
+    }
+
+    private void ensureCapacity(int count) throws MessageNotWriteableException {
+        if (readOnly) {
+            throw new MessageNotWriteableException("Message is in read-only mode");
+        }
+        if (length + count > body.length) {
+            body = Arrays.copyOf(body, Math.max(body.length * 2, length + count));
+        }
+    }
+}
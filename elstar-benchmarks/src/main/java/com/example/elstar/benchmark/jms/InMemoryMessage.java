@@ -0,0 +1,281 @@
+package com.example.elstar.benchmark.jms;
+
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageFormatException;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Heap-only {@link Message} so the converter benchmarks measure the
+ * conversion itself rather than a provider's marshalling. Headers and
+ * properties are plain fields and a map; nothing is ever sent.
+ */
+abstract class InMemoryMessage implements Message {
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private String messageId;
+    private long timestamp;
+    private String correlationId;
+    private Destination replyTo;
+    private Destination destination;
+    private int deliveryMode = DEFAULT_DELIVERY_MODE;
+    private boolean redelivered;
+    private String type;
+    private long expiration;
+    private long deliveryTime;
+    private int priority = DEFAULT_PRIORITY;
+
+    @Override
+    public String getJMSMessageID() {
+        return messageId;
+    }
+
+    @Override
+    public void setJMSMessageID(String id) {
+        this.messageId = id;
+    }
+
+    @Override
+    public long getJMSTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public void setJMSTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public byte[] getJMSCorrelationIDAsBytes() {
+        throw new UnsupportedOperationException("getJMSCorrelationIDAsBytes");
+    }
+
+    @Override
+    public void setJMSCorrelationIDAsBytes(byte[] correlationID) {
+        throw new UnsupportedOperationException("setJMSCorrelationIDAsBytes");
+    }
+
+    @Override
+    public void setJMSCorrelationID(String correlationID) {
+        this.correlationId = correlationID;
+    }
+
+    @Override
+    public String getJMSCorrelationID() {
+        return correlationId;
+    }
+
+    @Override
+    public Destination getJMSReplyTo() {
+        return replyTo;
+    }
+
+    @Override
+    public void setJMSReplyTo(Destination replyTo) {
+        this.replyTo = replyTo;
+    }
+
+    @Override
+    public Destination getJMSDestination() {
+        return destination;
+    }
+
+    @Override
+    public void setJMSDestination(Destination destination) {
+        this.destination = destination;
+    }
+
+    @Override
+    public int getJMSDeliveryMode() {
+        return deliveryMode;
+    }
+
+    @Override
+    public void setJMSDeliveryMode(int deliveryMode) {
+        this.deliveryMode = deliveryMode;
+    }
+
+    @Override
+    public boolean getJMSRedelivered() {
+        return redelivered;
+    }
+
+    @Override
+    public void setJMSRedelivered(boolean redelivered) {
+        this.redelivered = redelivered;
+    }
+
+    @Override
+    public String getJMSType() {
+        return type;
+    }
+
+    @Override
+    public void setJMSType(String type) {
+        this.type = type;
+    }
+
+    @Override
+    public long getJMSExpiration() {
+        return expiration;
+    }
+
+    @Override
+    public void setJMSExpiration(long expiration) {
+        this.expiration = expiration;
+    }
+
+    @Override
+    public long getJMSDeliveryTime() {
+        return deliveryTime;
+    }
+
+    @Override
+    public void setJMSDeliveryTime(long deliveryTime) {
+        this.deliveryTime = deliveryTime;
+    }
+
+    @Override
+    public int getJMSPriority() {
+        return priority;
+    }
+
+    @Override
+    public void setJMSPriority(int priority) {
+        this.priority = priority;
+    }
+
+    @Override
+    public void clearProperties() {
+        properties.clear();
+    }
+
+    @Override
+    public boolean propertyExists(String name) {
+        return properties.containsKey(name);
+    }
+
+    @Override
+    public boolean getBooleanProperty(String name) throws JMSException {
+        return property(name, Boolean.class);
+    }
+
+    @Override
+    public byte getByteProperty(String name) throws JMSException {
+        return property(name, Byte.class);
+    }
+
+    @Override
+    public short getShortProperty(String name) throws JMSException {
+        return property(name, Short.class);
+    }
+
+    @Override
+    public int getIntProperty(String name) throws JMSException {
+        return property(name, Integer.class);
+    }
+
+    @Override
+    public long getLongProperty(String name) throws JMSException {
+        return property(name, Long.class);
+    }
+
+    @Override
+    public float getFloatProperty(String name) throws JMSException {
+        return property(name, Float.class);
+    }
+
+    @Override
+    public double getDoubleProperty(String name) throws JMSException {
+        return property(name, Double.class);
+    }
+
+    @Override
+    public String getStringProperty(String name) {
+        Object value = properties.get(name);
+        return value != null ? value.toString() : null;
+    }
+
+    @Override
+    public Object getObjectProperty(String name) {
+        return properties.get(name);
+    }
+
+    @Override
+    public Enumeration<?> getPropertyNames() {
+        return Collections.enumeration(properties.keySet());
+    }
+
+    @Override
+    public void setBooleanProperty(String name, boolean value) {
+        properties.put(name, value);
+    }
+
+    @Override
+    public void setByteProperty(String name, byte value) {
+        properties.put(name, value);
+    }
+
+    @Override
+    public void setShortProperty(String name, short value) {
+        properties.put(name, value);
+    }
+
+    @Override
+    public void setIntProperty(String name, int value) {
+        properties.put(name, value);
+    }
+
+    @Override
+    public void setLongProperty(String name, long value) {
+        properties.put(name, value);
+    }
+
+    @Override
+    public void setFloatProperty(String name, float value) {
+        properties.put(name, value);
+    }
+
+    @Override
+    public void setDoubleProperty(String name, double value) {
+        properties.put(name, value);
+    }
+
+    @Override
+    public void setStringProperty(String name, String value) {
+        properties.put(name, value);
+    }
+
+    @Override
+    public void setObjectProperty(String name, Object value) {
+        properties.put(name, value);
+    }
+
+    @Override
+    public void acknowledge() {
+    }
+
+    @Override
+    public <T> T getBody(Class<T> c) {
+        throw new UnsupportedOperationException("getBody");
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isBodyAssignableTo(Class c) {
+        throw new UnsupportedOperationException("isBodyAssignableTo");
+    }
+
+    private <T> T property(String name, Class<T> type) throws JMSException {
+        Object value = properties.get(name);
+        if (!type.isInstance(value)) {
+            throw new MessageFormatException("Property " + name + " is not a " + type.getSimpleName());
+        }
+        return type.cast(value);
+    }
+}
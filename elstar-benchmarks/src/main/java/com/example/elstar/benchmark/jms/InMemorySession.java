@@ -0,0 +1,214 @@
+package com.example.elstar.benchmark.jms;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Destination;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageListener;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.ObjectMessage;
+import jakarta.jms.Queue;
+import jakarta.jms.QueueBrowser;
+import jakarta.jms.Session;
+import jakarta.jms.StreamMessage;
+import jakarta.jms.TemporaryQueue;
+import jakarta.jms.TemporaryTopic;
+import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
+import jakarta.jms.TopicSubscriber;
+
+import java.io.Serializable;
+
+/**
+ * Message factory for the converter benchmarks: only creates
+ * {@link TextMessage}s and {@link BytesMessage}s on the heap, every other
+ * operation is unsupported.
+ */
+public class InMemorySession implements Session {
+
+    @Override
+    public BytesMessage createBytesMessage() {
+        return new InMemoryBytesMessage();
+    }
+
+    @Override
+    public TextMessage createTextMessage() {
+        return new InMemoryTextMessage();
+    }
+
+    @Override
+    public TextMessage createTextMessage(String text) {
+        InMemoryTextMessage message = new InMemoryTextMessage();
+        message.setText(text);
+        return message;
+    }
+
+    @Override
+    public MapMessage createMapMessage() {
+        throw unsupported("createMapMessage");
+    }
+
+    @Override
+    public Message createMessage() {
+        throw unsupported("createMessage");
+    }
+
+    @Override
+    public ObjectMessage createObjectMessage() {
+        throw unsupported("createObjectMessage");
+    }
+
+    @Override
+    public ObjectMessage createObjectMessage(Serializable object) {
+        throw unsupported("createObjectMessage");
+    }
+
+    @Override
+    public StreamMessage createStreamMessage() {
+        throw unsupported("createStreamMessage");
+    }
+
+    @Override
+    public boolean getTransacted() {
+        return false;
+    }
+
+    @Override
+    public int getAcknowledgeMode() {
+        return AUTO_ACKNOWLEDGE;
+    }
+
+    @Override
+    public void commit() {
+        throw unsupported("commit");
+    }
+
+    @Override
+    public void rollback() {
+        throw unsupported("rollback");
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void recover() {
+        throw unsupported("recover");
+    }
+
+    @Override
+    public MessageListener getMessageListener() {
+        throw unsupported("getMessageListener");
+    }
+
+    @Override
+    public void setMessageListener(MessageListener listener) {
+        throw unsupported("setMessageListener");
+    }
+
+    @Override
+    public void run() {
+        throw unsupported("run");
+    }
+
+    @Override
+    public MessageProducer createProducer(Destination destination) {
+        throw unsupported("createProducer");
+    }
+
+    @Override
+    public MessageConsumer createConsumer(Destination destination) {
+        throw unsupported("createConsumer");
+    }
+
+    @Override
+    public MessageConsumer createConsumer(Destination destination, String messageSelector) {
+        throw unsupported("createConsumer");
+    }
+
+    @Override
+    public MessageConsumer createConsumer(Destination destination, String messageSelector, boolean noLocal) {
+        throw unsupported("createConsumer");
+    }
+
+    @Override
+    public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName) {
+        throw unsupported("createSharedConsumer");
+    }
+
+    @Override
+    public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName, String messageSelector) {
+        throw unsupported("createSharedConsumer");
+    }
+
+    @Override
+    public Queue createQueue(String queueName) {
+        throw unsupported("createQueue");
+    }
+
+    @Override
+    public Topic createTopic(String topicName) {
+        throw unsupported("createTopic");
+    }
+
+    @Override
+    public TopicSubscriber createDurableSubscriber(Topic topic, String name) {
+        throw unsupported("createDurableSubscriber");
+    }
+
+    @Override
+    public TopicSubscriber createDurableSubscriber(Topic topic, String name, String messageSelector, boolean noLocal) {
+        throw unsupported("createDurableSubscriber");
+    }
+
+    @Override
+    public MessageConsumer createDurableConsumer(Topic topic, String name) {
+        throw unsupported("createDurableConsumer");
+    }
+
+    @Override
+    public MessageConsumer createDurableConsumer(Topic topic, String name, String messageSelector, boolean noLocal) {
+        throw unsupported("createDurableConsumer");
+    }
+
+    @Override
+    public MessageConsumer createSharedDurableConsumer(Topic topic, String name) {
+        throw unsupported("createSharedDurableConsumer");
+    }
+
+    @Override
+    public MessageConsumer createSharedDurableConsumer(Topic topic, String name, String messageSelector) {
+        throw unsupported("createSharedDurableConsumer");
+    }
+
+    @Override
+    public QueueBrowser createBrowser(Queue queue) {
+        throw unsupported("createBrowser");
+    }
+
+    @Override
+    public QueueBrowser createBrowser(Queue queue, String messageSelector) {
+        throw unsupported("createBrowser");
+    }
+
+    @Override
+    public TemporaryQueue createTemporaryQueue() {
+        throw unsupported("createTemporaryQueue");
+    }
+
+    @Override
+    public TemporaryTopic createTemporaryTopic() {
+        throw unsupported("createTemporaryTopic");
+    }
+
+    @Override
+    public void unsubscribe(String name) {
+        throw unsupported("unsubscribe");
+    }
+
+    private static UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(operation + " is not supported by the in-memory session");
+    }
+}
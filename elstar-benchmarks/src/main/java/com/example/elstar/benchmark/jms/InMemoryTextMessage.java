@@ -0,0 +1,23 @@
+package com.example.elstar.benchmark.jms;
+
+import jakarta.jms.TextMessage;
+
+class InMemoryTextMessage extends InMemoryMessage implements TextMessage {
+
+    private String text;
+
+    @Override
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    @Override
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public void clearBody() {
+        text = null;
+    }
+}
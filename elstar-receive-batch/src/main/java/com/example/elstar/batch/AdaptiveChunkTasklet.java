@@ -0,0 +1,77 @@
+package com.example.elstar.batch;
+
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.StepContribution;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemReader;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.batch.infrastructure.repeat.RepeatContext;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * One chunk per call, sized by an {@link AdaptiveCompletionPolicy}: reads
+ * until the policy completes the chunk or the reader is exhausted, then writes
+ * the items. The step runs every call in its own transaction; once that
+ * transaction has ended, the policy gets the outcome, so its measurement
+ * covers the write and the commit. The reader has to be registered as a
+ * stream of the step.
+ * <p>
+ * The chunk-oriented step of Spring Batch 6 only takes a fixed chunk size,
+ * and its completion-policy variant is deprecated for removal; a tasklet step
+ * is not.
+ */
+public class AdaptiveChunkTasklet<T> implements Tasklet {
+
+    private final ItemReader<? extends T> reader;
+    private final ItemWriter<? super T> writer;
+    private final AdaptiveCompletionPolicy completionPolicy;
+
+    public AdaptiveChunkTasklet(ItemReader<? extends T> reader, ItemWriter<? super T> writer,
+                                AdaptiveCompletionPolicy completionPolicy) {
+        this.reader = reader;
+        this.writer = writer;
+        this.completionPolicy = completionPolicy;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        RepeatContext context = completionPolicy.start(null);
+        Chunk<T> chunk = new Chunk<>();
+        boolean exhausted = false;
+        while (!completionPolicy.isComplete(context)) {
+            T item = reader.read();
+            if (item == null) {
+                exhausted = true;
+                break;
+            }
+            chunk.add(item);
+            contribution.incrementReadCount();
+            completionPolicy.update(context);
+        }
+        if (!chunk.isEmpty()) {
+            completionPolicy.beforeWrite(chunk);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new PolicySynchronization());
+            }
+            writer.write(chunk);
+            contribution.incrementWriteCount(chunk.size());
+        }
+        return RepeatStatus.continueIf(!exhausted);
+    }
+
+    // Runs after the other synchronizations' afterCommit, such as the reader's JMS commit
+    private class PolicySynchronization implements TransactionSynchronization {
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                completionPolicy.afterCommit();
+            } else {
+                completionPolicy.afterRollback();
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.elstar.batch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.repeat.RepeatContext;
+import org.springframework.batch.infrastructure.repeat.context.RepeatContextSupport;
+import org.springframework.batch.infrastructure.repeat.policy.CompletionPolicySupport;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Completion policy whose chunk size follows the observed write and commit
+ * latency. {@link AdaptiveChunkTasklet} drives it: it reads while the chunk is
+ * not complete, calls {@link #beforeWrite} and reports the outcome of the
+ * transaction with {@link #afterCommit()} or {@link #afterRollback()}.
+ * <p>
+ * A chunk starts with the current size (initially {@code initialChunkSize}) and
+ * is complete when it reaches that size or when {@code targetLatency} has
+ * elapsed while reading, whichever comes first, so a trickling queue is still
+ * committed in time. The latency is checked once per item, between reads: a
+ * read that blocks, such as a JMS receive waiting for its timeout, can stretch
+ * a chunk past {@code targetLatency} by up to that wait. The time from {@link #beforeWrite} to
+ * {@link #afterCommit()} then moves the size
+ * towards the number of items whose write and commit fit into the target
+ * latency. A time-boxed chunk never grows the size: the queue could not fill
+ * it. The size always stays within {@code [minChunkSize, maxChunkSize]}.
+ * <p>
+ * Every step execution adapts its own size, kept in its {@link StepContext},
+ * so the worker steps of a partitioned step do not share one. Outside a step
+ * one size is kept for all callers. The size chosen last is published as the
+ * {@value #METRIC_NAME} gauge.
+ */
+public class AdaptiveCompletionPolicy extends CompletionPolicySupport implements MeterBinder {
+
+    public static final String METRIC_NAME = "elstar.receive.chunk.size";
+
+    private static final String STATE_KEY = AdaptiveCompletionPolicy.class.getName() + ".state";
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long targetLatencyNanos;
+    private final LongSupplier nanoClock;
+    private final int initialChunkSize;
+    private final State sharedState;
+    private volatile int chunkSize;
+
+    public AdaptiveCompletionPolicy(int minChunkSize, int maxChunkSize, int initialChunkSize, Duration targetLatency) {
+        this(minChunkSize, maxChunkSize, initialChunkSize, targetLatency, System::nanoTime);
+    }
+
+    AdaptiveCompletionPolicy(int minChunkSize, int maxChunkSize, int initialChunkSize, Duration targetLatency,
+                             LongSupplier nanoClock) {
+        if (minChunkSize < 1 || maxChunkSize < minChunkSize) {
+            throw new IllegalArgumentException("Expected 1 <= minChunkSize <= maxChunkSize but got "
+                    + minChunkSize + " and " + maxChunkSize);
+        }
+        if (targetLatency.isNegative() || targetLatency.isZero()) {
+            throw new IllegalArgumentException("targetLatency must be positive");
+        }
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.nanoClock = nanoClock;
+        this.initialChunkSize = clamp(initialChunkSize);
+        this.sharedState = new State(this.initialChunkSize);
+        this.chunkSize = this.initialChunkSize;
+    }
+
+    /**
+     * The size chosen last by any step execution.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_NAME, this, AdaptiveCompletionPolicy::getChunkSize)
+                .description("Current commit interval of the receive step")
+                .register(registry);
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        State state = state();
+        state.timeBoxed = false;
+        state.writeStartNanos = -1;
+        return new ReadContext(parent, nanoClock.getAsLong(), state.chunkSize);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        ReadContext chunk = (ReadContext) context;
+        if (chunk.complete) {
+            return true;
+        }
+        int count = chunk.getStartedCount();
+        long elapsed = nanoClock.getAsLong() - chunk.startNanos;
+        if (count >= chunk.limit || (count > 0 && elapsed >= targetLatencyNanos)) {
+            chunk.complete = true;
+            state().timeBoxed = count < chunk.limit;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Starts measuring the write and commit of the chunk's items.
+     */
+    public void beforeWrite(Chunk<?> items) {
+        State state = state();
+        state.writeStartNanos = nanoClock.getAsLong();
+        state.written = items.size();
+    }
+
+    /**
+     * Moves the size according to the time since {@link #beforeWrite}.
+     */
+    public void afterCommit() {
+        State state = state();
+        if (state.writeStartNanos < 0 || state.written == 0) {
+            return;
+        }
+        adjust(state, state.written, nanoClock.getAsLong() - state.writeStartNanos);
+        state.writeStartNanos = -1;
+    }
+
+    /**
+     * Discards the measurement of a chunk that was rolled back.
+     */
+    public void afterRollback() {
+        state().writeStartNanos = -1;
+    }
+
+    private void adjust(State state, int count, long writeNanos) {
+        long desired = writeNanos <= 0
+                ? maxChunkSize
+                : Math.round((double) count * targetLatencyNanos / writeNanos);
+        if (state.timeBoxed) {
+            desired = Math.min(desired, state.chunkSize);
+        }
+        // Move half way to damp oscillation, but always by at least one item
+        long next = (state.chunkSize + desired) / 2;
+        if (next == state.chunkSize && desired != state.chunkSize) {
+            next += Long.signum(desired - state.chunkSize);
+        }
+        state.chunkSize = clamp(next);
+        chunkSize = state.chunkSize;
+    }
+
+    private State state() {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (stepContext == null) {
+            return sharedState;
+        }
+        State state = (State) stepContext.getAttribute(STATE_KEY);
+        if (state == null) {
+            state = new State(initialChunkSize);
+            stepContext.setAttribute(STATE_KEY, state);
+        }
+        return state;
+    }
+
+    private int clamp(long size) {
+        return (int) Math.max(minChunkSize, Math.min(maxChunkSize, size));
+    }
+
+    // Size and measurement of one step execution, used by its thread only
+    private static final class State {
+
+        private int chunkSize;
+        private boolean timeBoxed;
+        private long writeStartNanos = -1;
+        private int written;
+
+        State(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    private static class ReadContext extends RepeatContextSupport {
+
+        private final long startNanos;
+        private final int limit;
+        private boolean complete;
+
+        ReadContext(RepeatContext parent, long startNanos, int limit) {
+            super(parent);
+            this.startNanos = startNanos;
+            this.limit = limit;
+        }
+    }
+}
@@ -1,22 +1,43 @@
 package com.example.elstar.config;
 
+import com.example.elstar.batch.AdaptiveChunkTasklet;
+import com.example.elstar.batch.AdaptiveCompletionPolicy;
 import com.example.elstar.dto.StatusUpdate;
 import com.example.elstar.reader.QueueReader;
 import com.example.elstar.jms.StatusUpdateMessageConverter;
 import com.example.elstar.repository.ElstarDataRepository;
+import com.example.elstar.repository.UuidBloomFilter;
+import com.example.elstar.repository.UuidIdIndex;
+import com.example.elstar.writer.BulkStatusUpdateWriter;
+import com.example.elstar.writer.CoalescingStatusUpdateWriter;
+import com.example.elstar.writer.ParkedStatusUpdateReconciler;
+import com.example.elstar.writer.ParkingStatusUpdateWriter;
 import com.example.elstar.writer.StatusUpdateWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.jms.ConnectionFactory;
 import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.partition.support.SimplePartitioner;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.Step;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
+import java.time.Duration;
+
 @Configuration
 public class BatchConfiguration {
 
@@ -26,43 +47,273 @@ public class BatchConfiguration {
     @Value("${elstar.jms.receive-timeout:5000}")
     private long receiveTimeout;
 
+    @Value("${elstar.batch.workers:1}")
+    private int workers;
+
+    @Value("${elstar.batch.write-mode:jpa}")
+    private String writeMode;
+
+    @Value("${elstar.batch.assert-updates:false}")
+    private boolean assertUpdates;
+
+    @Value("${elstar.batch.coalesce:false}")
+    private boolean coalesce;
+
+    @Value("${elstar.batch.bloom.false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate;
+
+    @Value("${elstar.batch.bloom.refresh-interval:10000}")
+    private long bloomRefreshInterval;
+
+    @Value("${elstar.batch.bloom.refresh-overlap:1000}")
+    private int bloomRefreshOverlap;
+
+    @Value("${elstar.batch.chunk.adaptive:false}")
+    private boolean adaptiveChunk;
+
+    @Value("${elstar.batch.chunk.min-size:10}")
+    private int minChunkSize;
+
+    @Value("${elstar.batch.chunk.max-size:500}")
+    private int maxChunkSize;
+
+    @Value("${elstar.batch.chunk.initial-size:10}")
+    private int initialChunkSize;
+
+    @Value("${elstar.batch.chunk.target-latency:1000}")
+    private long targetLatency;
+
     @Bean
     public JmsTemplate jmsTemplate(
             ConnectionFactory connectionFactory,
-            StatusUpdateMessageConverter messageConverter) {
+            StatusUpdateMessageConverter messageConverter,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        messageConverter.bindTo(registry(meterRegistry));
         JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
         jmsTemplate.setMessageConverter(messageConverter);
         jmsTemplate.setReceiveTimeout(receiveTimeout);
         return jmsTemplate;
     }
 
+    /**
+     * With {@code elstar.jms.prefetch} the broker may push that many bytes of
+     * messages ahead of the reader's receives (Artemis {@code consumerWindowSize},
+     * {@code 0} disables buffering, {@code -1} is unbounded). Unset keeps the
+     * provider default; other providers ignore it.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "elstar.jms.prefetch")
+    public static PrefetchConnectionFactoryPostProcessor prefetchConnectionFactoryPostProcessor(
+            @Value("${elstar.jms.prefetch}") int prefetch) {
+        return new PrefetchConnectionFactoryPostProcessor(prefetch);
+    }
+
+    /**
+     * The reader keeps one transacted consumer open for the whole step.
+     */
+    @Bean
+    public QueueReader<StatusUpdate> queueReader(JmsTemplate jmsTemplate, ObjectProvider<MeterRegistry> meterRegistry) {
+        QueueReader<StatusUpdate> reader = new QueueReader<>(jmsTemplate, queueName, StatusUpdate.class);
+        reader.bindTo(registry(meterRegistry));
+        return reader;
+    }
+
+    /**
+     * Reader of one worker of the parallel receive step. Every worker step
+     * execution gets its own instance and so its own session and consumer.
+     * The bean type is {@link ItemStreamReader}: a proxy typed as the reader
+     * would be a {@code MeterBinder} that is bound outside a step.
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<StatusUpdate> workerQueueReader(JmsTemplate jmsTemplate,
+                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        QueueReader<StatusUpdate> reader = new QueueReader<>(jmsTemplate, queueName, StatusUpdate.class);
+        reader.bindTo(registry(meterRegistry));
+        return reader;
+    }
+
     @Bean
-    public QueueReader<StatusUpdate> queueReader(JmsTemplate jmsTemplate) {
-        return new QueueReader<>(jmsTemplate, queueName, StatusUpdate.class);
+    public ThreadPoolTaskExecutor elstarReceiveTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(workers);
+        taskExecutor.setMaxPoolSize(workers);
+        taskExecutor.setThreadNamePrefix("elstar-receive-");
+        return taskExecutor;
     }
 
+    /**
+     * With {@code elstar.batch.uuid-index=true} the writers address rows by
+     * primary key through an in-memory UUID-to-id index. It is warmed here,
+     * once Hibernate has set up the schema, and catches up with new rows
+     * whenever a UUID is missing, re-scanning the last
+     * {@code elstar.batch.uuid-index.catch-up-overlap} ids for late commits.
+     */
     @Bean
-    public StatusUpdateWriter statusUpdateWriter(ElstarDataRepository repository) {
-        return new StatusUpdateWriter(repository);
+    @ConditionalOnProperty(name = "elstar.batch.uuid-index", havingValue = "true")
+    @DependsOn("entityManagerFactory")
+    public UuidIdIndex uuidIdIndex(DataSource dataSource, ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${elstar.batch.uuid-index.catch-up-overlap:1000}") int catchUpOverlap) {
+        UuidIdIndex uuidIdIndex = new UuidIdIndex(dataSource);
+        uuidIdIndex.setCatchUpOverlap(catchUpOverlap);
+        uuidIdIndex.bindTo(registry(meterRegistry));
+        uuidIdIndex.catchUp();
+        return uuidIdIndex;
     }
 
+    /**
+     * With {@code elstar.batch.park-unknown=true} status updates for UUIDs
+     * this filter rules out go to {@code elstar_status_parked} instead of the
+     * main table. The filter is built here, rebuilt by
+     * {@code reconcileParkedStep} and refreshed from its id watermark every
+     * {@code elstar.batch.bloom.refresh-interval} ms while updates are written.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "elstar.batch.park-unknown", havingValue = "true")
+    @DependsOn("entityManagerFactory")
+    public UuidBloomFilter knownUuidFilter(DataSource dataSource, ObjectProvider<MeterRegistry> meterRegistry) {
+        UuidBloomFilter knownUuidFilter = new UuidBloomFilter(dataSource, bloomFalsePositiveRate);
+        knownUuidFilter.setRefreshInterval(Duration.ofMillis(bloomRefreshInterval));
+        knownUuidFilter.setRefreshOverlap(bloomRefreshOverlap);
+        knownUuidFilter.bindTo(registry(meterRegistry));
+        knownUuidFilter.rebuild();
+        return knownUuidFilter;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "elstar.batch.park-unknown", havingValue = "true")
+    public ParkedStatusUpdateReconciler parkedStatusUpdateReconciler(DataSource dataSource,
+                                                                     UuidBloomFilter knownUuidFilter,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        ParkedStatusUpdateReconciler reconciler = new ParkedStatusUpdateReconciler(dataSource, knownUuidFilter);
+        reconciler.bindTo(registry(meterRegistry));
+        return reconciler;
+    }
+
+    /**
+     * {@code elstar.batch.write-mode=jpa} (default) runs one JPQL update per
+     * item; {@code jdbc} applies a chunk with one JDBC batch and counts unknown
+     * UUIDs. With {@code elstar.batch.coalesce} only the last update per UUID
+     * of a chunk is written; updates for unknown UUIDs are parked after that.
+     */
+    @Bean
+    public ItemWriter<StatusUpdate> statusUpdateWriter(ElstarDataRepository repository,
+                                                       DataSource dataSource,
+                                                       ObjectProvider<UuidIdIndex> uuidIdIndex,
+                                                       ObjectProvider<UuidBloomFilter> knownUuidFilter,
+                                                       ObjectProvider<ParkedStatusUpdateReconciler> parkedReconciler,
+                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = registry(meterRegistry);
+        ItemWriter<StatusUpdate> writer;
+        if ("jpa".equals(writeMode)) {
+            StatusUpdateWriter jpaWriter = new StatusUpdateWriter(repository);
+            jpaWriter.setUuidIndex(uuidIdIndex.getIfAvailable());
+            jpaWriter.bindTo(registry);
+            writer = jpaWriter;
+        } else {
+            BulkStatusUpdateWriter bulkWriter = new BulkStatusUpdateWriter(dataSource);
+            bulkWriter.setAssertUpdates(assertUpdates);
+            bulkWriter.setUuidIndex(uuidIdIndex.getIfAvailable());
+            bulkWriter.bindTo(registry);
+            writer = bulkWriter;
+        }
+        UuidBloomFilter knownUuids = knownUuidFilter.getIfAvailable();
+        if (knownUuids != null) {
+            ParkingStatusUpdateWriter parkingWriter = new ParkingStatusUpdateWriter(writer, knownUuids,
+                    parkedReconciler.getObject(), dataSource);
+            parkingWriter.bindTo(registry);
+            writer = parkingWriter;
+        }
+        if (!coalesce) {
+            return writer;
+        }
+        CoalescingStatusUpdateWriter coalescingWriter = new CoalescingStatusUpdateWriter(writer);
+        coalescingWriter.bindTo(registry);
+        return coalescingWriter;
+    }
+
+    @Bean
+    public AdaptiveCompletionPolicy receiveCompletionPolicy(ObjectProvider<MeterRegistry> meterRegistry) {
+        AdaptiveCompletionPolicy completionPolicy = new AdaptiveCompletionPolicy(
+                minChunkSize, maxChunkSize, initialChunkSize, Duration.ofMillis(targetLatency));
+        completionPolicy.bindTo(registry(meterRegistry));
+        return completionPolicy;
+    }
+
+    /**
+     * With {@code elstar.batch.workers} greater than one the queue is read by
+     * that many {@code elstarReceiveWorkerStep} executions in parallel, each
+     * with its own consumer, on {@code elstarReceiveTaskExecutor}. They share
+     * the writer; each adapts its own commit interval.
+     */
     @Bean
     public Step elstarReceiveStep(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
-            QueueReader<StatusUpdate> reader,
-            StatusUpdateWriter writer) {
-        return new StepBuilder("elstarReceiveStep", jobRepository)
+            QueueReader<StatusUpdate> queueReader,
+            ItemStreamReader<StatusUpdate> workerQueueReader,
+            ItemWriter<StatusUpdate> writer,
+            AdaptiveCompletionPolicy receiveCompletionPolicy,
+            ThreadPoolTaskExecutor elstarReceiveTaskExecutor) {
+        StepBuilder stepBuilder = new StepBuilder("elstarReceiveStep", jobRepository);
+        if (workers <= 1) {
+            return receiveChunkStep(stepBuilder, transactionManager, queueReader, writer, receiveCompletionPolicy);
+        }
+        Step workerStep = receiveChunkStep(new StepBuilder("elstarReceiveWorkerStep", jobRepository),
+                transactionManager, workerQueueReader, writer, receiveCompletionPolicy);
+        return stepBuilder
+                .partitioner("elstarReceiveWorkerStep", new SimplePartitioner())
+                .step(workerStep)
+                .gridSize(workers)
+                .taskExecutor(elstarReceiveTaskExecutor)
+                .build();
+    }
+
+    /**
+     * With {@code elstar.batch.park-unknown=true} the job starts with
+     * {@code reconcileParkedStep}, which rebuilds the UUID Bloom filter and
+     * replays the parked updates whose row exists by now.
+     */
+    @Bean
+    public Job elstarReceiveJob(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                Step elstarReceiveStep,
+                                ObjectProvider<ParkedStatusUpdateReconciler> parkedReconciler) {
+        JobBuilder jobBuilder = new JobBuilder("elstarReceiveJob", jobRepository);
+        ParkedStatusUpdateReconciler reconciler = parkedReconciler.getIfAvailable();
+        if (reconciler == null) {
+            return jobBuilder.start(elstarReceiveStep).build();
+        }
+        Step reconcileParkedStep = new StepBuilder("reconcileParkedStep", jobRepository)
+                .tasklet(reconciler, transactionManager)
+                .build();
+        return jobBuilder.start(reconcileParkedStep).next(elstarReceiveStep).build();
+    }
+
+    /**
+     * With {@code elstar.batch.chunk.adaptive=true} the commit interval follows
+     * {@link AdaptiveCompletionPolicy}, applied by an {@link AdaptiveChunkTasklet};
+     * otherwise it is a fixed 10.
+     */
+    private Step receiveChunkStep(StepBuilder stepBuilder,
+                                  PlatformTransactionManager transactionManager,
+                                  ItemStreamReader<StatusUpdate> reader,
+                                  ItemWriter<StatusUpdate> writer,
+                                  AdaptiveCompletionPolicy receiveCompletionPolicy) {
+        if (adaptiveChunk) {
+            return stepBuilder
+                    .tasklet(new AdaptiveChunkTasklet<>(reader, writer, receiveCompletionPolicy), transactionManager)
+                    .stream(reader)
+                    .build();
+        }
+        return stepBuilder
                 .<StatusUpdate, StatusUpdate>chunk(10)
+                .transactionManager(transactionManager)
                 .reader(reader)
                 .writer(writer)
                 .build();
     }
 
-    @Bean
-    public Job elstarReceiveJob(JobRepository jobRepository, Step elstarReceiveStep) {
-        return new JobBuilder("elstarReceiveJob", jobRepository)
-                .start(elstarReceiveStep)
-                .build();
+    private static MeterRegistry registry(ObjectProvider<MeterRegistry> meterRegistry) {
+        return meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
     }
-}
\ No newline at end of file
+}
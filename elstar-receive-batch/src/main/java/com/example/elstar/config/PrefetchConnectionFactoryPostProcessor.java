@@ -0,0 +1,46 @@
+package com.example.elstar.config;
+
+import jakarta.jms.ConnectionFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jms.connection.SingleConnectionFactory;
+
+/**
+ * Applies {@code elstar.jms.prefetch} as the consumer window of every Artemis
+ * {@link ConnectionFactory} bean, or of the Artemis factory a caching factory
+ * wraps, before any connection is created. Other providers have no such
+ * window; for them the setting is logged as ignored.
+ */
+public class PrefetchConnectionFactoryPostProcessor implements BeanPostProcessor {
+
+    private static final Log logger = LogFactory.getLog(PrefetchConnectionFactoryPostProcessor.class);
+
+    private static final String CONSUMER_WINDOW_PROPERTY = "consumerWindowSize";
+
+    private final int prefetch;
+
+    public PrefetchConnectionFactoryPostProcessor(int prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ConnectionFactory connectionFactory) {
+            ConnectionFactory target = connectionFactory instanceof SingleConnectionFactory single
+                    && single.getTargetConnectionFactory() != null
+                    ? single.getTargetConnectionFactory()
+                    : connectionFactory;
+            BeanWrapper factory = new BeanWrapperImpl(target);
+            if (factory.isWritableProperty(CONSUMER_WINDOW_PROPERTY)) {
+                factory.setPropertyValue(CONSUMER_WINDOW_PROPERTY, prefetch);
+            } else {
+                logger.info("elstar.jms.prefetch ignored for " + beanName + ": "
+                        + target.getClass().getName() + " has no consumer window");
+            }
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.elstar.config;
+
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.jms.BatchingStatusUpdateListenerContainer;
+import com.example.elstar.jms.StatusUpdateMessageConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.jms.ConnectionFactory;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Long-running receive next to {@code elstarReceiveJob}: a listener container
+ * consumes the queue continuously and writes the status updates in batches
+ * through the {@code statusUpdateWriter}. Enabled with
+ * {@code elstar.jms.listener.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "elstar.jms.listener", name = "enabled", havingValue = "true")
+public class StreamingReceiveConfiguration {
+
+    @Value("${elstar.jms.queue-name:DEV.QUEUE.RECEIVER}")
+    private String queueName;
+
+    @Value("${elstar.jms.listener.concurrency:1}")
+    private String concurrency;
+
+    @Value("${elstar.jms.listener.batch-size:500}")
+    private int batchSize;
+
+    @Value("${elstar.jms.listener.batch-window:1000}")
+    private long batchWindow;
+
+    /**
+     * The receive timeout is capped at the batch window, so a consumer on an
+     * idle queue still flushes its pending updates in time.
+     */
+    @Bean
+    public BatchingStatusUpdateListenerContainer statusUpdateListenerContainer(
+            ConnectionFactory connectionFactory,
+            StatusUpdateMessageConverter messageConverter,
+            ItemWriter<StatusUpdate> statusUpdateWriter,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        BatchingStatusUpdateListenerContainer container = new BatchingStatusUpdateListenerContainer(
+                messageConverter, statusUpdateWriter, new TransactionTemplate(transactionManager),
+                batchSize, Duration.ofMillis(batchWindow));
+        container.setConnectionFactory(connectionFactory);
+        container.setDestinationName(queueName);
+        container.setConcurrency(concurrency);
+        container.setReceiveTimeout(Math.min(batchWindow, BatchingStatusUpdateListenerContainer.DEFAULT_RECEIVE_TIMEOUT));
+        container.bindTo(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        return container;
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
 import jakarta.persistence.Table;
 
@@ -12,14 +13,15 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "elstar_daten")
+@Table(name = "elstar_daten", indexes = @Index(name = "ux_elstar_daten_uuid", columnList = "uuid", unique = true))
 public class ElstarData {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "uuid", unique = true, nullable = false)
+    /** Hibernate's default UUID mapping: the native UUID type, or BINARY(16) on databases without one. */
+    @Column(name = "uuid", nullable = false)
     private UUID uuid;
 
     @Lob
@@ -0,0 +1,76 @@
+package com.example.elstar.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A status update for a UUID that is not in {@code elstar_daten}, kept for
+ * inspection or replay instead of being applied.
+ */
+@Entity
+@Table(name = "elstar_status_parked")
+public class ParkedStatusUpdate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "uuid", nullable = false)
+    private UUID uuid;
+
+    private Integer status;
+
+    @Column(name = "parked_at", nullable = false)
+    private LocalDateTime parkedAt;
+
+    public ParkedStatusUpdate() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public void setUuid(UUID uuid) {
+        this.uuid = uuid;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getParkedAt() {
+        return parkedAt;
+    }
+
+    public void setParkedAt(LocalDateTime parkedAt) {
+        this.parkedAt = parkedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ParkedStatusUpdate{" +
+                "id=" + id +
+                ", uuid=" + uuid +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.elstar.jms;
+
+import com.example.elstar.dto.StatusUpdate;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.SessionAwareMessageListener;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-running receive of {@link StatusUpdate}s. Every consumer collects the
+ * updates it receives on its transacted session and writes them as one chunk
+ * once {@code batchSize} updates are pending or the oldest has waited
+ * {@code batchWindow}. The session is committed only after the chunk was
+ * written, so a failed write rolls the messages back for redelivery. A
+ * batch message adds all of its updates at once.
+ * <p>
+ * Stopping the container flushes every pending batch before the consumers
+ * pause, so {@link #stop(Runnable)} returns only after in-flight messages
+ * are written and acknowledged. Once bound to a {@link MeterRegistry} every
+ * flush is timed as {@value #BATCH_METRIC} and the updates waiting for a
+ * flush are published as {@value #PENDING_METRIC}.
+ */
+public class BatchingStatusUpdateListenerContainer extends DefaultMessageListenerContainer implements MeterBinder {
+
+    public static final String BATCH_METRIC = "elstar.receive.listener.batch";
+    public static final String PENDING_METRIC = "elstar.receive.listener.pending";
+
+    private final ItemWriter<StatusUpdate> writer;
+    private final TransactionOperations transactionOperations;
+    private final int batchSize;
+    private final long batchWindowNanos;
+    private final Map<Session, Batch> batches = new ConcurrentHashMap<>();
+    private Timer batchTimer;
+
+    public BatchingStatusUpdateListenerContainer(MessageConverter messageConverter,
+                                                 ItemWriter<StatusUpdate> writer,
+                                                 TransactionOperations transactionOperations,
+                                                 int batchSize,
+                                                 Duration batchWindow) {
+        this.writer = writer;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = batchSize;
+        this.batchWindowNanos = batchWindow.toNanos();
+        setSessionTransacted(true);
+        setAcceptMessagesWhileStopping(true);
+        setMessageListener((SessionAwareMessageListener<Message>) (message, session) ->
+                batches.computeIfAbsent(session, s -> new Batch()).add(messageConverter.fromMessage(message)));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchTimer = Timer.builder(BATCH_METRIC)
+                .description("Time to write and acknowledge one batch of status updates")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder(PENDING_METRIC, this, BatchingStatusUpdateListenerContainer::getPendingUpdates)
+                .description("Received status updates waiting for their batch to be written")
+                .register(registry);
+    }
+
+    /**
+     * Number of received updates that are not yet written.
+     */
+    public int getPendingUpdates() {
+        return batches.values().stream().mapToInt(Batch::size).sum();
+    }
+
+    @Override
+    protected boolean shouldCommitAfterNoMessageReceived(Session session) {
+        return true;
+    }
+
+    @Override
+    protected void commitIfNecessary(Session session, Message message) throws JMSException {
+        Batch batch = batches.get(session);
+        if (batch == null || batch.size() == 0) {
+            return;
+        }
+        if (batch.size() < batchSize && System.nanoTime() - batch.started < batchWindowNanos && isRunning()) {
+            return;
+        }
+        batches.remove(session);
+        long start = System.nanoTime();
+        try {
+            transactionOperations.executeWithoutResult(status -> write(batch));
+        } catch (RuntimeException e) {
+            rollbackIfNecessary(session);
+            handleListenerException(e);
+            return;
+        }
+        super.commitIfNecessary(session, message);
+        if (batchTimer != null) {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    protected void rollbackOnExceptionIfNecessary(Session session, Throwable ex) throws JMSException {
+        batches.remove(session);
+        super.rollbackOnExceptionIfNecessary(session, ex);
+    }
+
+    private void write(Batch batch) {
+        try {
+            writer.write(new Chunk<>(batch.updates));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to write " + batch.size() + " status updates", e);
+        }
+    }
+
+    // Updates received on one session since its last commit
+    private static class Batch {
+        final List<StatusUpdate> updates = new ArrayList<>();
+        long started;
+
+        // A single update or the list of a batch message
+        void add(Object converted) {
+            if (updates.isEmpty()) {
+                started = System.nanoTime();
+            }
+            if (converted instanceof List<?> list) {
+                for (Object update : list) {
+                    updates.add((StatusUpdate) update);
+                }
+            } else {
+                updates.add((StatusUpdate) converted);
+            }
+        }
+
+        int size() {
+            return updates.size();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.elstar.jms;
+
+/**
+ * Text form of status codes without per-message allocations: parsing reads
+ * digits straight from a {@link CharSequence} range (surrounding whitespace
+ * is skipped, not trimmed off into a copy), and statuses from 0 to
+ * {@value #MAX_CACHED} come as shared boxed values and strings.
+ */
+public final class StatusCodec {
+
+    /** Largest status whose {@link Integer} and text are cached. */
+    public static final int MAX_CACHED = 999;
+
+    private static final Integer[] BOXED = new Integer[MAX_CACHED + 1];
+    private static final String[] TEXT = new String[MAX_CACHED + 1];
+
+    static {
+        for (int i = 0; i <= MAX_CACHED; i++) {
+            BOXED[i] = i;
+            TEXT[i] = Integer.toString(i);
+        }
+    }
+
+    private StatusCodec() {
+    }
+
+    /** Boxes a status, sharing one instance per value from 0 to {@value #MAX_CACHED}. */
+    public static Integer valueOf(int status) {
+        return status >= 0 && status <= MAX_CACHED ? BOXED[status] : Integer.valueOf(status);
+    }
+
+    /** Like {@link String#valueOf(Object)}, sharing one string per value from 0 to {@value #MAX_CACHED}. */
+    public static String toString(Integer status) {
+        if (status == null) {
+            return "null";
+        }
+        int value = status;
+        return value >= 0 && value <= MAX_CACHED ? TEXT[value] : Integer.toString(value);
+    }
+
+    /**
+     * Parses the whole text like {@code Integer.parseInt(text.trim())}.
+     *
+     * @throws NumberFormatException if the text is not a decimal {@code int}
+     */
+    public static int parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses {@code text[start]} to {@code text[end - 1]} like
+     * {@code Integer.parseInt} after trimming characters up to {@code ' '}.
+     *
+     * @throws NumberFormatException if the range is not a decimal {@code int}
+     */
+    public static int parse(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            throw invalid(text, start, end);
+        }
+        boolean negative = false;
+        int i = start;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                throw invalid(text, start, end);
+            }
+        }
+        // Accumulate negatively like Integer.parseInt, so Integer.MIN_VALUE fits
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < limit / 10) {
+                throw invalid(text, start, end);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw invalid(text, start, end);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static NumberFormatException invalid(CharSequence text, int start, int end) {
+        return new NumberFormatException("For input string: \"" + text.subSequence(start, end) + "\"");
+    }
+}
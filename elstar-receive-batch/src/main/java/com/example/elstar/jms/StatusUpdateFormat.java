@@ -0,0 +1,86 @@
+package com.example.elstar.jms;
+
+/**
+ * Wire formats of a status update. The format of a message is given by the
+ * {@value #PROPERTY} int property; messages without it are in the original
+ * text format, so senders can switch one by one. The batch formats carry
+ * many updates per message and convert to a {@code List} of them.
+ */
+public enum StatusUpdateFormat {
+
+    /** {@code TextMessage} with the status as decimal text and the UUID as correlation ID. */
+    TEXT(1, "text"),
+
+    /**
+     * {@code BytesMessage} with a body of {@value #BINARY_LENGTH} bytes: the UUID's
+     * most and least significant bits as two longs, then the status as an int,
+     * all big-endian.
+     */
+    BINARY(2, "binary"),
+
+    /**
+     * {@code TextMessage} with one {@code uuid;status} line per update, the
+     * UUID in canonical form and the status as decimal text.
+     */
+    TEXT_BATCH(3, "text-batch"),
+
+    /**
+     * {@code BytesMessage} with the number of updates as an int, followed by
+     * one {@link #BINARY} record of {@value #BINARY_LENGTH} bytes per update.
+     */
+    BINARY_BATCH(4, "binary-batch");
+
+    /** JMS int property carrying the {@link #getVersion() version} of the format. */
+    public static final String PROPERTY = "elstarFormatVersion";
+
+    /** Body length of a {@link #BINARY} message. */
+    public static final int BINARY_LENGTH = 2 * Long.BYTES + Integer.BYTES;
+
+    private final int version;
+    private final String propertyValue;
+
+    StatusUpdateFormat(int version, String propertyValue) {
+        this.version = version;
+        this.propertyValue = propertyValue;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getPropertyValue() {
+        return propertyValue;
+    }
+
+    public boolean isBatch() {
+        return this == TEXT_BATCH || this == BINARY_BATCH;
+    }
+
+    /** The batch format of the same encoding. */
+    public StatusUpdateFormat toBatch() {
+        return this == TEXT ? TEXT_BATCH : this == BINARY ? BINARY_BATCH : this;
+    }
+
+    /** Resolves the version property of a message. */
+    public static StatusUpdateFormat fromVersion(int version) {
+        for (StatusUpdateFormat format : values()) {
+            if (format.version == version) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown status update format version: " + version);
+    }
+
+    /** Resolves a configuration value; {@code null} and empty mean {@link #TEXT}. */
+    public static StatusUpdateFormat fromPropertyValue(String value) {
+        if (value == null || value.isEmpty()) {
+            return TEXT;
+        }
+        for (StatusUpdateFormat format : values()) {
+            if (format.propertyValue.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown status update format: " + value);
+    }
+}
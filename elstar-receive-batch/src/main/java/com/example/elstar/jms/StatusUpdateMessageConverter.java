@@ -1,30 +1,95 @@
 package com.example.elstar.jms;
 
 import com.example.elstar.dto.StatusUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.jms.BytesMessage;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.Session;
 import jakarta.jms.TextMessage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.support.converter.MessageConversionException;
 import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Component
-public class StatusUpdateMessageConverter implements MessageConverter {
+public class StatusUpdateMessageConverter implements MessageConverter, MeterBinder {
+
+    /** Counter of messages that could not be converted, tagged with converter and operation. */
+    public static final String FAILURE_METRIC = "elstar.jms.conversion.failures";
+
+    private StatusUpdateFormat format = StatusUpdateFormat.TEXT;
+    private Counter toMessageFailures;
+    private Counter fromMessageFailures;
+
+    /**
+     * Format {@code toMessage} writes: {@code text} (default), {@code binary},
+     * {@code text-batch} or {@code binary-batch}. A {@code List} of updates is
+     * always written in the batch format of the configured encoding.
+     * {@code fromMessage} reads all of them, going by {@link StatusUpdateFormat#PROPERTY},
+     * and answers a {@code List<StatusUpdate>} for a batch message.
+     */
+    @Value("${elstar.jms.status-format:text}")
+    public void setFormat(String format) {
+        this.format = StatusUpdateFormat.fromPropertyValue(format);
+    }
+
+    public StatusUpdateFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        toMessageFailures = failureCounter(registry, "toMessage");
+        fromMessageFailures = failureCounter(registry, "fromMessage");
+    }
 
     @Override
     public Message toMessage(Object object, Session session) throws JMSException, MessageConversionException {
+        try {
+            return createMessage(object, session);
+        } catch (MessageConversionException e) {
+            increment(toMessageFailures);
+            throw e;
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        try {
+            return extractStatusUpdate(message);
+        } catch (MessageConversionException e) {
+            increment(fromMessageFailures);
+            throw e;
+        }
+    }
+
+    private Message createMessage(Object object, Session session) throws JMSException {
+        if (object instanceof List<?> updates) {
+            return createBatchMessage(updates, format.toBatch(), session);
+        }
         if (!(object instanceof StatusUpdate)) {
             throw new MessageConversionException("Expected StatusUpdate but got: " +
                     (object != null ? object.getClass().getName() : "null"));
         }
 
         StatusUpdate statusUpdate = (StatusUpdate) object;
+        if (format.isBatch()) {
+            return createBatchMessage(List.of(statusUpdate), format, session);
+        }
+        if (format == StatusUpdateFormat.BINARY) {
+            return createBytesMessage(statusUpdate, session);
+        }
+
         TextMessage textMessage = session.createTextMessage();
 
-        textMessage.setText(String.valueOf(statusUpdate.getStatus()));
+        textMessage.setText(StatusCodec.toString(statusUpdate.getStatus()));
 
         if (statusUpdate.getUuid() != null) {
             textMessage.setJMSCorrelationID(statusUpdate.getUuid().toString());
@@ -33,8 +98,166 @@ public class StatusUpdateMessageConverter implements MessageConverter {
         return textMessage;
     }
 
-    @Override
-    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+    private Message createBatchMessage(List<?> updates, StatusUpdateFormat batchFormat, Session session)
+            throws JMSException {
+        for (Object update : updates) {
+            if (!(update instanceof StatusUpdate statusUpdate)
+                    || statusUpdate.getUuid() == null || statusUpdate.getStatus() == null) {
+                throw new MessageConversionException("Batch status updates need a UUID and a status each, got: "
+                        + update);
+            }
+        }
+
+        Message message;
+        if (batchFormat == StatusUpdateFormat.BINARY_BATCH) {
+            BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeInt(updates.size());
+            for (Object update : updates) {
+                writeRecord(bytesMessage, (StatusUpdate) update);
+            }
+            message = bytesMessage;
+        } else {
+            StringBuilder text = new StringBuilder(updates.size() * (UuidCodec.LENGTH + 5));
+            char[] uuid = new char[UuidCodec.LENGTH];
+            for (Object update : updates) {
+                StatusUpdate statusUpdate = (StatusUpdate) update;
+                UuidCodec.format(statusUpdate.getUuid(), uuid, 0);
+                text.append(uuid).append(';').append(statusUpdate.getStatus().intValue()).append('\n');
+            }
+            message = session.createTextMessage(text.toString());
+        }
+        message.setIntProperty(StatusUpdateFormat.PROPERTY, batchFormat.getVersion());
+        return message;
+    }
+
+    private BytesMessage createBytesMessage(StatusUpdate statusUpdate, Session session) throws JMSException {
+        UUID uuid = statusUpdate.getUuid();
+        Integer status = statusUpdate.getStatus();
+        if (uuid == null || status == null) {
+            throw new MessageConversionException("Binary status updates need a UUID and a status");
+        }
+
+        BytesMessage bytesMessage = session.createBytesMessage();
+        bytesMessage.setIntProperty(StatusUpdateFormat.PROPERTY, StatusUpdateFormat.BINARY.getVersion());
+        writeRecord(bytesMessage, statusUpdate);
+        return bytesMessage;
+    }
+
+    private static void writeRecord(BytesMessage bytesMessage, StatusUpdate statusUpdate) throws JMSException {
+        bytesMessage.writeLong(statusUpdate.getUuid().getMostSignificantBits());
+        bytesMessage.writeLong(statusUpdate.getUuid().getLeastSignificantBits());
+        bytesMessage.writeInt(statusUpdate.getStatus());
+    }
+
+    private static StatusUpdate readRecord(BytesMessage bytesMessage) throws JMSException {
+        UUID uuid = new UUID(bytesMessage.readLong(), bytesMessage.readLong());
+        return new StatusUpdate(uuid, StatusCodec.valueOf(bytesMessage.readInt()));
+    }
+
+    private Object extractStatusUpdate(Message message) throws JMSException {
+        StatusUpdateFormat messageFormat;
+        try {
+            messageFormat = message.propertyExists(StatusUpdateFormat.PROPERTY)
+                    ? StatusUpdateFormat.fromVersion(message.getIntProperty(StatusUpdateFormat.PROPERTY))
+                    : StatusUpdateFormat.TEXT;
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException for a property that is not an int
+            throw new MessageConversionException("Invalid " + StatusUpdateFormat.PROPERTY + ": "
+                    + message.getObjectProperty(StatusUpdateFormat.PROPERTY), e);
+        }
+
+        return switch (messageFormat) {
+            case TEXT -> extractFromText(message);
+            case BINARY -> extractFromBytes(message);
+            case TEXT_BATCH -> extractBatchFromText(message);
+            case BINARY_BATCH -> extractBatchFromBytes(message);
+        };
+    }
+
+    private List<StatusUpdate> extractBatchFromBytes(Message message) throws JMSException {
+        if (!(message instanceof BytesMessage bytesMessage)) {
+            throw new MessageConversionException("Expected BytesMessage for binary status batch but got: " +
+                    message.getClass().getName());
+        }
+        long length = bytesMessage.getBodyLength();
+        int count = length >= Integer.BYTES ? bytesMessage.readInt() : -1;
+        if (count < 0 || length != Integer.BYTES + (long) count * StatusUpdateFormat.BINARY_LENGTH) {
+            throw new MessageConversionException("Binary status batch of " + length + " bytes does not hold "
+                    + count + " updates");
+        }
+
+        List<StatusUpdate> updates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            updates.add(readRecord(bytesMessage));
+        }
+        return updates;
+    }
+
+    private List<StatusUpdate> extractBatchFromText(Message message) throws JMSException {
+        if (!(message instanceof TextMessage textMessage)) {
+            throw new MessageConversionException("Expected TextMessage for text status batch but got: " +
+                    message.getClass().getName());
+        }
+        String text = textMessage.getText();
+        if (text == null) {
+            throw new MessageConversionException("Missing text status batch in message body");
+        }
+
+        List<StatusUpdate> updates = new ArrayList<>(text.length() / (UuidCodec.LENGTH + 5) + 1);
+        int lineStart = 0;
+        for (int line = 1; lineStart < text.length(); line++) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            if (!isBlank(text, lineStart, lineEnd)) {
+                updates.add(parseLine(text, lineStart, lineEnd, line));
+            }
+            lineStart = lineEnd + 1;
+        }
+        return updates;
+    }
+
+    private static boolean isBlank(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // One "uuid;status" line, read in place without a substring
+    private static StatusUpdate parseLine(String text, int start, int end, int lineNumber) {
+        int separator = start + UuidCodec.LENGTH;
+        if (separator >= end || text.charAt(separator) != ';') {
+            throw new MessageConversionException("Status batch line " + lineNumber + " is not uuid;status: "
+                    + text.substring(start, end));
+        }
+        try {
+            UUID uuid = UuidCodec.parse(text, start);
+            return new StatusUpdate(uuid, StatusCodec.valueOf(StatusCodec.parse(text, separator + 1, end)));
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException of the status
+            throw new MessageConversionException("Invalid status batch line " + lineNumber + ": "
+                    + text.substring(start, end), e);
+        }
+    }
+
+    private StatusUpdate extractFromBytes(Message message) throws JMSException {
+        if (!(message instanceof BytesMessage bytesMessage)) {
+            throw new MessageConversionException("Expected BytesMessage for binary status update but got: " +
+                    message.getClass().getName());
+        }
+        if (bytesMessage.getBodyLength() != StatusUpdateFormat.BINARY_LENGTH) {
+            throw new MessageConversionException("Expected " + StatusUpdateFormat.BINARY_LENGTH +
+                    " bytes for binary status update but got: " + bytesMessage.getBodyLength());
+        }
+
+        return readRecord(bytesMessage);
+    }
+
+    private StatusUpdate extractFromText(Message message) throws JMSException {
         if (!(message instanceof TextMessage)) {
             throw new MessageConversionException("Expected TextMessage but got: " +
                     message.getClass().getName());
@@ -48,11 +271,9 @@ public class StatusUpdateMessageConverter implements MessageConverter {
             throw new MessageConversionException("Missing JMS correlation ID (UUID)");
         }
 
-        UUID uuid;
-        try {
-            uuid = UUID.fromString(correlationId);
-        } catch (IllegalArgumentException e) {
-            throw new MessageConversionException("Invalid UUID in correlation ID: " + correlationId, e);
+        UUID uuid = UuidCodec.parseOrNull(correlationId);
+        if (uuid == null) {
+            throw new MessageConversionException("Invalid UUID in correlation ID: " + correlationId);
         }
 
         // Extract status from message body
@@ -63,11 +284,25 @@ public class StatusUpdateMessageConverter implements MessageConverter {
 
         Integer status;
         try {
-            status = Integer.parseInt(statusText.trim());
+            status = StatusCodec.valueOf(StatusCodec.parse(statusText));
         } catch (NumberFormatException e) {
             throw new MessageConversionException("Invalid status value: " + statusText, e);
         }
 
         return new StatusUpdate(uuid, status);
     }
-}
\ No newline at end of file
+
+    private static Counter failureCounter(MeterRegistry registry, String operation) {
+        return Counter.builder(FAILURE_METRIC)
+                .description("Messages that could not be converted")
+                .tag("converter", "statusUpdate")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
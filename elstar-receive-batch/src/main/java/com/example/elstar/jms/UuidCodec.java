@@ -0,0 +1,150 @@
+package com.example.elstar.jms;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Hex codec for UUIDs in their canonical 36-character form, working on
+ * {@code char[]} and {@link CharSequence} ranges, so a UUID can be read out
+ * of a larger text without a substring. Parsing allocates only the
+ * {@link UUID}; formatting into a caller's array allocates nothing.
+ * Non-canonical input (such as {@code 1-2-3-4-5}) is left to
+ * {@link UUID#fromString(String)}. For a whole string,
+ * {@link UUID#toString()} is already as lean as it gets and stays in use.
+ */
+public final class UuidCodec {
+
+    /** Length of the canonical form {@code xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx}. */
+    public static final int LENGTH = 36;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] NIBBLES = new byte[128];
+
+    static {
+        Arrays.fill(NIBBLES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            NIBBLES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            NIBBLES['a' + i] = (byte) (10 + i);
+            NIBBLES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private UuidCodec() {
+    }
+
+    /**
+     * Writes the canonical lower-case form of the UUID into
+     * {@code target[offset]} to {@code target[offset + 35]}.
+     */
+    public static void format(UUID uuid, char[] target, int offset) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        hex(msb >>> 32, target, offset, 8);
+        target[offset + 8] = '-';
+        hex(msb >>> 16, target, offset + 9, 4);
+        target[offset + 13] = '-';
+        hex(msb, target, offset + 14, 4);
+        target[offset + 18] = '-';
+        hex(lsb >>> 48, target, offset + 19, 4);
+        target[offset + 23] = '-';
+        hex(lsb, target, offset + 24, 12);
+    }
+
+    /**
+     * Parses the canonical form at {@code text[offset]} to
+     * {@code text[offset + 35]}.
+     *
+     * @throws IllegalArgumentException if the range is not a canonical UUID
+     */
+    public static UUID parse(CharSequence text, int offset) {
+        if (offset < 0 || text.length() - offset < LENGTH) {
+            throw new IllegalArgumentException("No UUID at offset " + offset + " of: " + text);
+        }
+        UUID uuid = parseCanonical(text, offset);
+        if (uuid == null) {
+            throw new IllegalArgumentException("Invalid UUID at offset " + offset + " of: " + text);
+        }
+        return uuid;
+    }
+
+    /**
+     * Parses a whole text as a UUID like {@link UUID#fromString(String)}, but
+     * answers {@code null} instead of throwing for text that is not a UUID.
+     */
+    public static UUID parseOrNull(CharSequence text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        if (text.length() == LENGTH && hasCanonicalDashes(text, 0)) {
+            return parseCanonical(text, 0);
+        }
+        if (!couldBeUuid(text)) {
+            // Spares the exception UUID.fromString would throw, e.g. for provider IDs like "ID:414d51..."
+            return null;
+        }
+        try {
+            return UUID.fromString(text.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Whether the text has the length, characters and four dashes {@link UUID#fromString(String)} needs. */
+    private static boolean couldBeUuid(CharSequence text) {
+        if (text.length() > LENGTH) {
+            return false;
+        }
+        int dashes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '-') {
+                dashes++;
+            } else if (c != '+' && nibble(c) < 0) {
+                return false;
+            }
+        }
+        return dashes == 4;
+    }
+
+    private static boolean hasCanonicalDashes(CharSequence text, int offset) {
+        return text.charAt(offset + 8) == '-' && text.charAt(offset + 13) == '-'
+                && text.charAt(offset + 18) == '-' && text.charAt(offset + 23) == '-';
+    }
+
+    private static UUID parseCanonical(CharSequence text, int offset) {
+        if (!hasCanonicalDashes(text, offset)) {
+            return null;
+        }
+        long time = hex(text, offset, 8);
+        long mid = hex(text, offset + 9, 4);
+        long high = hex(text, offset + 14, 4);
+        long sequence = hex(text, offset + 19, 4);
+        long node = hex(text, offset + 24, 12);
+        if ((time | mid | high | sequence | node) < 0) {
+            return null;
+        }
+        return new UUID(time << 32 | mid << 16 | high, sequence << 48 | node);
+    }
+
+    /** Up to 12 hex digits as a non-negative value, or a negative one if any digit is invalid. */
+    private static long hex(CharSequence text, int offset, int digits) {
+        long value = 0;
+        for (int i = 0; i < digits; i++) {
+            value = value << 4 | nibble(text.charAt(offset + i));
+        }
+        return value;
+    }
+
+    private static int nibble(char c) {
+        return c < 128 ? NIBBLES[c] : -1;
+    }
+
+    private static void hex(long value, char[] target, int offset, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            target[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -1,13 +1,88 @@
 package com.example.elstar.reader;
 
-import org.springframework.batch.infrastructure.item.ItemReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.jms.Connection;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamException;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-public class QueueReader<T> implements ItemReader<T> {
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives one message per {@link #read()}. Once bound to a
+ * {@link MeterRegistry} every receive is timed as {@value #RECEIVE_METRIC},
+ * tagged {@code result=message} when a message arrived and
+ * {@code result=empty} when the receive timeout expired, so waiting for
+ * messages and polling an empty queue can be told apart.
+ * <p>
+ * Between {@link #open(ExecutionContext)} and {@link #close()} the reader
+ * keeps one connection, transacted session and {@link MessageConsumer}. The
+ * receives of a chunk are committed on that session once the chunk
+ * transaction has committed; if it rolls back they are rolled back as well
+ * and the broker redelivers them. Outside a transaction every receive is
+ * committed at once. A reader that was not opened receives through the
+ * {@link JmsTemplate}, one consumer per message.
+ * <p>
+ * A message the converter turns into a {@link List} is a batch: its elements
+ * are read one by one, across as many chunks as needed. The message is
+ * committed on the session only with the chunk that reads its last element.
+ * Until then {@link #update(ExecutionContext)} saves its JMS message ID and the
+ * number of elements already read, so after a rollback, or a restart with
+ * that execution context, the redelivered message resumes behind the elements
+ * already written.
+ * <p>
+ * Messages received in the same session transaction as a pending batch, such
+ * as the single messages of the chunk that started it, stay unacknowledged
+ * with it although their chunk has committed. Their JMS message IDs are saved
+ * as {@value #WRITTEN_MESSAGE_IDS_KEY} until the session commits; when they
+ * are redelivered after a rollback or a restart they are skipped, so an older
+ * status is never written over a newer one.
+ */
+public class QueueReader<T> implements ItemStreamReader<T>, MeterBinder {
+
+    public static final String RECEIVE_METRIC = "elstar.receive.message";
+
+    /** Execution context key of the JMS message ID of a partly read batch message. */
+    public static final String BATCH_MESSAGE_ID_KEY = "queueReader.batch.messageId";
+
+    /** Execution context key of the number of elements of that batch already read. */
+    public static final String BATCH_OFFSET_KEY = "queueReader.batch.offset";
+
+    /** Execution context key of the messages written by committed chunks but not yet acknowledged. */
+    public static final String WRITTEN_MESSAGE_IDS_KEY = "queueReader.written.messageIds";
 
     private final JmsTemplate jmsTemplate;
     private final String destinationName;
     private final Class<T> targetType;
+    private Timer messageTimer;
+    private Timer emptyTimer;
+    private Connection connection;
+    private Session session;
+    private MessageConsumer consumer;
+    private boolean synchronizationRegistered;
+    private List<?> batch;
+    private String batchMessageId;
+    private int batchOffset;
+    private String resumeMessageId;
+    private int resumeOffset;
+    private final Set<String> sessionMessageIds = new LinkedHashSet<>();
+    private final Set<String> writtenMessageIds = new LinkedHashSet<>();
 
     public QueueReader(JmsTemplate jmsTemplate, String destinationName, Class<T> targetType) {
         this.jmsTemplate = jmsTemplate;
@@ -16,17 +91,82 @@ public class QueueReader<T> implements ItemReader<T> {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public T read() throws Exception {
-        Object message = jmsTemplate.receiveAndConvert(destinationName);
-        if (message == null) {
-            return null;
+    public void bindTo(MeterRegistry registry) {
+        messageTimer = receiveTimer(registry, "message");
+        emptyTimer = receiveTimer(registry, "empty");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        resumeMessageId = executionContext.containsKey(BATCH_MESSAGE_ID_KEY)
+                ? executionContext.getString(BATCH_MESSAGE_ID_KEY)
+                : null;
+        resumeOffset = executionContext.getInt(BATCH_OFFSET_KEY, 0);
+        sessionMessageIds.clear();
+        writtenMessageIds.clear();
+        if (executionContext.containsKey(WRITTEN_MESSAGE_IDS_KEY)) {
+            writtenMessageIds.addAll(Arrays.asList(executionContext.getString(WRITTEN_MESSAGE_IDS_KEY).split(",")));
         }
-        if (!targetType.isInstance(message)) {
-            throw new IllegalStateException("Expected " + targetType.getName() +
-                    " but received: " + message.getClass().getName());
+        try {
+            connection = jmsTemplate.getConnectionFactory().createConnection();
+            session = connection.createSession(true, Session.SESSION_TRANSACTED);
+            Destination destination = jmsTemplate.getDestinationResolver()
+                    .resolveDestinationName(session, destinationName, false);
+            consumer = session.createConsumer(destination);
+            connection.start();
+        } catch (JMSException e) {
+            close();
+            throw new ItemStreamException("Failed to open consumer on " + destinationName, e);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (isBatchPending()) {
+            executionContext.putString(BATCH_MESSAGE_ID_KEY, batchMessageId);
+            executionContext.putInt(BATCH_OFFSET_KEY, batchOffset);
+            executionContext.putString(WRITTEN_MESSAGE_IDS_KEY, String.join(",", writtenWithPendingBatch()));
+        } else {
+            executionContext.remove(BATCH_MESSAGE_ID_KEY);
+            executionContext.remove(BATCH_OFFSET_KEY);
+            executionContext.remove(WRITTEN_MESSAGE_IDS_KEY);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        JmsUtils.closeMessageConsumer(consumer);
+        JmsUtils.closeSession(session);
+        JmsUtils.closeConnection(connection, true);
+        consumer = null;
+        session = null;
+        connection = null;
+        synchronizationRegistered = false;
+        batch = null;
+    }
+
+    @Override
+    public T read() throws Exception {
+        while (true) {
+            if (batch != null && batchOffset < batch.size()) {
+                if (consumer != null) {
+                    registerSynchronization();
+                }
+                return checkType(batch.get(batchOffset++));
+            }
+            if (batch != null && consumer != null && !TransactionSynchronizationManager.isSynchronizationActive()) {
+                commitSession();
+            }
+            batch = null;
+
+            Object item = receive();
+            if (!(item instanceof List<?>)) {
+                return item != null ? checkType(item) : null;
+            }
+            if (consumer == null) {
+                startBatch((List<?>) item, null);
+            }
         }
-        return (T) message;
     }
 
     public JmsTemplate getJmsTemplate() {
@@ -36,4 +176,147 @@ public class QueueReader<T> implements ItemReader<T> {
     public String getDestinationName() {
         return destinationName;
     }
+
+    private Object receive() throws JMSException {
+        long start = System.nanoTime();
+        Object item = consumer != null ? receiveFromSession() : jmsTemplate.receiveAndConvert(destinationName);
+        Timer timer = item != null ? messageTimer : emptyTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return item;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T checkType(Object item) {
+        if (!targetType.isInstance(item)) {
+            throw new IllegalStateException("Expected " + targetType.getName() +
+                    " but received: " + item.getClass().getName());
+        }
+        return (T) item;
+    }
+
+    private void startBatch(List<?> items, String messageId) {
+        batch = items;
+        batchMessageId = messageId;
+        batchOffset = 0;
+        if (messageId != null && messageId.equals(resumeMessageId)) {
+            // Redelivered batch: its first elements were written by committed chunks
+            batchOffset = Math.min(resumeOffset, items.size());
+        }
+    }
+
+    private boolean isBatchPending() {
+        return batch != null && batchOffset < batch.size();
+    }
+
+    // The messages of the session a commit of the current chunk leaves written but unacknowledged
+    private Set<String> writtenWithPendingBatch() {
+        Set<String> written = new LinkedHashSet<>(writtenMessageIds);
+        written.addAll(sessionMessageIds);
+        written.remove(batchMessageId);
+        return written;
+    }
+
+    private void commitSession() throws JMSException {
+        session.commit();
+        sessionMessageIds.clear();
+        writtenMessageIds.clear();
+    }
+
+    private void registerSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !synchronizationRegistered) {
+            TransactionSynchronizationManager.registerSynchronization(new SessionSynchronization());
+            synchronizationRegistered = true;
+        }
+    }
+
+    private Object receiveFromSession() throws JMSException {
+        long timeout = jmsTemplate.getReceiveTimeout();
+        boolean transactional = TransactionSynchronizationManager.isSynchronizationActive();
+        Message message = timeout < 0 ? consumer.receiveNoWait() : consumer.receive(timeout);
+        while (message != null && writtenMessageIds.contains(message.getJMSMessageID())) {
+            // Written by a committed chunk; acknowledged with the next session commit
+            sessionMessageIds.add(message.getJMSMessageID());
+            if (!transactional) {
+                commitSession();
+            }
+            message = timeout < 0 ? consumer.receiveNoWait() : consumer.receive(timeout);
+        }
+        if (message == null) {
+            return null;
+        }
+        sessionMessageIds.add(message.getJMSMessageID());
+        registerSynchronization();
+        Object item;
+        try {
+            MessageConverter converter = jmsTemplate.getMessageConverter();
+            item = converter != null ? converter.fromMessage(message) : message;
+        } catch (RuntimeException | JMSException e) {
+            if (!transactional) {
+                session.rollback();
+                sessionMessageIds.clear();
+            }
+            throw e;
+        }
+        if (item instanceof List<?> items) {
+            // Committed once its last element is read
+            startBatch(items, message.getJMSMessageID());
+        } else if (!transactional) {
+            commitSession();
+        }
+        return item;
+    }
+
+    private Timer receiveTimer(MeterRegistry registry, String result) {
+        return Timer.builder(RECEIVE_METRIC)
+                .description("Time spent in one receive, including the wait for a message")
+                .tag("queue", destinationName)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // Ends the session's receives together with the chunk transaction
+    private class SessionSynchronization implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            if (session == null) {
+                return;
+            }
+            if (isBatchPending()) {
+                // Keep the batch message unacknowledged; a rollback resumes behind what was written
+                // and skips the other messages of the session
+                resumeMessageId = batchMessageId;
+                resumeOffset = batchOffset;
+                Set<String> written = writtenWithPendingBatch();
+                writtenMessageIds.clear();
+                writtenMessageIds.addAll(written);
+                return;
+            }
+            try {
+                commitSession();
+            } catch (JMSException e) {
+                throw JmsUtils.convertJmsAccessException(e);
+            }
+            batch = null;
+            resumeMessageId = null;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            synchronizationRegistered = false;
+            if (status != STATUS_COMMITTED && session != null) {
+                // The batch message is redelivered and resumes at the last committed offset
+                batch = null;
+                sessionMessageIds.clear();
+                try {
+                    session.rollback();
+                } catch (JMSException e) {
+                    throw JmsUtils.convertJmsAccessException(e);
+                }
+            }
+        }
+    }
 }
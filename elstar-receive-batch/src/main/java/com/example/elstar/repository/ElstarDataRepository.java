@@ -17,4 +17,8 @@ public interface ElstarDataRepository extends JpaRepository<ElstarData, Long> {
     @Modifying
     @Query("UPDATE ElstarData e SET e.status = :status WHERE e.uuid = :uuid")
     int updateStatusByUuid(@Param("uuid") UUID uuid, @Param("status") Integer status);
+
+    @Modifying
+    @Query("UPDATE ElstarData e SET e.status = :status WHERE e.id = :id")
+    int updateStatusById(@Param("id") Long id, @Param("status") Integer status);
 }
@@ -0,0 +1,222 @@
+package com.example.elstar.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of the UUIDs in {@code elstar_daten}. {@link #mightContain}
+ * answering {@code false} means the UUID was not in the table when the
+ * filter was last synchronized; {@code true} is wrong with roughly the
+ * configured false-positive rate.
+ * <p>
+ * {@link #rebuild()} sizes the filter for twice the rows present, so the
+ * rate holds until the table has doubled, and remembers the highest id it
+ * loaded. {@link #refresh()} adds the rows above that watermark, less
+ * {@link #setRefreshOverlap(int) refreshOverlap} ids, since an identity id
+ * is taken at insert and a slow transaction can commit below ids already
+ * loaded. {@link #refreshIfDue()} refreshes at most once per
+ * {@link #setRefreshInterval(Duration) refreshInterval}. The rate the filter
+ * has at its current fill is published as {@value #FALSE_POSITIVE_RATE_METRIC}.
+ */
+public class UuidBloomFilter implements MeterBinder {
+
+    public static final String FALSE_POSITIVE_RATE_METRIC = "elstar.receive.bloom.false-positive-rate";
+
+    /** Returned by {@link #refreshIfDue()} when no refresh was due. */
+    public static final long NOT_REFRESHED = -1;
+
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(10);
+    public static final int DEFAULT_REFRESH_OVERLAP = 1000;
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM elstar_daten";
+    private static final String LOAD_SQL = "SELECT id, uuid FROM elstar_daten WHERE id > ?";
+    private static final long MIN_CAPACITY = 1 << 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double falsePositiveRate;
+    private final Object rebuildMonitor = new Object();
+    private volatile Bits bits;
+    private long refreshIntervalNanos = DEFAULT_REFRESH_INTERVAL.toNanos();
+    private int refreshOverlap = DEFAULT_REFRESH_OVERLAP;
+    private volatile long highestId;
+    private volatile long lastSyncNanos = System.nanoTime();
+
+    public UuidBloomFilter(DataSource dataSource, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.falsePositiveRate = falsePositiveRate;
+        this.bits = new Bits(MIN_CAPACITY, falsePositiveRate);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(FALSE_POSITIVE_RATE_METRIC, this, UuidBloomFilter::getExpectedFalsePositiveRate)
+                .description("False-positive rate of the UUID Bloom filter at its current fill")
+                .tag("target", Double.toString(falsePositiveRate))
+                .register(registry);
+    }
+
+    /**
+     * Minimum time between two refreshes by {@link #refreshIfDue()}; zero
+     * refreshes on every call. Defaults to 10 seconds.
+     */
+    public void setRefreshInterval(Duration refreshInterval) {
+        if (refreshInterval.isNegative()) {
+            throw new IllegalArgumentException("refreshInterval must not be negative");
+        }
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * Number of ids below the watermark that {@link #refresh()} re-scans;
+     * defaults to {@value #DEFAULT_REFRESH_OVERLAP}.
+     */
+    public void setRefreshOverlap(int refreshOverlap) {
+        if (refreshOverlap < 0) {
+            throw new IllegalArgumentException("refreshOverlap must not be negative");
+        }
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    /**
+     * Replaces the filter with one sized for the current table and loaded
+     * from it.
+     */
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            long rows = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+            Bits rebuilt = new Bits(Math.max(MIN_CAPACITY, 2 * rows), falsePositiveRate);
+            highestId = load(rebuilt, 0);
+            bits = rebuilt;
+            lastSyncNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Adds the rows above the watermark, less the overlap, to the filter.
+     *
+     * @return the id above which rows were loaded
+     */
+    public long refresh() {
+        synchronized (rebuildMonitor) {
+            long afterId = Math.max(0, highestId - refreshOverlap);
+            highestId = Math.max(highestId, load(bits, afterId));
+            lastSyncNanos = System.nanoTime();
+            return afterId;
+        }
+    }
+
+    /**
+     * {@link #refresh() Refreshes} the filter if the refresh interval has
+     * passed since it was last synchronized.
+     *
+     * @return the id above which rows were loaded, or {@link #NOT_REFRESHED}
+     */
+    public long refreshIfDue() {
+        if (System.nanoTime() - lastSyncNanos < refreshIntervalNanos) {
+            return NOT_REFRESHED;
+        }
+        synchronized (rebuildMonitor) {
+            // Another thread may have refreshed while this one waited
+            if (System.nanoTime() - lastSyncNanos < refreshIntervalNanos) {
+                return NOT_REFRESHED;
+            }
+            return refresh();
+        }
+    }
+
+    private long load(Bits target, long afterId) {
+        long[] highest = {afterId};
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            highest[0] = Math.max(highest[0], rs.getLong(1));
+            UUID uuid = rs.getObject(2, UUID.class);
+            target.add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        }, afterId);
+        return highest[0];
+    }
+
+    public boolean mightContain(UUID uuid) {
+        return bits.mightContain(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public double getExpectedFalsePositiveRate() {
+        return bits.expectedFalsePositiveRate();
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * One generation of the filter. Bits are only ever set, so readers need
+     * no lock; additions happen under the rebuild monitor. Only additions
+     * that set a bit count towards the fill, so rows re-scanned by a refresh
+     * are not counted twice.
+     */
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+        private volatile long added;
+
+        Bits(long capacity, double falsePositiveRate) {
+            long optimal = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (optimal + 63) / 64);
+            this.words = new AtomicLongArray(wordCount);
+            this.size = wordCount * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) size / capacity * Math.log(2)));
+        }
+
+        void add(long msb, long lsb) {
+            long h1 = mix(msb ^ lsb);
+            long h2 = mix(lsb + 0x9E3779B97F4A7C15L) | 1;
+            boolean changed = false;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                long current = words.get(word);
+                if ((current & mask) == 0) {
+                    words.getAndAccumulate(word, mask, (a, b) -> a | b);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                added++;
+            }
+        }
+
+        boolean mightContain(long msb, long lsb) {
+            long h1 = mix(msb ^ lsb);
+            long h2 = mix(lsb + 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-(double) hashes * added / size), hashes);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
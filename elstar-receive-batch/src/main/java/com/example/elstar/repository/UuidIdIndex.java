@@ -0,0 +1,222 @@
+package com.example.elstar.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory map from the UUID of an {@code elstar_daten} row to its primary
+ * key, so status updates can address rows by {@code id}. It is an
+ * open-addressing table with linear probing over plain {@code long} arrays:
+ * the UUID as two longs and the id as a third, with no object per entry.
+ * <p>
+ * Rows are only ever added: {@link #catchUp()} loads the rows with an id
+ * above the highest one seen so far, so the first call warms the index and
+ * later calls pick up new rows. Identity ids are assigned at insert, not at
+ * commit, so a transaction can commit a row below an id already loaded; every
+ * catch-up therefore re-scans {@link #setCatchUpOverlap(int) catchUpOverlap}
+ * ids below the highest one. A row committed later still is missed until the
+ * index is rebuilt. An id may also be stale if its row was deleted. Callers
+ * fall back to the UUID in both cases and count that with
+ * {@link #recordFallbacks(int)}.
+ */
+public class UuidIdIndex implements MeterBinder {
+
+    public static final String SIZE_METRIC = "elstar.receive.uuid-index.size";
+    public static final String CATCH_UP_METRIC = "elstar.receive.uuid-index.catch-up";
+    public static final String FALLBACK_METRIC = "elstar.receive.uuid-index.fallback";
+
+    /** Default number of ids below the highest loaded one that every catch-up re-scans. */
+    public static final int DEFAULT_CATCH_UP_OVERLAP = 1000;
+
+    /** Returned by {@link #getId(UUID)} for an unknown UUID; identity ids start at 1. */
+    public static final long NO_ID = 0;
+
+    private static final String CATCH_UP_SQL = "SELECT id, uuid FROM elstar_daten WHERE id > ? ORDER BY id";
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int MAX_LOAD_PERCENT = 70;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object catchUpMonitor = new Object();
+    // Slot i holds the UUID in keys[2i] and keys[2i+1] and the id in ids[i]; an id of 0 marks an empty slot
+    private long[] keys = new long[2 * INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+    private volatile long highestId;
+    private int catchUpOverlap = DEFAULT_CATCH_UP_OVERLAP;
+    private Timer catchUpTimer;
+    private Counter fallbackCounter;
+
+    public UuidIdIndex(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(SIZE_METRIC, this, UuidIdIndex::size)
+                .description("UUIDs in the UUID-to-id index")
+                .register(registry);
+        catchUpTimer = Timer.builder(CATCH_UP_METRIC)
+                .description("Latency of loading new rows into the UUID-to-id index")
+                .register(registry);
+        fallbackCounter = Counter.builder(FALLBACK_METRIC)
+                .description("Status updates written by UUID because the UUID-to-id index had no current id")
+                .register(registry);
+    }
+
+    /**
+     * Number of ids below the highest loaded one that {@link #catchUp()}
+     * re-scans for rows committed late; defaults to {@value #DEFAULT_CATCH_UP_OVERLAP}.
+     */
+    public void setCatchUpOverlap(int catchUpOverlap) {
+        if (catchUpOverlap < 0) {
+            throw new IllegalArgumentException("catchUpOverlap must not be negative");
+        }
+        this.catchUpOverlap = catchUpOverlap;
+    }
+
+    /**
+     * Counts status updates that had to be written by UUID, as the index
+     * knew no id for them or only a stale one.
+     */
+    public void recordFallbacks(int count) {
+        if (fallbackCounter != null && count > 0) {
+            fallbackCounter.increment(count);
+        }
+    }
+
+    /**
+     * Returns the id of the row with this UUID, or {@link #NO_ID} if the
+     * index does not know it (yet).
+     */
+    public long getId(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        lock.readLock().lock();
+        try {
+            int mask = ids.length - 1;
+            for (int slot = hash(msb, lsb) & mask; ids[slot] != NO_ID; slot = (slot + 1) & mask) {
+                if (keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+                    return ids[slot];
+                }
+            }
+            return NO_ID;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces the id of a UUID.
+     *
+     * @throws IllegalArgumentException if the id is not positive
+     */
+    public void put(UUID uuid, long id) {
+        if (id <= NO_ID) {
+            throw new IllegalArgumentException("Row ids must be positive: " + id);
+        }
+        lock.writeLock().lock();
+        try {
+            if ((size + 1) * 100L > ids.length * (long) MAX_LOAD_PERCENT) {
+                resize(ids.length * 2);
+            }
+            if (insert(keys, ids, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), id)) {
+                size++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads every row with an id above the highest one loaded so far, less
+     * the overlap. Concurrent calls run one after the other; the later ones
+     * find little or nothing to load.
+     *
+     * @return the number of rows the index did not know under their id
+     */
+    public int catchUp() {
+        synchronized (catchUpMonitor) {
+            long start = System.nanoTime();
+            long[] loaded = {0, highestId};
+            jdbcTemplate.query(CATCH_UP_SQL, rs -> {
+                long id = rs.getLong(1);
+                UUID uuid = rs.getObject(2, UUID.class);
+                if (getId(uuid) != id) {
+                    put(uuid, id);
+                    loaded[0]++;
+                }
+                loaded[1] = Math.max(loaded[1], id);
+            }, Math.max(NO_ID, highestId - catchUpOverlap));
+            highestId = loaded[1];
+            if (catchUpTimer != null) {
+                catchUpTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            return (int) loaded[0];
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Heap used by the table arrays, excluding the fixed overhead of this object. */
+    public long getTableBytes() {
+        lock.readLock().lock();
+        try {
+            return (keys.length + ids.length) * (long) Long.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] newKeys = new long[2 * capacity];
+        long[] newIds = new long[capacity];
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] != NO_ID) {
+                insert(newKeys, newIds, keys[2 * slot], keys[2 * slot + 1], ids[slot]);
+            }
+        }
+        keys = newKeys;
+        ids = newIds;
+    }
+
+    private static boolean insert(long[] keys, long[] ids, long msb, long lsb, long id) {
+        int mask = ids.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (ids[slot] != NO_ID) {
+            if (keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+                ids[slot] = id;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[2 * slot] = msb;
+        keys[2 * slot + 1] = lsb;
+        ids[slot] = id;
+        return true;
+    }
+
+    // Random UUIDs are already uniform, but time-based or sequential ones are not
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.elstar.writer;
+
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.repository.UuidIdIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the status updates of a chunk with one JDBC batch of
+ * {@code UPDATE ... WHERE uuid = ?} statements instead of one JPQL update per
+ * item. The affected-row count of every statement is checked: updates for
+ * unknown UUIDs are counted as {@value #UNKNOWN_METRIC} and, with
+ * {@link #setAssertUpdates(boolean) assertUpdates}, fail the chunk.
+ * <p>
+ * With a {@link #setUuidIndex(UuidIdIndex) UUID index} the batch addresses
+ * rows by primary key ({@code UPDATE ... WHERE id = ?}). UUIDs the index does
+ * not know, and ids whose row is gone, follow in a second batch by UUID.
+ * <p>
+ * The writer keeps no state between chunks and orders its statements by
+ * UUID, so concurrent chunks of a multi-threaded step can share it.
+ */
+public class BulkStatusUpdateWriter implements ItemWriter<StatusUpdate>, MeterBinder {
+
+    public static final String BATCH_METRIC = "elstar.receive.update.batch";
+    public static final String UNKNOWN_METRIC = "elstar.receive.unknown";
+
+    private static final String UPDATE_SQL = "UPDATE elstar_daten SET status = ? WHERE uuid = ?";
+    private static final String UPDATE_BY_ID_SQL = "UPDATE elstar_daten SET status = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private UuidIdIndex uuidIndex;
+    private boolean assertUpdates;
+    private Timer batchTimer;
+    private DistributionSummary chunkItems;
+    private Counter unknownCounter;
+
+    public BulkStatusUpdateWriter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Fails the chunk with an {@link EmptyResultDataAccessException} if a
+     * status update matches no row. Off by default: unknown UUIDs are only counted.
+     */
+    public void setAssertUpdates(boolean assertUpdates) {
+        this.assertUpdates = assertUpdates;
+    }
+
+    public void setUuidIndex(UuidIdIndex uuidIndex) {
+        this.uuidIndex = uuidIndex;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchTimer = Timer.builder(BATCH_METRIC)
+                .description("Latency of the batched status update of one chunk")
+                .publishPercentileHistogram()
+                .register(registry);
+        chunkItems = DistributionSummary.builder(StatusUpdateWriter.CHUNK_ITEMS_METRIC)
+                .description("Items per chunk")
+                .register(registry);
+        unknownCounter = Counter.builder(UNKNOWN_METRIC)
+                .description("Status updates for UUIDs that match no row")
+                .register(registry);
+    }
+
+    @Override
+    public void write(Chunk<? extends StatusUpdate> chunk) throws Exception {
+        List<StatusUpdate> updates = new ArrayList<>(chunk.size());
+        for (StatusUpdate item : chunk) {
+            if (item.getUuid() != null && item.getStatus() != null) {
+                updates.add(item);
+            }
+        }
+        // Concurrent chunks lock their rows in the same order and cannot deadlock;
+        // the sort is stable, so repeated updates of one UUID keep their order
+        updates.sort(Comparator.comparing(StatusUpdate::getUuid));
+        if (chunkItems != null) {
+            chunkItems.record(chunk.size());
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        if (uuidIndex != null) {
+            updates = updateById(updates);
+        }
+        List<Object[]> parameters = new ArrayList<>(updates.size());
+        for (StatusUpdate item : updates) {
+            parameters.add(new Object[]{item.getStatus(), item.getUuid()});
+        }
+        int[] updateCounts = parameters.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(UPDATE_SQL, parameters);
+        if (batchTimer != null) {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        List<UUID> unknown = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            // Drivers may answer SUCCESS_NO_INFO for batched statements; only a real 0 is unknown
+            if (updateCounts[i] == 0) {
+                unknown.add(updates.get(i).getUuid());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        if (unknownCounter != null) {
+            unknownCounter.increment(unknown.size());
+        }
+        if (assertUpdates) {
+            throw new EmptyResultDataAccessException("No row for status update of UUIDs " + unknown, 1);
+        }
+    }
+
+    /**
+     * Writes the updates whose row id the index knows, catching the index up
+     * once if some are missing, and returns the updates that still need the UUID.
+     */
+    private List<StatusUpdate> updateById(List<StatusUpdate> updates) {
+        long[] ids = new long[updates.size()];
+        boolean missing = false;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = uuidIndex.getId(updates.get(i).getUuid());
+            missing |= ids[i] == UuidIdIndex.NO_ID;
+        }
+        if (missing && uuidIndex.catchUp() > 0) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == UuidIdIndex.NO_ID) {
+                    ids[i] = uuidIndex.getId(updates.get(i).getUuid());
+                }
+            }
+        }
+        List<Object[]> parameters = new ArrayList<>(ids.length);
+        List<StatusUpdate> byId = new ArrayList<>(ids.length);
+        List<StatusUpdate> byUuid = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == UuidIdIndex.NO_ID) {
+                byUuid.add(updates.get(i));
+            } else {
+                parameters.add(new Object[]{updates.get(i).getStatus(), ids[i]});
+                byId.add(updates.get(i));
+            }
+        }
+        if (parameters.isEmpty()) {
+            uuidIndex.recordFallbacks(byUuid.size());
+            return byUuid;
+        }
+        int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_BY_ID_SQL, parameters);
+        int stale = 0;
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                byUuid.add(byId.get(i));
+                stale++;
+            }
+        }
+        if (stale > 0) {
+            // A re-inserted row has a higher id, which replaces the stale one
+            uuidIndex.catchUp();
+            byUuid.sort(Comparator.comparing(StatusUpdate::getUuid));
+        }
+        uuidIndex.recordFallbacks(byUuid.size());
+        return byUuid;
+    }
+}
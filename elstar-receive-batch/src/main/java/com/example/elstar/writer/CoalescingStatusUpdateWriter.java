@@ -0,0 +1,75 @@
+package com.example.elstar.writer;
+
+import com.example.elstar.dto.StatusUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collapses the status updates of a chunk to one per UUID before passing
+ * them to the delegate; the last one received wins, which is the state the
+ * row would end up in anyway. Items without a UUID or a status are passed on
+ * unchanged, so an invalid update never replaces a valid one.
+ * The share of updates saved per chunk is recorded as {@value #RATIO_METRIC}
+ * and the number of dropped updates as {@value #COALESCED_METRIC}.
+ */
+public class CoalescingStatusUpdateWriter implements ItemWriter<StatusUpdate>, MeterBinder {
+
+    public static final String RATIO_METRIC = "elstar.receive.coalesce.ratio";
+    public static final String COALESCED_METRIC = "elstar.receive.coalesced";
+
+    private final ItemWriter<StatusUpdate> delegate;
+    private DistributionSummary collapseRatio;
+    private Counter coalesced;
+
+    public CoalescingStatusUpdateWriter(ItemWriter<StatusUpdate> delegate) {
+        this.delegate = delegate;
+    }
+
+    public ItemWriter<StatusUpdate> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        collapseRatio = DistributionSummary.builder(RATIO_METRIC)
+                .description("Share of the status updates of a chunk dropped as superseded (0 to 1)")
+                .register(registry);
+        coalesced = Counter.builder(COALESCED_METRIC)
+                .description("Status updates superseded by a later one for the same UUID in the chunk")
+                .register(registry);
+    }
+
+    @Override
+    public void write(Chunk<? extends StatusUpdate> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<UUID, StatusUpdate> latest = new LinkedHashMap<>(chunk.size() * 2);
+        List<StatusUpdate> items = new ArrayList<>(chunk.size());
+        for (StatusUpdate item : chunk) {
+            if (item.getUuid() == null || item.getStatus() == null) {
+                items.add(item);
+            } else {
+                latest.put(item.getUuid(), item);
+            }
+        }
+        items.addAll(latest.values());
+
+        int dropped = chunk.size() - items.size();
+        if (collapseRatio != null) {
+            collapseRatio.record((double) dropped / chunk.size());
+            coalesced.increment(dropped);
+        }
+        delegate.write(dropped == 0 ? chunk : new Chunk<>(items));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.elstar.writer;
+
+import com.example.elstar.repository.UuidBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.StepContribution;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Replays parked status updates whose UUID has shown up in
+ * {@code elstar_daten}: the row gets the status parked last for its UUID,
+ * and all parked updates for it are removed. One query joins the parked
+ * updates on the UUID index of {@code elstar_daten}, limited to rows above
+ * an id, so a {@link UuidBloomFilter#refresh()} is followed by a replay of
+ * just the rows it loaded; the updates and removals are JDBC batches. The
+ * parking table has no UUID index, which would slow down every insert, so
+ * each replay reads it once.
+ * <p>
+ * As a tasklet it rebuilds the filter and then replays every parked update
+ * whose row exists. It runs before {@code elstarReceiveStep}, so no update
+ * reaches a row directly before the updates parked for it.
+ */
+public class ParkedStatusUpdateReconciler implements Tasklet, MeterBinder {
+
+    public static final String REPLAYED_METRIC = "elstar.receive.parked.replayed";
+
+    private static final String FIND_SQL = "SELECT p.id, p.uuid, p.status FROM elstar_status_parked p"
+            + " JOIN elstar_daten d ON d.uuid = p.uuid WHERE d.id > ? ORDER BY p.id";
+    private static final String REPLAY_SQL = "UPDATE elstar_daten SET status = ? WHERE uuid = ?";
+    private static final String REMOVE_SQL = "DELETE FROM elstar_status_parked WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UuidBloomFilter knownUuids;
+    private Counter replayedCounter;
+
+    public ParkedStatusUpdateReconciler(DataSource dataSource, UuidBloomFilter knownUuids) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.knownUuids = knownUuids;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        replayedCounter = Counter.builder(REPLAYED_METRIC)
+                .description("Parked status updates removed because their UUID showed up, the last one applied")
+                .register(registry);
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        knownUuids.rebuild();
+        int replayed = reconcile(0);
+        contribution.incrementWriteCount(replayed);
+        return RepeatStatus.FINISHED;
+    }
+
+    /**
+     * Applies the parked updates for the rows with an id above
+     * {@code afterId}.
+     *
+     * @return the number of parked updates removed
+     */
+    public int reconcile(long afterId) {
+        // Sorted by UUID, the row lock order of the writers; later parked updates replace earlier ones
+        Map<UUID, Integer> lastStatus = new TreeMap<>();
+        List<Object[]> parkedIds = new ArrayList<>();
+        jdbcTemplate.query(FIND_SQL, rs -> {
+            parkedIds.add(new Object[]{rs.getLong(1)});
+            lastStatus.put(rs.getObject(2, UUID.class), rs.getInt(3));
+        }, afterId);
+        if (parkedIds.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> replays = new ArrayList<>(lastStatus.size());
+        lastStatus.forEach((uuid, status) -> replays.add(new Object[]{status, uuid}));
+        jdbcTemplate.batchUpdate(REPLAY_SQL, replays);
+        jdbcTemplate.batchUpdate(REMOVE_SQL, parkedIds);
+        if (replayedCounter != null) {
+            replayedCounter.increment(parkedIds.size());
+        }
+        return parkedIds.size();
+    }
+}
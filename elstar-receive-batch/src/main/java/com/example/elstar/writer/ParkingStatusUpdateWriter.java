@@ -0,0 +1,102 @@
+package com.example.elstar.writer;
+
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.repository.UuidBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps status updates for UUIDs that are definitely not in
+ * {@code elstar_daten} away from the main table. Updates the
+ * {@link UuidBloomFilter} rejects are inserted into
+ * {@code elstar_status_parked} with one JDBC batch, without looking them up,
+ * and counted as {@value #PARKED_METRIC}. Everything else, which includes
+ * the filter's false positives and incomplete items, goes to the delegate.
+ * <p>
+ * Before a chunk is split, the filter is {@link UuidBloomFilter#refreshIfDue()
+ * refreshed} if its interval has passed, and the updates parked for the rows
+ * it loaded are replayed by the {@link ParkedStatusUpdateReconciler}, in the
+ * chunk's transaction. A row committed after the filter was synchronized
+ * therefore has its updates parked for at most one refresh interval.
+ */
+public class ParkingStatusUpdateWriter implements ItemWriter<StatusUpdate>, MeterBinder {
+
+    public static final String PARKED_METRIC = "elstar.receive.parked";
+
+    private static final String PARK_SQL = "INSERT INTO elstar_status_parked (uuid, status, parked_at) VALUES (?, ?, ?)";
+
+    private final ItemWriter<StatusUpdate> delegate;
+    private final UuidBloomFilter knownUuids;
+    private final ParkedStatusUpdateReconciler reconciler;
+    private final JdbcTemplate jdbcTemplate;
+    private Counter parkedCounter;
+
+    public ParkingStatusUpdateWriter(ItemWriter<StatusUpdate> delegate, UuidBloomFilter knownUuids,
+                                     ParkedStatusUpdateReconciler reconciler, DataSource dataSource) {
+        this.delegate = delegate;
+        this.knownUuids = knownUuids;
+        this.reconciler = reconciler;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public ItemWriter<StatusUpdate> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        parkedCounter = Counter.builder(PARKED_METRIC)
+                .description("Status updates for unknown UUIDs moved to the parking table")
+                .register(registry);
+    }
+
+    @Override
+    public void write(Chunk<? extends StatusUpdate> chunk) throws Exception {
+        long refreshedAfterId = knownUuids.refreshIfDue();
+        if (refreshedAfterId != UuidBloomFilter.NOT_REFRESHED) {
+            reconciler.reconcile(refreshedAfterId);
+        }
+        List<StatusUpdate> known = new ArrayList<>(chunk.size());
+        List<StatusUpdate> unknown = new ArrayList<>();
+        for (StatusUpdate item : chunk) {
+            if (item.getUuid() == null || item.getStatus() == null || knownUuids.mightContain(item.getUuid())) {
+                known.add(item);
+            } else {
+                unknown.add(item);
+            }
+        }
+        if (unknown.isEmpty()) {
+            delegate.write(chunk);
+            return;
+        }
+        if (!known.isEmpty()) {
+            delegate.write(new Chunk<>(known));
+        }
+        park(unknown);
+    }
+
+    private void park(List<StatusUpdate> unknown) {
+        if (unknown.isEmpty()) {
+            return;
+        }
+        Timestamp parkedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> parameters = new ArrayList<>(unknown.size());
+        for (StatusUpdate item : unknown) {
+            parameters.add(new Object[]{item.getUuid(), item.getStatus(), parkedAt});
+        }
+        jdbcTemplate.batchUpdate(PARK_SQL, parameters);
+        if (parkedCounter != null) {
+            parkedCounter.increment(unknown.size());
+        }
+    }
+}
@@ -2,25 +2,98 @@ package com.example.elstar.writer;
 
 import com.example.elstar.dto.StatusUpdate;
 import com.example.elstar.repository.ElstarDataRepository;
+import com.example.elstar.repository.UuidIdIndex;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.batch.infrastructure.item.Chunk;
 import org.springframework.batch.infrastructure.item.ItemWriter;
 import org.springframework.transaction.annotation.Transactional;
 
-public class StatusUpdateWriter implements ItemWriter<StatusUpdate> {
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies every status update of a chunk to its row. Once bound to a
+ * {@link MeterRegistry} it records the latency of each update
+ * ({@value #UPDATE_METRIC}) and the number of items per chunk
+ * ({@value #CHUNK_ITEMS_METRIC}).
+ * <p>
+ * With a {@link UuidIdIndex} the rows are updated by primary key. UUIDs the
+ * index does not know, and ids whose row is gone, fall back to the UUID.
+ */
+public class StatusUpdateWriter implements ItemWriter<StatusUpdate>, MeterBinder {
+
+    public static final String UPDATE_METRIC = "elstar.receive.update";
+    public static final String CHUNK_ITEMS_METRIC = "elstar.receive.chunk.items";
 
     private final ElstarDataRepository repository;
+    private UuidIdIndex uuidIndex;
+    private Timer updateTimer;
+    private DistributionSummary chunkItems;
 
     public StatusUpdateWriter(ElstarDataRepository repository) {
         this.repository = repository;
     }
 
+    public void setUuidIndex(UuidIdIndex uuidIndex) {
+        this.uuidIndex = uuidIndex;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        updateTimer = Timer.builder(UPDATE_METRIC)
+                .description("Latency of updating the status of one row")
+                .publishPercentileHistogram()
+                .register(registry);
+        chunkItems = DistributionSummary.builder(CHUNK_ITEMS_METRIC)
+                .description("Items per chunk")
+                .register(registry);
+    }
+
     @Override
     @Transactional
     public void write(Chunk<? extends StatusUpdate> chunk) throws Exception {
-        for (StatusUpdate item : chunk) {
+        // Same row lock order as BulkStatusUpdateWriter, so concurrent chunks cannot deadlock
+        List<StatusUpdate> items = new ArrayList<>(chunk.getItems());
+        items.sort(Comparator.comparing(StatusUpdate::getUuid, Comparator.nullsFirst(Comparator.naturalOrder())));
+        boolean caughtUp = false;
+        for (StatusUpdate item : items) {
             if (item.getUuid() != null && item.getStatus() != null) {
-                repository.updateStatusByUuid(item.getUuid(), item.getStatus());
+                long start = System.nanoTime();
+                long id = UuidIdIndex.NO_ID;
+                if (uuidIndex != null) {
+                    id = uuidIndex.getId(item.getUuid());
+                    if (id == UuidIdIndex.NO_ID && !caughtUp) {
+                        uuidIndex.catchUp();
+                        caughtUp = true;
+                        id = uuidIndex.getId(item.getUuid());
+                    }
+                }
+                if (id == UuidIdIndex.NO_ID) {
+                    repository.updateStatusByUuid(item.getUuid(), item.getStatus());
+                    if (uuidIndex != null) {
+                        uuidIndex.recordFallbacks(1);
+                    }
+                } else if (repository.updateStatusById(id, item.getStatus()) == 0) {
+                    repository.updateStatusByUuid(item.getUuid(), item.getStatus());
+                    uuidIndex.recordFallbacks(1);
+                    if (!caughtUp) {
+                        // A re-inserted row has a higher id, which replaces the stale one
+                        uuidIndex.catchUp();
+                        caughtUp = true;
+                    }
+                }
+                if (updateTimer != null) {
+                    updateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
             }
         }
+        if (chunkItems != null) {
+            chunkItems.record(chunk.size());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package com.example.elstar.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.step.StepContribution;
+import org.springframework.batch.infrastructure.item.support.ListItemReader;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveChunkTaskletTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<List<Integer>> written = new ArrayList<>();
+    private final AdaptiveCompletionPolicy policy =
+            new AdaptiveCompletionPolicy(1, 100, 5, Duration.ofSeconds(1), now::get);
+    private final StepContribution contribution =
+            new StepContribution(MetaDataInstanceFactory.createStepExecution());
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testWritesOneChunkOfTheCurrentSizePerCall() throws Exception {
+        AdaptiveChunkTasklet<Integer> tasklet = tasklet(12);
+
+        assertEquals(RepeatStatus.CONTINUABLE, tasklet.execute(contribution, null));
+        assertEquals(List.of(List.of(0, 1, 2, 3, 4)), written);
+        assertEquals(5, contribution.getReadCount());
+        assertEquals(5, contribution.getWriteCount());
+    }
+
+    @Test
+    void testEndOfInputFinishesWithTheLastItems() throws Exception {
+        AdaptiveChunkTasklet<Integer> tasklet = tasklet(7);
+
+        assertEquals(RepeatStatus.CONTINUABLE, tasklet.execute(contribution, null));
+        assertEquals(RepeatStatus.FINISHED, tasklet.execute(contribution, null));
+        assertEquals(List.of(List.of(0, 1, 2, 3, 4), List.of(5, 6)), written);
+        assertEquals(7, contribution.getWriteCount());
+    }
+
+    @Test
+    void testEmptyInputWritesNothing() throws Exception {
+        assertEquals(RepeatStatus.FINISHED, tasklet(0).execute(contribution, null));
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    void testAdjustsTheSizeOnlyAfterCommit() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tasklet(100).execute(contribution, null);
+        assertEquals(5, policy.getChunkSize());
+
+        now.addAndGet(Duration.ofMillis(5).toNanos());
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertTrue(policy.getChunkSize() > 5, "chunk size " + policy.getChunkSize());
+    }
+
+    @Test
+    void testRollbackKeepsTheSize() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tasklet(100).execute(contribution, null);
+        now.addAndGet(Duration.ofMillis(5).toNanos());
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(5, policy.getChunkSize());
+    }
+
+    private AdaptiveChunkTasklet<Integer> tasklet(int items) {
+        ListItemReader<Integer> reader = new ListItemReader<>(IntStream.range(0, items).boxed().toList());
+        return new AdaptiveChunkTasklet<>(reader, chunk -> written.add(new ArrayList<>(chunk.getItems())), policy);
+    }
+}
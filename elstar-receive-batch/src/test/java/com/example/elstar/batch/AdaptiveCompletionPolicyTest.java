@@ -0,0 +1,183 @@
+package com.example.elstar.batch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.repeat.RepeatContext;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveCompletionPolicyTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testStartsWithInitialChunkSizeWithinBounds() {
+        assertEquals(50, policy(10, 500, 50).getChunkSize());
+        assertEquals(10, policy(10, 500, 1).getChunkSize());
+        assertEquals(500, policy(10, 500, 1000).getChunkSize());
+    }
+
+    @Test
+    void testCompletesAtCurrentChunkSize() {
+        AdaptiveCompletionPolicy policy = policy(1, 100, 5);
+
+        assertEquals(5, runChunk(policy, 100, 0, 0));
+    }
+
+    @Test
+    void testCompletesAtTargetLatencyWithFewerItems() {
+        AdaptiveCompletionPolicy policy = policy(1, 100, 50);
+
+        // one item every 300 ms against a 1 s target
+        assertEquals(4, runChunk(policy, 100, 300, 0));
+    }
+
+    @Test
+    void testLatencyIsCheckedBetweenReads() {
+        AdaptiveCompletionPolicy policy = policy(1, 100, 50);
+
+        // a read that blocks for 3 s against a 1 s target still ends up in the chunk
+        assertEquals(1, runChunk(policy, 100, 3000, 0));
+    }
+
+    @Test
+    void testEndOfInputCompletesWithoutAdjusting() {
+        AdaptiveCompletionPolicy policy = policy(1, 100, 50);
+        RepeatContext context = policy.start(null);
+        policy.update(context);
+
+        assertTrue(policy.isComplete(context, RepeatStatus.FINISHED));
+        assertEquals(50, policy.getChunkSize());
+    }
+
+    @Test
+    void testGrowsUpToMaxWhenWritesAreFast() {
+        AdaptiveCompletionPolicy policy = policy(10, 200, 10);
+        int previous = policy.getChunkSize();
+
+        for (int i = 0; i < 20; i++) {
+            runChunk(policy, 1000, 0, 1);
+            assertTrue(policy.getChunkSize() >= previous);
+            previous = policy.getChunkSize();
+        }
+
+        assertEquals(200, policy.getChunkSize());
+    }
+
+    @Test
+    void testShrinksDownToMinWhenWritesAreSlow() {
+        AdaptiveCompletionPolicy policy = policy(5, 200, 200);
+
+        for (int i = 0; i < 20; i++) {
+            runChunk(policy, 1000, 0, 400);
+        }
+
+        assertEquals(5, policy.getChunkSize());
+    }
+
+    @Test
+    void testSlowReceivesDoNotShrinkTheSize() {
+        AdaptiveCompletionPolicy policy = policy(5, 200, 50);
+
+        // 15 ms per receive fills 50 items in 750 ms; writing them takes 50 ms
+        for (int i = 0; i < 5; i++) {
+            runChunk(policy, 1000, 15, 1);
+        }
+
+        assertTrue(policy.getChunkSize() > 50, "chunk size " + policy.getChunkSize());
+    }
+
+    @Test
+    void testTimeBoxedChunkDoesNotGrowTheSize() {
+        AdaptiveCompletionPolicy policy = policy(1, 100, 50);
+
+        runChunk(policy, 100, 300, 1);
+
+        assertEquals(50, policy.getChunkSize());
+    }
+
+    @Test
+    void testSettlesNearTargetLatency() {
+        AdaptiveCompletionPolicy policy = policy(1, 1000, 10);
+
+        // 10 ms of write and commit per item against a 1 s target: about 100 items per chunk
+        for (int i = 0; i < 30; i++) {
+            runChunk(policy, 10_000, 0, 10);
+        }
+
+        assertTrue(Math.abs(policy.getChunkSize() - 100) <= 2, "chunk size " + policy.getChunkSize());
+    }
+
+    @Test
+    void testEveryStepExecutionAdaptsItsOwnSize() {
+        AdaptiveCompletionPolicy policy = policy(10, 200, 10);
+
+        StepSynchronizationManager.register(MetaDataInstanceFactory.createStepExecution("worker:partition0", 1L));
+        try {
+            for (int i = 0; i < 20; i++) {
+                runChunk(policy, 1000, 0, 1);
+            }
+            assertEquals(200, policy.getChunkSize());
+
+            StepSynchronizationManager.register(MetaDataInstanceFactory.createStepExecution("worker:partition1", 2L));
+            try {
+                assertEquals(10, runChunk(policy, 1000, 0, 400));
+            } finally {
+                StepSynchronizationManager.close();
+            }
+            assertEquals(200, runChunk(policy, 1000, 0, 1));
+        } finally {
+            StepSynchronizationManager.close();
+        }
+    }
+
+    @Test
+    void testPublishesChunkSizeGauge() {
+        AdaptiveCompletionPolicy policy = policy(10, 200, 10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        policy.bindTo(registry);
+
+        runChunk(policy, 1000, 0, 1);
+
+        assertEquals(policy.getChunkSize(),
+                registry.get(AdaptiveCompletionPolicy.METRIC_NAME).gauge().value());
+        assertTrue(policy.getChunkSize() > 10);
+    }
+
+    @Test
+    void testRejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> policy(0, 10, 5));
+        assertThrows(IllegalArgumentException.class, () -> policy(20, 10, 5));
+    }
+
+    // Drives one chunk like AdaptiveChunkTasklet: check, read, update, check; then write and commit
+    private int runChunk(AdaptiveCompletionPolicy policy, int available, long millisPerRead, long millisPerWrite) {
+        RepeatContext context = policy.start(null);
+        List<Integer> items = new ArrayList<>();
+        while (!policy.isComplete(context) && items.size() < available) {
+            now.addAndGet(Duration.ofMillis(millisPerRead).toNanos());
+            items.add(items.size());
+            policy.update(context);
+            if (policy.isComplete(context, RepeatStatus.CONTINUABLE)) {
+                break;
+            }
+        }
+        policy.beforeWrite(new Chunk<>(items));
+        now.addAndGet(Duration.ofMillis(millisPerWrite * items.size()).toNanos());
+        policy.afterCommit();
+        return items.size();
+    }
+
+    private AdaptiveCompletionPolicy policy(int min, int max, int initialChunkSize) {
+        return new AdaptiveCompletionPolicy(min, max, initialChunkSize, Duration.ofSeconds(1), now::get);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.ReceiveBatchApplication;
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.jms.StatusUpdateMessageConverter;
+import com.example.elstar.repository.ElstarDataRepository;
+import jakarta.jms.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ReceiveBatchApplication.class, properties = {
+        "elstar.batch.chunk.adaptive=true",
+        "elstar.batch.chunk.min-size=10",
+        "elstar.batch.chunk.max-size=200",
+        "elstar.batch.chunk.initial-size=10",
+        "elstar.batch.chunk.target-latency=5000"
+})
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class AdaptiveReceiveStepTest {
+
+    private static final UUID TEST_UUID_1 = UUID.fromString("a1b2c3d4-e5f6-7890-abcd-ef1234567890");
+    private static final UUID TEST_UUID_2 = UUID.fromString("b2c3d4e5-f6a7-8901-bcde-f12345678901");
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private AdaptiveCompletionPolicy receiveCompletionPolicy;
+
+    @Autowired
+    private ElstarDataRepository repository;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private StatusUpdateMessageConverter messageConverter;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    private JmsTemplate jmsTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setMessageConverter(messageConverter);
+        jmsTemplate.setReceiveTimeout(100);
+        while (jmsTemplate.receive(queueName) != null) {
+            // drain leftovers of earlier tests
+        }
+    }
+
+    @Test
+    void testChunkSizeGrowsUnderLoad() throws Exception {
+        int messages = 1000;
+        for (int i = 0; i < messages - 1; i++) {
+            jmsTemplate.convertAndSend(queueName, new StatusUpdate(UUID.randomUUID(), 1));
+        }
+        jmsTemplate.convertAndSend(queueName, new StatusUpdate(TEST_UUID_1, 7));
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        StepExecution stepExecution = jobExecution.getStepExecutions().iterator().next();
+        assertEquals(messages, stepExecution.getReadCount());
+        assertTrue(stepExecution.getCommitCount() < messages / 10,
+                "Expected fewer commits than with chunk(10) but got " + stepExecution.getCommitCount());
+        assertTrue(receiveCompletionPolicy.getChunkSize() > 10);
+        assertEquals(7, repository.findByUuid(TEST_UUID_1).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testTextAndBinaryUpdatesShareTheQueue() throws Exception {
+        StatusUpdateMessageConverter binaryConverter = new StatusUpdateMessageConverter();
+        binaryConverter.setFormat("binary");
+        JmsTemplate binaryTemplate = new JmsTemplate(connectionFactory);
+        binaryTemplate.setMessageConverter(binaryConverter);
+
+        jmsTemplate.convertAndSend(queueName, new StatusUpdate(TEST_UUID_1, 501));
+        binaryTemplate.convertAndSend(queueName, new StatusUpdate(TEST_UUID_2, 601));
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertEquals(501, repository.findByUuid(TEST_UUID_1).orElseThrow().getStatus());
+        assertEquals(601, repository.findByUuid(TEST_UUID_2).orElseThrow().getStatus());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.ReceiveBatchApplication;
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.jms.StatusUpdateMessageConverter;
+import com.example.elstar.repository.ElstarDataRepository;
+import jakarta.jms.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The fixed commit interval of {@code elstar.batch.chunk.adaptive=false}: a
+ * failed chunk rolls its updates back like an adaptive one.
+ */
+@SpringBootTest(classes = ReceiveBatchApplication.class, properties = {
+        "elstar.batch.chunk.adaptive=false",
+        "elstar.batch.write-mode=jdbc",
+        "elstar.batch.assert-updates=true"
+})
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class FixedChunkReceiveStepTest {
+
+    private static final UUID TEST_UUID_1 = UUID.fromString("a1b2c3d4-e5f6-7890-abcd-ef1234567890");
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private ElstarDataRepository repository;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private StatusUpdateMessageConverter messageConverter;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    private JmsTemplate jmsTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setMessageConverter(messageConverter);
+        jmsTemplate.setReceiveTimeout(100);
+        drainQueue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        drainQueue();
+    }
+
+    @Test
+    void testFailedChunkRollsBackItsUpdates() throws Exception {
+        jmsTemplate.convertAndSend(queueName, new StatusUpdate(TEST_UUID_1, 300));
+        jmsTemplate.convertAndSend(queueName, new StatusUpdate(UUID.randomUUID(), 400));
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.FAILED, jobExecution.getStatus());
+        assertEquals(0, repository.findByUuid(TEST_UUID_1).orElseThrow().getStatus());
+        assertEquals(2, drainQueue());
+    }
+
+    private int drainQueue() {
+        int drained = 0;
+        while (jmsTemplate.receive(queueName) != null) {
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.ReceiveBatchApplication;
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.jms.StatusUpdateMessageConverter;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.MessageProducer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.job.parameters.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ReceiveBatchApplication.class, properties = {
+        "elstar.batch.workers=3",
+        "elstar.jms.prefetch=4096",
+        "elstar.batch.uuid-index=true"
+})
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ParallelReceiveStepTest {
+
+    private static final Log logger = LogFactory.getLog(ParallelReceiveStepTest.class);
+
+    private static final UUID TEST_UUID_1 = UUID.fromString("a1b2c3d4-e5f6-7890-abcd-ef1234567890");
+    private static final UUID TEST_UUID_2 = UUID.fromString("b2c3d4e5-f6a7-8901-bcde-f12345678901");
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private StatusUpdateMessageConverter messageConverter;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    private JmsTemplate jmsTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setMessageConverter(messageConverter);
+        jmsTemplate.setReceiveTimeout(100);
+        while (jmsTemplate.receive(queueName) != null) {
+            // drain leftovers of earlier tests
+        }
+    }
+
+    @Test
+    void testWorkersShareTheQueue() throws Exception {
+        int messages = 300;
+        jmsTemplate.convertAndSend(queueName, new StatusUpdate(TEST_UUID_1, 500));
+        for (int i = 2; i < messages; i++) {
+            jmsTemplate.convertAndSend(queueName, new StatusUpdate(UUID.randomUUID(), 1));
+        }
+        jmsTemplate.convertAndSend(queueName, new StatusUpdate(TEST_UUID_2, 600));
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        List<StepExecution> workers = jobExecution.getStepExecutions().stream()
+                .filter(step -> step.getStepName().startsWith("elstarReceiveWorkerStep"))
+                .toList();
+        assertEquals(3, workers.size());
+        assertEquals(messages, workers.stream().mapToLong(StepExecution::getReadCount).sum());
+        assertEquals(messages, workers.stream().mapToLong(StepExecution::getWriteCount).sum());
+        assertEquals(500, statusOf(TEST_UUID_1));
+        assertEquals(600, statusOf(TEST_UUID_2));
+        assertNull(jmsTemplate.receive(queueName));
+    }
+
+    /**
+     * Runs the job once per worker count of {@code elstar.perf.workers}, each in
+     * a fresh application context with its own broker and database.
+     */
+    @Test
+    @Tag("performance")
+    void testReportThroughputPerWorkerCount() throws Exception {
+        int rows = Integer.getInteger("elstar.perf.rows", 20_000);
+        Map<Integer, Long> itemsPerSecond = new LinkedHashMap<>();
+        for (String workers : System.getProperty("elstar.perf.workers", "1,2,4").split(",")) {
+            itemsPerSecond.put(Integer.parseInt(workers.trim()), runWithWorkers(Integer.parseInt(workers.trim()), rows));
+        }
+
+        logger.info(String.format("elstarReceiveJob, %d status updates, items/s per worker count: %s",
+                rows, itemsPerSecond));
+        List<Long> rates = new ArrayList<>(itemsPerSecond.values());
+        assertTrue(rates.get(rates.size() - 1) > rates.get(0), "Expected more workers to be faster");
+    }
+
+    private long runWithWorkers(int workers, int rows) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ReceiveBatchApplication.class)
+                .profiles("test")
+                .run("--spring.autoconfigure.exclude=com.ibm.mq.spring.boot.MQAutoConfiguration",
+                        "--spring.datasource.url=jdbc:h2:mem:workers" + workers + ";DB_CLOSE_DELAY=-1",
+                        "--elstar.batch.workers=" + workers,
+                        "--elstar.jms.prefetch=4096",
+                        "--elstar.jms.receive-timeout=2000")) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            seedRows(jdbc, rows);
+            feedStatusUpdates(context.getBean(ConnectionFactory.class),
+                    context.getBean(StatusUpdateMessageConverter.class), rows);
+
+            JobExecution jobExecution = context.getBean(JobOperator.class).start(
+                    context.getBean("elstarReceiveJob", Job.class),
+                    new JobParametersBuilder().addLong("workers", (long) workers).toJobParameters());
+
+            assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+            assertEquals(rows, jdbc.queryForObject("SELECT COUNT(*) FROM elstar_daten WHERE status = 200",
+                    Integer.class));
+            long millis = Duration.between(jobExecution.getStartTime(), jobExecution.getEndTime()).toMillis();
+            return rows * 1000L / Math.max(1, millis);
+        }
+    }
+
+    private void feedStatusUpdates(ConnectionFactory factory, StatusUpdateMessageConverter converter, int rows) {
+        new JmsTemplate(factory).execute(session -> {
+            MessageProducer producer = session.createProducer(session.createQueue(queueName));
+            for (int i = 0; i < rows; i++) {
+                producer.send(converter.toMessage(new StatusUpdate(LoadTestSupport.uuid(i), 200), session));
+            }
+            producer.close();
+            return null;
+        });
+    }
+
+    private static void seedRows(JdbcTemplate jdbc, int rows) {
+        Date creationDate = Date.valueOf(LocalDate.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{LoadTestSupport.uuid(i), "<ElstarDaten/>", creationDate});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbc.batchUpdate(
+                        "INSERT INTO elstar_daten (uuid, xml_nachricht, creation_date, status) VALUES (?, ?, ?, 10)",
+                        batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private Integer statusOf(UUID uuid) {
+        return jdbcTemplate.queryForObject("SELECT status FROM elstar_daten WHERE uuid = ?", Integer.class, uuid);
+    }
+}
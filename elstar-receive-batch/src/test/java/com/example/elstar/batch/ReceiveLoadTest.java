@@ -0,0 +1,126 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.ReceiveBatchApplication;
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.jms.StatusUpdateMessageConverter;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.MessageProducer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test of {@code elstarReceiveJob}: seeds {@code elstar.perf.rows} sent
+ * rows with the same UUIDs as the sender module's load test, queues one
+ * {@link StatusUpdate} per row on embedded Artemis and prints throughput,
+ * step durations and the heap high-water mark of the job. All messages are
+ * queued before the job starts; for millions of rows give the test JVM
+ * enough heap for the broker (e.g. {@code -DargLine=-Xmx4g}).
+ */
+@SpringBootTest(classes = ReceiveBatchApplication.class, properties = "elstar.jms.receive-timeout=2000")
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Tag("performance")
+class ReceiveLoadTest {
+
+    private static final Log logger = LogFactory.getLog(ReceiveLoadTest.class);
+
+    private static final int STATUS_ACCEPTED = 200;
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private StatusUpdateMessageConverter messageConverter;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    @Test
+    void testApplyStatusUpdatesForSeededRows() throws Exception {
+        int rows = Integer.getInteger("elstar.perf.rows", 100_000);
+        jdbcTemplate.update("DELETE FROM elstar_daten");
+        seedRows(rows);
+        long feedStart = System.nanoTime();
+        feedStatusUpdates(rows);
+        logger.info(String.format("Queued %d status updates in %d ms",
+                rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - feedStart)));
+
+        LoadTestSupport.resetHeapPeak();
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+        long heapPeak = LoadTestSupport.heapPeak();
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        LoadTestSupport.report(jobExecution, rows, heapPeak);
+        assertEquals(rows, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM elstar_daten WHERE status = " + STATUS_ACCEPTED, Integer.class));
+    }
+
+    /**
+     * Sends one message per update, or with {@code elstar.perf.status-batch=N}
+     * batch messages of N updates each.
+     */
+    private void feedStatusUpdates(int rows) {
+        int batchSize = Integer.getInteger("elstar.perf.status-batch", 1);
+        JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.execute(session -> {
+            MessageProducer producer = session.createProducer(session.createQueue(queueName));
+            List<StatusUpdate> batch = new ArrayList<>();
+            for (int i = 0; i < rows; i++) {
+                StatusUpdate update = new StatusUpdate(LoadTestSupport.uuid(i), STATUS_ACCEPTED);
+                if (batchSize <= 1) {
+                    producer.send(messageConverter.toMessage(update, session));
+                    continue;
+                }
+                batch.add(update);
+                if (batch.size() == batchSize || i == rows - 1) {
+                    producer.send(messageConverter.toMessage(batch, session));
+                    batch.clear();
+                }
+            }
+            producer.close();
+            return null;
+        });
+    }
+
+    private void seedRows(int rows) {
+        Date creationDate = Date.valueOf(LocalDate.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{LoadTestSupport.uuid(i), "<ElstarDaten/>", creationDate});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO elstar_daten (uuid, xml_nachricht, creation_date, status) VALUES (?, ?, ?, 10)",
+                        batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.elstar.config;
+
+import jakarta.jms.ConnectionFactory;
+import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.connection.CachingConnectionFactory;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefetchConnectionFactoryPostProcessorTest {
+
+    private final PrefetchConnectionFactoryPostProcessor postProcessor = new PrefetchConnectionFactoryPostProcessor(4096);
+
+    @Test
+    void testSetsConsumerWindowOfArtemisFactory() {
+        ActiveMQConnectionFactory artemis = new ActiveMQConnectionFactory("vm://0");
+
+        assertSame(artemis, postProcessor.postProcessAfterInitialization(artemis, "jmsConnectionFactory"));
+        assertEquals(4096, artemis.getConsumerWindowSize());
+    }
+
+    @Test
+    void testSetsConsumerWindowBehindCachingFactory() {
+        ActiveMQConnectionFactory artemis = new ActiveMQConnectionFactory("vm://0");
+        CachingConnectionFactory caching = new CachingConnectionFactory(artemis);
+
+        postProcessor.postProcessAfterInitialization(caching, "jmsConnectionFactory");
+
+        assertEquals(4096, artemis.getConsumerWindowSize());
+    }
+
+    @Test
+    void testIgnoresFactoriesWithoutConsumerWindow() {
+        ConnectionFactory other = (ConnectionFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ConnectionFactory.class}, (proxy, method, args) -> null);
+        CachingConnectionFactory caching = new CachingConnectionFactory(other);
+
+        assertSame(other, postProcessor.postProcessAfterInitialization(other, "mqConnectionFactory"));
+        assertSame(caching, postProcessor.postProcessAfterInitialization(caching, "jmsConnectionFactory"));
+    }
+}
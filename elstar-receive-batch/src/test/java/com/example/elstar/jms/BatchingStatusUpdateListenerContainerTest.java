@@ -0,0 +1,197 @@
+package com.example.elstar.jms;
+
+import com.example.elstar.ReceiveBatchApplication;
+import com.example.elstar.dto.StatusUpdate;
+import jakarta.jms.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the streaming receive against embedded Artemis. The batch window is
+ * long, so a batch is only written when it is full or the container stops.
+ */
+@SpringBootTest(classes = ReceiveBatchApplication.class, properties = {
+        "elstar.jms.listener.enabled=true",
+        "elstar.jms.listener.concurrency=1",
+        "elstar.jms.listener.batch-size=100",
+        "elstar.jms.listener.batch-window=60000"
+})
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class BatchingStatusUpdateListenerContainerTest {
+
+    private static final List<UUID> TEST_UUIDS = List.of(
+            UUID.fromString("a1b2c3d4-e5f6-7890-abcd-ef1234567890"),
+            UUID.fromString("b2c3d4e5-f6a7-8901-bcde-f12345678901"),
+            UUID.fromString("c3d4e5f6-a7b8-9012-cdef-123456789012"),
+            UUID.fromString("d4e5f6a7-b8c9-0123-def0-234567890123"),
+            UUID.fromString("e5f6a7b8-c9d0-1234-ef01-345678901234"));
+
+    @Autowired
+    private BatchingStatusUpdateListenerContainer statusUpdateListenerContainer;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private StatusUpdateMessageConverter messageConverter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    private JmsTemplate jmsTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stop(statusUpdateListenerContainer);
+        jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setMessageConverter(messageConverter);
+        jmsTemplate.setReceiveTimeout(100);
+        drainQueue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statusUpdateListenerContainer.start();
+    }
+
+    @Test
+    void testFullBatchIsWrittenWithoutWaitingForTheWindow() throws Exception {
+        statusUpdateListenerContainer.start();
+        for (UUID uuid : TEST_UUIDS) {
+            jmsTemplate.convertAndSend(queueName, new StatusUpdate(uuid, 200));
+        }
+        for (int i = TEST_UUIDS.size(); i < 100; i++) {
+            jmsTemplate.convertAndSend(queueName, new StatusUpdate(UUID.randomUUID(), 200));
+        }
+
+        awaitTrue(() -> countWithStatus(200) == TEST_UUIDS.size());
+        assertEquals(0, statusUpdateListenerContainer.getPendingUpdates());
+    }
+
+    @Test
+    void testBatchMessageAddsAllItsUpdates() throws Exception {
+        List<StatusUpdate> batch = new ArrayList<>();
+        for (UUID uuid : TEST_UUIDS) {
+            batch.add(new StatusUpdate(uuid, 250));
+        }
+        for (int i = TEST_UUIDS.size(); i < 100; i++) {
+            batch.add(new StatusUpdate(UUID.randomUUID(), 250));
+        }
+        statusUpdateListenerContainer.start();
+
+        jmsTemplate.convertAndSend(queueName, batch);
+
+        awaitTrue(() -> countWithStatus(250) == TEST_UUIDS.size());
+        assertEquals(0, statusUpdateListenerContainer.getPendingUpdates());
+    }
+
+    @Test
+    void testStopWritesPendingUpdates() throws Exception {
+        statusUpdateListenerContainer.start();
+        for (UUID uuid : TEST_UUIDS) {
+            jmsTemplate.convertAndSend(queueName, new StatusUpdate(uuid, 300));
+        }
+        awaitTrue(() -> statusUpdateListenerContainer.getPendingUpdates() == TEST_UUIDS.size());
+        assertEquals(0, countWithStatus(300));
+
+        stop(statusUpdateListenerContainer);
+
+        assertEquals(TEST_UUIDS.size(), countWithStatus(300));
+        assertEquals(0, statusUpdateListenerContainer.getPendingUpdates());
+        assertEquals(0, drainQueue());
+    }
+
+    @Test
+    void testFailedWriteIsRedelivered() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        ItemWriter<StatusUpdate> failingOnce = chunk -> {
+            if (writes.getAndIncrement() == 0) {
+                throw new IllegalStateException("database unavailable");
+            }
+            updateStatus(chunk);
+        };
+        BatchingStatusUpdateListenerContainer container = new BatchingStatusUpdateListenerContainer(messageConverter,
+                failingOnce, new TransactionTemplate(transactionManager), TEST_UUIDS.size(), Duration.ofMinutes(1));
+        container.setConnectionFactory(connectionFactory);
+        container.setDestinationName(queueName);
+        container.setReceiveTimeout(100);
+        container.afterPropertiesSet();
+        try {
+            container.start();
+            for (UUID uuid : TEST_UUIDS) {
+                jmsTemplate.convertAndSend(queueName, new StatusUpdate(uuid, 400));
+            }
+
+            awaitTrue(() -> countWithStatus(400) == TEST_UUIDS.size());
+            assertEquals(2, writes.get());
+        } finally {
+            stop(container);
+            container.destroy();
+        }
+        assertEquals(0, drainQueue());
+    }
+
+    private void updateStatus(Chunk<? extends StatusUpdate> chunk) {
+        for (StatusUpdate update : chunk) {
+            jdbcTemplate.update("UPDATE elstar_daten SET status = ? WHERE uuid = ?", update.getStatus(), update.getUuid());
+        }
+    }
+
+    private int countWithStatus(int status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM elstar_daten WHERE status = ?", Integer.class, status);
+    }
+
+    private static void stop(BatchingStatusUpdateListenerContainer container) throws InterruptedException {
+        CountDownLatch stopped = new CountDownLatch(1);
+        container.stop(stopped::countDown);
+        assertTrue(stopped.await(10, TimeUnit.SECONDS), "container did not stop");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 10 s");
+            Thread.sleep(50);
+        }
+    }
+
+    private int drainQueue() {
+        int drained = 0;
+        while (jmsTemplate.receive(queueName) != null) {
+            drained++;
+        }
+        return drained;
+    }
+}
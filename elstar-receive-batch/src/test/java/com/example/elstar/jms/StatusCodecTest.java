@@ -0,0 +1,44 @@
+package com.example.elstar.jms;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusCodecTest {
+
+    @Test
+    void testParseMatchesIntegerParseIntOfTrimmedText() {
+        for (String text : new String[]{"0", "200", " 200 ", "\t404\n", "+7", "-1", "007",
+                "2147483647", "-2147483648"}) {
+            assertEquals(Integer.parseInt(text.trim()), StatusCodec.parse(text), text);
+        }
+    }
+
+    @Test
+    void testParseReadsARange() {
+        assertEquals(301, StatusCodec.parse("200;301;404", 4, 7));
+    }
+
+    @Test
+    void testParseRejectsWhatIntegerParseIntRejects() {
+        for (String text : new String[]{"", "  ", "OK", "2 00", "+", "-", "2147483648", "-2147483649", "1e3"}) {
+            assertThrows(NumberFormatException.class, () -> StatusCodec.parse(text), text);
+        }
+    }
+
+    @Test
+    void testValueOfSharesBoxesOfCachedStatuses() {
+        assertSame(StatusCodec.valueOf(200), StatusCodec.valueOf(200));
+        assertSame(StatusCodec.valueOf(StatusCodec.MAX_CACHED), StatusCodec.valueOf(StatusCodec.MAX_CACHED));
+        assertEquals(1000, StatusCodec.valueOf(1000));
+        assertEquals(-5, StatusCodec.valueOf(-5));
+    }
+
+    @Test
+    void testToStringMatchesStringValueOf() {
+        for (Integer status : new Integer[]{0, 200, StatusCodec.MAX_CACHED, 1000, -5, null}) {
+            assertEquals(String.valueOf(status), StatusCodec.toString(status));
+        }
+        assertSame(StatusCodec.toString(200), StatusCodec.toString(200));
+    }
+}
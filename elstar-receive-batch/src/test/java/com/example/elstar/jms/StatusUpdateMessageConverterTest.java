@@ -0,0 +1,220 @@
+package com.example.elstar.jms;
+
+import com.example.elstar.dto.StatusUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.support.converter.MessageConversionException;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusUpdateMessageConverterTest {
+
+    private StatusUpdateMessageConverter converter;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        converter = new StatusUpdateMessageConverter();
+        registry = new SimpleMeterRegistry();
+        converter.bindTo(registry);
+    }
+
+    @Test
+    void testFromMessage() throws Exception {
+        UUID uuid = UUID.randomUUID();
+
+        StatusUpdate update = (StatusUpdate) converter.fromMessage(textMessage(uuid.toString(), " 200 "));
+
+        assertEquals(uuid, update.getUuid());
+        assertEquals(200, update.getStatus());
+        assertEquals(0, failures("fromMessage"));
+    }
+
+    @Test
+    void testConversionFailuresAreCounted() {
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(textMessage("no-uuid", "200")));
+        assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(textMessage(UUID.randomUUID().toString(), "OK")));
+        assertThrows(MessageConversionException.class, () -> converter.toMessage("not a status update", null));
+
+        assertEquals(2, failures("fromMessage"));
+        assertEquals(1, failures("toMessage"));
+    }
+
+    @Test
+    void testBinaryRoundTrip() throws Exception {
+        converter.setFormat("binary");
+        StatusUpdate update = new StatusUpdate(UUID.randomUUID(), 200);
+
+        BytesMessage message = (BytesMessage) converter.toMessage(update, session());
+        message.reset();
+
+        assertEquals(StatusUpdateFormat.BINARY_LENGTH, message.getBodyLength());
+        assertEquals(StatusUpdateFormat.BINARY.getVersion(), message.getIntProperty(StatusUpdateFormat.PROPERTY));
+        StatusUpdate converted = (StatusUpdate) converter.fromMessage(message);
+        assertEquals(update.getUuid(), converted.getUuid());
+        assertEquals(200, converted.getStatus());
+    }
+
+    @Test
+    void testTextAndBinaryAreReadSideBySide() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        StatusUpdateMessageConverter binarySender = new StatusUpdateMessageConverter();
+        binarySender.setFormat("binary");
+        BytesMessage binary = (BytesMessage) binarySender.toMessage(new StatusUpdate(uuid, 404), session());
+        binary.reset();
+
+        assertEquals(StatusUpdateFormat.TEXT, converter.getFormat());
+        assertEquals(404, ((StatusUpdate) converter.fromMessage(binary)).getStatus());
+        assertEquals(200, ((StatusUpdate) converter.fromMessage(textMessage(uuid.toString(), "200"))).getStatus());
+    }
+
+    @Test
+    void testInvalidBinaryMessagesAreRejected() throws Exception {
+        BytesMessage unknownVersion = session().createBytesMessage();
+        unknownVersion.setIntProperty(StatusUpdateFormat.PROPERTY, 99);
+        BytesMessage truncated = session().createBytesMessage();
+        truncated.setIntProperty(StatusUpdateFormat.PROPERTY, StatusUpdateFormat.BINARY.getVersion());
+        truncated.writeLong(42);
+        truncated.reset();
+
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(unknownVersion));
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(truncated));
+        assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(session().createBytesMessage()), "BytesMessage without version");
+        assertEquals(3, failures("fromMessage"));
+    }
+
+    @Test
+    void testBatchRoundTripInBothEncodings() throws Exception {
+        List<StatusUpdate> updates = List.of(
+                new StatusUpdate(UUID.randomUUID(), 200),
+                new StatusUpdate(UUID.randomUUID(), -1),
+                new StatusUpdate(UUID.randomUUID(), 100_000));
+
+        for (String format : new String[]{"text", "binary"}) {
+            converter.setFormat(format);
+            Message message = converter.toMessage(updates, session());
+            if (message instanceof BytesMessage bytesMessage) {
+                bytesMessage.reset();
+            }
+
+            assertEquals(StatusUpdateFormat.fromPropertyValue(format).toBatch().getVersion(),
+                    message.getIntProperty(StatusUpdateFormat.PROPERTY), format);
+            List<?> converted = (List<?>) converter.fromMessage(message);
+            assertEquals(updates.size(), converted.size(), format);
+            for (int i = 0; i < updates.size(); i++) {
+                StatusUpdate update = (StatusUpdate) converted.get(i);
+                assertEquals(updates.get(i).getUuid(), update.getUuid(), format);
+                assertEquals(updates.get(i).getStatus(), update.getStatus(), format);
+            }
+        }
+    }
+
+    @Test
+    void testTextBatchSkipsBlankLinesAndAcceptsCarriageReturns() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Message message = session().createTextMessage(first + ";200\r\n\n" + second + "; 404 ");
+        message.setIntProperty(StatusUpdateFormat.PROPERTY, StatusUpdateFormat.TEXT_BATCH.getVersion());
+
+        List<?> converted = (List<?>) converter.fromMessage(message);
+
+        assertEquals(2, converted.size());
+        assertEquals(first, ((StatusUpdate) converted.get(0)).getUuid());
+        assertEquals(404, ((StatusUpdate) converted.get(1)).getStatus());
+    }
+
+    @Test
+    void testInvalidBatchesAreRejected() throws Exception {
+        Message badLine = session().createTextMessage(UUID.randomUUID() + ";200\nno-uuid;300\n");
+        badLine.setIntProperty(StatusUpdateFormat.PROPERTY, StatusUpdateFormat.TEXT_BATCH.getVersion());
+        BytesMessage shortBatch = session().createBytesMessage();
+        shortBatch.setIntProperty(StatusUpdateFormat.PROPERTY, StatusUpdateFormat.BINARY_BATCH.getVersion());
+        shortBatch.writeInt(2);
+        shortBatch.writeLong(1);
+        shortBatch.reset();
+
+        MessageConversionException e = assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(badLine));
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(shortBatch));
+        assertThrows(MessageConversionException.class,
+                () -> converter.toMessage(List.of(new StatusUpdate(null, 200)), session()));
+    }
+
+    @Test
+    void testUnknownFormatIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> converter.setFormat("xml"));
+    }
+
+    private double failures(String operation) {
+        return registry.get(StatusUpdateMessageConverter.FAILURE_METRIC)
+                .tag("converter", "statusUpdate")
+                .tag("operation", operation)
+                .counter().count();
+    }
+
+    // TextMessage stub answering only the body and the correlation id
+    private static Message textMessage(String correlationId, String text) {
+        return (Message) Proxy.newProxyInstance(StatusUpdateMessageConverterTest.class.getClassLoader(),
+                new Class<?>[]{TextMessage.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getJMSCorrelationID" -> correlationId;
+                    case "getText" -> text;
+                    case "propertyExists" -> false;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // Session stub creating message stubs with a text or ByteBuffer body and int properties only
+    private static Session session() {
+        return (Session) Proxy.newProxyInstance(StatusUpdateMessageConverterTest.class.getClassLoader(),
+                new Class<?>[]{Session.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "createBytesMessage" -> bytesMessage();
+                    case "createTextMessage" -> writableTextMessage((String) args[0]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static TextMessage writableTextMessage(String text) {
+        Map<String, Object> properties = new HashMap<>();
+        return (TextMessage) Proxy.newProxyInstance(StatusUpdateMessageConverterTest.class.getClassLoader(),
+                new Class<?>[]{TextMessage.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getText" -> text;
+                    case "setIntProperty" -> properties.put((String) args[0], args[1]);
+                    case "getIntProperty", "getObjectProperty" -> properties.get((String) args[0]);
+                    case "propertyExists" -> properties.containsKey((String) args[0]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static BytesMessage bytesMessage() {
+        ByteBuffer body = ByteBuffer.allocate(256);
+        Map<String, Object> properties = new HashMap<>();
+        return (BytesMessage) Proxy.newProxyInstance(StatusUpdateMessageConverterTest.class.getClassLoader(),
+                new Class<?>[]{BytesMessage.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "setIntProperty" -> properties.put((String) args[0], args[1]);
+                    case "getIntProperty", "getObjectProperty" -> properties.get((String) args[0]);
+                    case "propertyExists" -> properties.containsKey((String) args[0]);
+                    case "writeLong" -> body.putLong((Long) args[0]);
+                    case "writeInt" -> body.putInt((Integer) args[0]);
+                    case "reset" -> body.flip();
+                    case "getBodyLength" -> (long) body.limit();
+                    case "readLong" -> body.getLong();
+                    case "readInt" -> body.getInt();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.elstar.jms;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidCodecTest {
+
+    private static final List<UUID> SAMPLES = List.of(
+            UUID.fromString("a1b2c3d4-e5f6-7890-abcd-ef1234567890"),
+            new UUID(0, 0),
+            new UUID(-1, -1),
+            new UUID(Long.MIN_VALUE, 1),
+            UUID.randomUUID(),
+            UUID.nameUUIDFromBytes(new byte[]{1, 2, 3}));
+
+    @Test
+    void testFormatMatchesUuidToString() {
+        char[] target = new char[UuidCodec.LENGTH];
+        for (UUID uuid : SAMPLES) {
+            UuidCodec.format(uuid, target, 0);
+            assertEquals(uuid.toString(), new String(target));
+        }
+    }
+
+    @Test
+    void testFormatWritesAtOffset() {
+        char[] target = "<<<".concat(" ".repeat(UuidCodec.LENGTH)).concat(">>>").toCharArray();
+
+        UuidCodec.format(SAMPLES.get(0), target, 3);
+
+        assertEquals("<<<a1b2c3d4-e5f6-7890-abcd-ef1234567890>>>", new String(target));
+    }
+
+    @Test
+    void testParseReadsAtOffsetOfALargerText() {
+        StringBuilder text = new StringBuilder("uuids:");
+        for (UUID uuid : SAMPLES) {
+            text.append(uuid).append(';');
+        }
+
+        for (int i = 0; i < SAMPLES.size(); i++) {
+            assertEquals(SAMPLES.get(i), UuidCodec.parse(text, 6 + i * (UuidCodec.LENGTH + 1)));
+        }
+    }
+
+    @Test
+    void testParseAcceptsUpperCase() {
+        assertEquals(SAMPLES.get(0), UuidCodec.parse("A1B2C3D4-E5F6-7890-ABCD-EF1234567890", 0));
+    }
+
+    @Test
+    void testParseRejectsInvalidRanges() {
+        assertThrows(IllegalArgumentException.class, () -> UuidCodec.parse("a1b2c3d4-e5f6-7890", 0));
+        assertThrows(IllegalArgumentException.class, () -> UuidCodec.parse("a1b2c3d4-e5f6-7890-abcd-ef123456789g", 0));
+        assertThrows(IllegalArgumentException.class, () -> UuidCodec.parse("a1b2c3d4+e5f6-7890-abcd-ef1234567890", 0));
+        assertThrows(IllegalArgumentException.class, () -> UuidCodec.parse("a1b2c3d4-e5f6-7890-abcd-ef1234567890", 1));
+    }
+
+    @Test
+    void testParseOrNullFollowsUuidFromString() {
+        assertEquals(SAMPLES.get(0), UuidCodec.parseOrNull("a1b2c3d4-e5f6-7890-abcd-ef1234567890"));
+        assertEquals(UUID.fromString("1-2-3-4-5"), UuidCodec.parseOrNull("1-2-3-4-5"));
+        assertNull(UuidCodec.parseOrNull("no-uuid"));
+        assertNull(UuidCodec.parseOrNull("ID:414d5120514d31202020202020202020"));
+        assertNull(UuidCodec.parseOrNull("1-2-3-4"));
+        assertNull(UuidCodec.parseOrNull("a1b2c3d4-e5f6-7890-abcd-ef1234567890-1"));
+        assertNull(UuidCodec.parseOrNull("a1b2c3d4-e5f6-7890-abcd-ef123456789é"));
+        assertNull(UuidCodec.parseOrNull(""));
+        assertNull(UuidCodec.parseOrNull(null));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.elstar.reader;
+
+import com.example.elstar.dto.StatusUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.core.JmsTemplate;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueueReaderTest {
+
+    private static final String QUEUE_NAME = "TEST.QUEUE";
+
+    private Deque<Object> queue;
+    private QueueReader<StatusUpdate> queueReader;
+
+    @BeforeEach
+    void setUp() {
+        queue = new ArrayDeque<>();
+        queueReader = new QueueReader<>(new TestJmsTemplate(queue), QUEUE_NAME, StatusUpdate.class);
+    }
+
+    @Test
+    void testReadReturnsMessagesUntilQueueIsEmpty() throws Exception {
+        StatusUpdate update = new StatusUpdate(UUID.randomUUID(), 200);
+        queue.add(update);
+
+        assertSame(update, queueReader.read());
+        assertNull(queueReader.read());
+    }
+
+    @Test
+    void testBatchIsReadElementByElement() throws Exception {
+        StatusUpdate first = new StatusUpdate(UUID.randomUUID(), 200);
+        StatusUpdate second = new StatusUpdate(UUID.randomUUID(), 300);
+        StatusUpdate single = new StatusUpdate(UUID.randomUUID(), 400);
+        queue.add(List.of(first, second));
+        queue.add(List.of());
+        queue.add(single);
+
+        assertSame(first, queueReader.read());
+        assertSame(second, queueReader.read());
+        assertSame(single, queueReader.read());
+        assertNull(queueReader.read());
+    }
+
+    @Test
+    void testReadRejectsUnexpectedType() {
+        queue.add("not a status update");
+
+        assertThrows(IllegalStateException.class, queueReader::read);
+    }
+
+    @Test
+    void testReceiveTimeIsSplitIntoMessagesAndEmptyPolls() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queueReader.bindTo(registry);
+        queue.add(new StatusUpdate(UUID.randomUUID(), 200));
+        queue.add(new StatusUpdate(UUID.randomUUID(), 300));
+
+        while (queueReader.read() != null) {
+        }
+        queueReader.read();
+
+        assertEquals(2, registry.get(QueueReader.RECEIVE_METRIC).tag("result", "message").timer().count());
+        assertEquals(2, registry.get(QueueReader.RECEIVE_METRIC).tag("result", "empty").timer().count());
+    }
+
+    // Simple test stub for JmsTemplate
+    private static class TestJmsTemplate extends JmsTemplate {
+        private final Deque<Object> queue;
+
+        TestJmsTemplate(Deque<Object> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public Object receiveAndConvert(String destinationName) {
+            return queue.poll();
+        }
+    }
+}
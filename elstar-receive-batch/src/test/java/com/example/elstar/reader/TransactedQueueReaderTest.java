@@ -0,0 +1,346 @@
+package com.example.elstar.reader;
+
+import com.example.elstar.ReceiveBatchApplication;
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.jms.StatusUpdateMessageConverter;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies against embedded Artemis that the opened reader receives through
+ * one consumer and acknowledges messages with the chunk transaction.
+ */
+@SpringBootTest(classes = ReceiveBatchApplication.class, properties = "elstar.jms.prefetch=0")
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+class TransactedQueueReaderTest {
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private StatusUpdateMessageConverter messageConverter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    private ConnectionFactory brokerConnectionFactory;
+    private JmsTemplate jmsTemplate;
+    private TransactionTemplate transactionTemplate;
+    private QueueReader<StatusUpdate> queueReader;
+
+    @BeforeEach
+    void setUp() {
+        brokerConnectionFactory = connectionFactory instanceof CachingConnectionFactory caching
+                ? caching.getTargetConnectionFactory()
+                : connectionFactory;
+        jmsTemplate = new JmsTemplate(brokerConnectionFactory);
+        jmsTemplate.setMessageConverter(messageConverter);
+        jmsTemplate.setReceiveTimeout(100);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        drainQueue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queueReader != null) {
+            queueReader.close();
+        }
+    }
+
+    @Test
+    void testPrefetchIsAppliedToConnectionFactory() {
+        assertEquals(0, new BeanWrapperImpl(brokerConnectionFactory).getPropertyValue("consumerWindowSize"));
+    }
+
+    @Test
+    void testCommittedChunkIsAcknowledged() {
+        List<UUID> sent = send(3);
+        queueReader = openReader(brokerConnectionFactory);
+
+        assertEquals(sent, readChunk(3, false));
+        queueReader.close();
+        queueReader = null;
+
+        assertEquals(0, drainQueue());
+    }
+
+    @Test
+    void testRolledBackChunkIsRedelivered() {
+        List<UUID> sent = send(2);
+        queueReader = openReader(brokerConnectionFactory);
+
+        assertEquals(sent, readChunk(2, true));
+        assertEquals(sent, readChunk(2, false));
+        assertNull(readChunk(1, false).get(0));
+    }
+
+    @Test
+    void testUnclosedChunkIsRedeliveredAfterClose() {
+        List<UUID> sent = send(2);
+        queueReader = openReader(brokerConnectionFactory);
+        transactionTemplate.executeWithoutResult(status -> {
+            read();
+            read();
+            queueReader.close();
+            queueReader = null;
+        });
+
+        assertEquals(2, drainQueue(), "messages of " + sent + " should have been redelivered");
+    }
+
+    @Test
+    void testOneConsumerAndSessionForAllChunks() {
+        send(6);
+        JmsCounters counters = new JmsCounters();
+        queueReader = openReader(counting(brokerConnectionFactory, counters));
+
+        readChunk(2, false);
+        readChunk(2, false);
+        readChunk(2, false);
+
+        assertEquals(1, counters.connections.get());
+        assertEquals(1, counters.sessions.get());
+        assertEquals(1, counters.consumers.get());
+        assertEquals(3, counters.commits.get());
+        assertEquals(0, drainQueue());
+    }
+
+    @Test
+    void testBatchSpanningChunksIsAcknowledgedWithItsLastElement() {
+        List<UUID> batch = sendBatch(5);
+        queueReader = openReader(brokerConnectionFactory);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        assertEquals(batch.subList(0, 2), readChunk(2, false, executionContext));
+        assertEquals(2, executionContext.getInt(QueueReader.BATCH_OFFSET_KEY));
+        assertEquals(batch.subList(2, 4), readChunk(2, false, executionContext));
+        assertEquals(4, executionContext.getInt(QueueReader.BATCH_OFFSET_KEY));
+        assertEquals(batch.subList(4, 5), readChunk(1, false, executionContext));
+        assertFalse(executionContext.containsKey(QueueReader.BATCH_MESSAGE_ID_KEY));
+        queueReader.close();
+        queueReader = null;
+
+        assertEquals(0, drainQueue());
+    }
+
+    @Test
+    void testRolledBackChunkResumesBatchAtCommittedOffset() {
+        List<UUID> batch = sendBatch(5);
+        List<UUID> single = send(1);
+        queueReader = openReader(brokerConnectionFactory);
+
+        assertEquals(batch.subList(0, 2), readChunk(2, false));
+        assertEquals(List.of(batch.get(2), batch.get(3), batch.get(4), single.get(0)), readChunk(4, true));
+        assertEquals(List.of(batch.get(2), batch.get(3), batch.get(4), single.get(0)), readChunk(4, false));
+        assertNull(readChunk(1, false).get(0));
+    }
+
+    @Test
+    void testRestartResumesBatchFromExecutionContext() {
+        List<UUID> batch = sendBatch(5);
+        queueReader = openReader(brokerConnectionFactory);
+        ExecutionContext executionContext = new ExecutionContext();
+        assertEquals(batch.subList(0, 3), readChunk(3, false, executionContext));
+        queueReader.close();
+
+        queueReader = openReader(brokerConnectionFactory, executionContext);
+
+        assertEquals(batch.subList(3, 5), readChunk(2, false, executionContext));
+        assertNull(readChunk(1, false).get(0));
+    }
+
+    @Test
+    void testRestartDoesNotReplaySingleReadBeforeBatch() {
+        List<UUID> single = send(1);
+        List<UUID> batch = sendBatch(4);
+        queueReader = openReader(brokerConnectionFactory);
+        ExecutionContext executionContext = new ExecutionContext();
+        assertEquals(List.of(single.get(0), batch.get(0)), readChunk(2, false, executionContext));
+        assertTrue(executionContext.containsKey(QueueReader.WRITTEN_MESSAGE_IDS_KEY));
+        queueReader.close();
+
+        queueReader = openReader(brokerConnectionFactory, executionContext);
+
+        assertEquals(batch.subList(1, 4), readChunk(3, false, executionContext));
+        assertFalse(executionContext.containsKey(QueueReader.WRITTEN_MESSAGE_IDS_KEY));
+        assertNull(readChunk(1, false).get(0));
+        queueReader.close();
+        queueReader = null;
+
+        assertEquals(0, drainQueue());
+    }
+
+    @Test
+    void testRolledBackChunkDoesNotReplaySingleReadBeforeBatch() {
+        List<UUID> single = send(1);
+        List<UUID> batch = sendBatch(4);
+        List<UUID> after = send(1);
+        queueReader = openReader(brokerConnectionFactory);
+
+        assertEquals(List.of(single.get(0), batch.get(0)), readChunk(2, false));
+        assertEquals(List.of(batch.get(1), batch.get(2)), readChunk(2, true));
+        assertEquals(List.of(batch.get(1), batch.get(2), batch.get(3), after.get(0)), readChunk(4, false));
+        assertNull(readChunk(1, false).get(0));
+    }
+
+    @Test
+    void testRestartDoesNotReplayBatchFinishedBeforeNextBatch() {
+        List<UUID> first = sendBatch(2);
+        List<UUID> second = sendBatch(3);
+        queueReader = openReader(brokerConnectionFactory);
+        ExecutionContext executionContext = new ExecutionContext();
+        assertEquals(List.of(first.get(0), first.get(1), second.get(0)), readChunk(3, false, executionContext));
+        queueReader.close();
+
+        queueReader = openReader(brokerConnectionFactory, executionContext);
+
+        assertEquals(second.subList(1, 3), readChunk(2, false, executionContext));
+        assertNull(readChunk(1, false).get(0));
+    }
+
+    private QueueReader<StatusUpdate> openReader(ConnectionFactory factory) {
+        return openReader(factory, new ExecutionContext());
+    }
+
+    private QueueReader<StatusUpdate> openReader(ConnectionFactory factory, ExecutionContext executionContext) {
+        JmsTemplate readerTemplate = new JmsTemplate(factory);
+        readerTemplate.setMessageConverter(messageConverter);
+        readerTemplate.setReceiveTimeout(500);
+        QueueReader<StatusUpdate> reader = new QueueReader<>(readerTemplate, queueName, StatusUpdate.class);
+        reader.open(executionContext);
+        return reader;
+    }
+
+    // Like a chunk of a step: the reader's state is saved just before the commit
+    private List<UUID> readChunk(int items, boolean rollback, ExecutionContext executionContext) {
+        return transactionTemplate.execute(status -> {
+            List<UUID> uuids = readChunk(items, rollback);
+            queueReader.update(executionContext);
+            return uuids;
+        });
+    }
+
+    private List<UUID> readChunk(int items, boolean rollback) {
+        return transactionTemplate.execute(status -> {
+            List<UUID> uuids = new ArrayList<>();
+            for (int i = 0; i < items; i++) {
+                StatusUpdate update = read();
+                uuids.add(update != null ? update.getUuid() : null);
+            }
+            if (rollback) {
+                status.setRollbackOnly();
+            }
+            return uuids;
+        });
+    }
+
+    private StatusUpdate read() {
+        try {
+            return queueReader.read();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<UUID> send(int messages) {
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < messages; i++) {
+            UUID uuid = UUID.randomUUID();
+            jmsTemplate.convertAndSend(queueName, new StatusUpdate(uuid, 200));
+            uuids.add(uuid);
+        }
+        return uuids;
+    }
+
+    private List<UUID> sendBatch(int updates) {
+        List<StatusUpdate> batch = new ArrayList<>();
+        for (int i = 0; i < updates; i++) {
+            batch.add(new StatusUpdate(UUID.randomUUID(), 200));
+        }
+        jmsTemplate.convertAndSend(queueName, batch);
+        return batch.stream().map(StatusUpdate::getUuid).toList();
+    }
+
+    private int drainQueue() {
+        int drained = 0;
+        while (jmsTemplate.receive(queueName) != null) {
+            drained++;
+        }
+        return drained;
+    }
+
+    private static class JmsCounters {
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger sessions = new AtomicInteger();
+        final AtomicInteger consumers = new AtomicInteger();
+        final AtomicInteger commits = new AtomicInteger();
+    }
+
+    // Wraps the broker factory and counts connection, session, consumer and commit calls
+    private static ConnectionFactory counting(ConnectionFactory target, JmsCounters counters) {
+        return proxy(ConnectionFactory.class, target, (method, result) -> {
+            if (method.equals("createConnection")) {
+                counters.connections.incrementAndGet();
+                return proxy(Connection.class, result, (connectionMethod, session) -> {
+                    if (connectionMethod.equals("createSession")) {
+                        counters.sessions.incrementAndGet();
+                        return proxy(Session.class, session, (sessionMethod, sessionResult) -> {
+                            if (sessionMethod.equals("createConsumer")) {
+                                counters.consumers.incrementAndGet();
+                            } else if (sessionMethod.equals("commit")) {
+                                counters.commits.incrementAndGet();
+                            }
+                            return sessionResult;
+                        });
+                    }
+                    return session;
+                });
+            }
+            return result;
+        });
+    }
+
+    private interface ResultHandler {
+        Object handle(String methodName, Object result);
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, ResultHandler handler) {
+        Object proxy = Proxy.newProxyInstance(TransactedQueueReaderTest.class.getClassLoader(), new Class<?>[]{type},
+                (instance, method, args) -> {
+                    try {
+                        return handler.handle(method.getName(), method.invoke(target, args));
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        return type.cast(proxy);
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +31,9 @@ class ElstarDataRepositoryTest {
     @Autowired
     private EntityManager entityManager;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void testFindAll() {
         var all = repository.findAll();
@@ -115,4 +119,14 @@ class ElstarDataRepositoryTest {
             repository.saveAndFlush(duplicate);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUuidIsStoredAsUuidWithNamedUniqueIndex() {
+        assertEquals("UUID", jdbcTemplate.queryForObject("SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS"
+                + " WHERE TABLE_NAME = 'ELSTAR_DATEN' AND COLUMN_NAME = 'UUID'", String.class));
+        // Hibernate creates the named index as a unique constraint backed by a unique index
+        assertEquals("UNIQUE INDEX", jdbcTemplate.queryForObject("SELECT i.INDEX_TYPE_NAME"
+                + " FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS c JOIN INFORMATION_SCHEMA.INDEXES i ON i.INDEX_NAME = c.INDEX_NAME"
+                + " WHERE c.CONSTRAINT_NAME = 'UX_ELSTAR_DATEN_UUID'", String.class));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.elstar.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.Driver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidBloomFilterTest {
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:uuid-bloom-filter;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS elstar_daten");
+        jdbcTemplate.execute("CREATE TABLE elstar_daten (id BIGINT AUTO_INCREMENT PRIMARY KEY, uuid UUID NOT NULL UNIQUE,"
+                + " xml_nachricht TEXT, creation_date DATE, status INTEGER)");
+    }
+
+    @Test
+    void testRebuildKnowsEveryRowAndRejectsMostOthers() {
+        List<UUID> rows = insertRows(50_000);
+        UuidBloomFilter filter = new UuidBloomFilter(dataSource, 0.01);
+
+        filter.rebuild();
+
+        for (UUID uuid : rows) {
+            assertTrue(filter.mightContain(uuid));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        // Sized for twice the rows, so the observed rate stays below the target
+        assertTrue(falsePositives < 1_000, "false positives: " + falsePositives);
+        assertTrue(filter.getExpectedFalsePositiveRate() < 0.01);
+    }
+
+    @Test
+    void testRefreshAddsRowsInsertedAfterTheRebuild() {
+        insertRows(10);
+        UuidBloomFilter filter = new UuidBloomFilter(dataSource, 0.000_001);
+        filter.rebuild();
+        long highestId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM elstar_daten", Long.class);
+        UUID added = insertRows(1).get(0);
+        UUID missing = UUID.randomUUID();
+
+        assertFalse(filter.mightContain(added));
+        assertEquals(Math.max(0, highestId - UuidBloomFilter.DEFAULT_REFRESH_OVERLAP), filter.refresh());
+        assertTrue(filter.mightContain(added));
+        assertFalse(filter.mightContain(missing));
+    }
+
+    @Test
+    void testRefreshFindsRowsCommittedOutOfIdOrderWithinTheOverlap() {
+        insertRows(10);
+        UuidBloomFilter filter = new UuidBloomFilter(dataSource, 0.000_001);
+        filter.setRefreshOverlap(100);
+        long highestId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM elstar_daten", Long.class);
+        jdbcTemplate.update("INSERT INTO elstar_daten (id, uuid, status) VALUES (?, ?, 10)",
+                highestId + 100, UUID.randomUUID());
+        filter.rebuild();
+        // A transaction that drew a lower id commits after the rebuild
+        UUID late = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO elstar_daten (id, uuid, status) VALUES (?, ?, 10)", highestId + 1, late);
+
+        assertFalse(filter.mightContain(late));
+        assertEquals(highestId, filter.refresh());
+        assertTrue(filter.mightContain(late));
+    }
+
+    @Test
+    void testRefreshIfDueWaitsForTheInterval() {
+        UuidBloomFilter filter = new UuidBloomFilter(dataSource, 0.000_001);
+        filter.setRefreshInterval(Duration.ofHours(1));
+        filter.rebuild();
+        UUID added = insertRows(1).get(0);
+
+        assertEquals(UuidBloomFilter.NOT_REFRESHED, filter.refreshIfDue());
+        assertFalse(filter.mightContain(added));
+
+        filter.setRefreshInterval(Duration.ZERO);
+        assertEquals(0, filter.refreshIfDue());
+        assertTrue(filter.mightContain(added));
+    }
+
+    @Test
+    void testRescannedRowsDoNotCountTowardsTheFill() {
+        insertRows(1_000);
+        UuidBloomFilter filter = new UuidBloomFilter(dataSource, 0.01);
+        filter.rebuild();
+        double rebuilt = filter.getExpectedFalsePositiveRate();
+
+        filter.refresh();
+
+        assertEquals(rebuilt, filter.getExpectedFalsePositiveRate());
+    }
+
+    @Test
+    void testFalsePositiveRateIsPublished() {
+        insertRows(1_000);
+        UuidBloomFilter filter = new UuidBloomFilter(dataSource, 0.01);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+
+        double empty = registry.get(UuidBloomFilter.FALSE_POSITIVE_RATE_METRIC).tag("target", "0.01").gauge().value();
+        filter.rebuild();
+        double filled = registry.get(UuidBloomFilter.FALSE_POSITIVE_RATE_METRIC).gauge().value();
+
+        assertEquals(0, empty);
+        assertTrue(filled > 0 && filled < 0.01, "rate: " + filled);
+    }
+
+    @Test
+    void testRejectsRatesOutsideZeroAndOne() {
+        assertThrows(IllegalArgumentException.class, () -> new UuidBloomFilter(dataSource, 0));
+        assertThrows(IllegalArgumentException.class, () -> new UuidBloomFilter(dataSource, 1));
+    }
+
+    private List<UUID> insertRows(int count) {
+        List<UUID> uuids = new ArrayList<>(count);
+        List<Object[]> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            batch.add(new Object[]{uuid});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO elstar_daten (uuid, status) VALUES (?, 10)", batch);
+        return uuids;
+    }
+}
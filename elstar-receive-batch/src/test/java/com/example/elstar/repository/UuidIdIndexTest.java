@@ -0,0 +1,201 @@
+package com.example.elstar.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.h2.Driver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidIdIndexTest {
+
+    private static final Log logger = LogFactory.getLog(UuidIdIndexTest.class);
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:uuid-id-index;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS elstar_daten");
+        jdbcTemplate.execute("CREATE TABLE elstar_daten (id BIGINT AUTO_INCREMENT PRIMARY KEY, uuid UUID NOT NULL UNIQUE,"
+                + " xml_nachricht TEXT, creation_date DATE, status INTEGER)");
+    }
+
+    @Test
+    void testGetReturnsThePutIdAcrossResizes() {
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 1; i <= 100_000; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            index.put(uuid, i);
+        }
+
+        assertEquals(uuids.size(), index.size());
+        for (int i = 0; i < uuids.size(); i++) {
+            assertEquals(i + 1, index.getId(uuids.get(i)));
+        }
+        assertEquals(UuidIdIndex.NO_ID, index.getId(UUID.randomUUID()));
+    }
+
+    @Test
+    void testSequentialUuidsAreFound() {
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+        for (int i = 1; i <= 10_000; i++) {
+            index.put(new UUID(42, i), i);
+        }
+
+        for (int i = 1; i <= 10_000; i++) {
+            assertEquals(i, index.getId(new UUID(42, i)));
+        }
+        assertEquals(UuidIdIndex.NO_ID, index.getId(new UUID(42, 10_001)));
+    }
+
+    @Test
+    void testPutReplacesTheIdOfAKnownUuid() {
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+        UUID uuid = UUID.randomUUID();
+
+        index.put(uuid, 1);
+        index.put(uuid, 7);
+
+        assertEquals(1, index.size());
+        assertEquals(7, index.getId(uuid));
+    }
+
+    @Test
+    void testPutRejectsIdsThatAreNotPositive() {
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+
+        assertThrows(IllegalArgumentException.class, () -> index.put(UUID.randomUUID(), UuidIdIndex.NO_ID));
+    }
+
+    @Test
+    void testCatchUpLoadsOnlyNewRows() {
+        UUID first = insertRow();
+        UUID second = insertRow();
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+
+        assertEquals(2, index.catchUp());
+        assertEquals(idOf(first), index.getId(first));
+
+        UUID third = insertRow();
+        assertEquals(UuidIdIndex.NO_ID, index.getId(third));
+        assertEquals(1, index.catchUp());
+        assertEquals(idOf(third), index.getId(third));
+        assertEquals(idOf(second), index.getId(second));
+        assertEquals(0, index.catchUp());
+    }
+
+    @Test
+    void testCatchUpRescansTheOverlapForLateCommits() {
+        UUID first = insertRow(1);
+        insertRow(3);
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+        index.setCatchUpOverlap(2);
+        assertEquals(2, index.catchUp());
+
+        // Id 2 was taken before id 3 but committed after it was loaded
+        UUID late = insertRow(2);
+        assertEquals(1, index.catchUp());
+
+        assertEquals(2, index.getId(late));
+        assertEquals(1, index.getId(first));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testCatchUpWithoutOverlapMissesLateCommits() {
+        insertRow(1);
+        insertRow(3);
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+        index.setCatchUpOverlap(0);
+        index.catchUp();
+
+        UUID late = insertRow(2);
+
+        assertEquals(0, index.catchUp());
+        assertEquals(UuidIdIndex.NO_ID, index.getId(late));
+    }
+
+    @Test
+    void testFallbacksAreCounted() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+        index.bindTo(registry);
+
+        index.recordFallbacks(3);
+        index.recordFallbacks(0);
+
+        assertEquals(3, registry.get(UuidIdIndex.FALLBACK_METRIC).counter().count());
+    }
+
+    /**
+     * Retained heap per million entries of the index and of a
+     * {@code HashMap<UUID, Long>}, measured as the used heap after GC.
+     */
+    @Test
+    @Tag("performance")
+    void testReportMemoryPerMillionEntries() {
+        int entries = Integer.getInteger("elstar.perf.rows", 1_000_000);
+
+        long before = usedHeap();
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+        for (int i = 1; i <= entries; i++) {
+            index.put(new UUID(i * 0x9E3779B97F4A7C15L, i), i);
+        }
+        long indexBytes = usedHeap() - before;
+
+        before = usedHeap();
+        Map<UUID, Long> map = new HashMap<>();
+        for (int i = 1; i <= entries; i++) {
+            map.put(new UUID(i * 0x9E3779B97F4A7C15L, i), (long) i);
+        }
+        long mapBytes = usedHeap() - before;
+
+        double perMillion = 1_000_000.0 / entries / (1024 * 1024);
+        logger.info(String.format("%d entries: UuidIdIndex = %.1f MB per million (table %.1f MB),"
+                        + " HashMap<UUID, Long> = %.1f MB per million", entries, indexBytes * perMillion,
+                index.getTableBytes() * perMillion, mapBytes * perMillion));
+        assertEquals(map.size(), index.size());
+        assertTrue(indexBytes < mapBytes, "Expected the index to be smaller than a HashMap");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private UUID insertRow() {
+        UUID uuid = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO elstar_daten (uuid, status) VALUES (?, 10)", uuid);
+        return uuid;
+    }
+
+    private UUID insertRow(long id) {
+        UUID uuid = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO elstar_daten (id, uuid, status) VALUES (?, ?, 10)", id, uuid);
+        return uuid;
+    }
+
+    private long idOf(UUID uuid) {
+        return jdbcTemplate.queryForObject("SELECT id FROM elstar_daten WHERE uuid = ?", Long.class, uuid);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.elstar.repository;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.h2.Driver;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency of the statement behind {@code updateStatusByUuid} for the textual
+ * {@code VARCHAR(36)} UUID layout and the 16-byte {@code UUID} layout with
+ * {@code ux_elstar_daten_uuid}. Each layout gets its own file-based H2
+ * database under {@code target/} with {@code elstar.perf.rows} rows; the
+ * size of the database file is reported as well, so the rows carry no XML
+ * payload. For the 10M row figures run with {@code -Delstar.perf.rows=10000000}.
+ */
+@Tag("performance")
+class UuidLayoutBenchmarkTest {
+
+    private static final Log logger = LogFactory.getLog(UuidLayoutBenchmarkTest.class);
+
+    private static final String UPDATE_SQL = "UPDATE elstar_daten SET status = ? WHERE uuid = ?";
+
+    @Test
+    void testReportUpdateLatencyPerLayout() throws Exception {
+        int rows = Integer.getInteger("elstar.perf.rows", 1_000_000);
+        int updates = Integer.getInteger("elstar.perf.updates", 100_000);
+
+        Result text = run("text", "uuid VARCHAR(36) NOT NULL UNIQUE", true, rows, updates);
+        Result binary = run("uuid16", "uuid UUID NOT NULL", false, rows, updates);
+
+        logger.info(String.format("updateStatusByUuid, %d rows, %d updates:%n  %s%n  %s", rows, updates, text, binary));
+        assertTrue(binary.fileBytes < text.fileBytes, "Expected the 16-byte layout to be smaller");
+    }
+
+    private Result run(String name, String uuidColumn, boolean textual, int rows, int updates) throws Exception {
+        Path directory = Path.of("target", "uuid-layout", name);
+        FileSystemUtils.deleteRecursively(directory);
+        // Without retention H2 reuses freed chunks instead of growing the file while seeding
+        String url = "jdbc:h2:file:" + directory.toAbsolutePath().resolve("elstar") + ";RETENTION_TIME=0";
+        try (Connection connection = new Driver().connect(url, credentials())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE elstar_daten (id BIGINT AUTO_INCREMENT PRIMARY KEY, " + uuidColumn
+                        + ", xml_nachricht TEXT, creation_date DATE, status INTEGER)");
+                if (!textual) {
+                    statement.execute("CREATE UNIQUE INDEX ux_elstar_daten_uuid ON elstar_daten (uuid)");
+                }
+            }
+            seed(connection, rows, textual);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN COMPACT");
+            }
+        }
+        long fileBytes = sizeOf(directory);
+        try (Connection connection = new Driver().connect(url, credentials())) {
+            SplittableRandom random = new SplittableRandom(42);
+            try (PreparedStatement update = connection.prepareStatement(UPDATE_SQL)) {
+                for (int i = 0; i < updates / 10; i++) {
+                    execute(update, uuid(random.nextInt(rows)), textual);
+                }
+                long[] nanos = new long[updates];
+                for (int i = 0; i < updates; i++) {
+                    UUID uuid = uuid(random.nextInt(rows));
+                    long start = System.nanoTime();
+                    assertEquals(1, execute(update, uuid, textual));
+                    nanos[i] = System.nanoTime() - start;
+                }
+                Arrays.sort(nanos);
+                return new Result(name, fileBytes, Arrays.stream(nanos).average().orElse(0) / 1000,
+                        nanos[updates / 2] / 1000.0, nanos[(int) (updates * 0.99)] / 1000.0);
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    private static int execute(PreparedStatement update, UUID uuid, boolean textual) throws SQLException {
+        update.setInt(1, 200);
+        update.setObject(2, textual ? uuid.toString() : uuid);
+        return update.executeUpdate();
+    }
+
+    private static void seed(Connection connection, int rows, boolean textual) throws SQLException {
+        connection.setAutoCommit(false);
+        Date creationDate = Date.valueOf(LocalDate.now());
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO elstar_daten (uuid, xml_nachricht, creation_date, status) VALUES (?, NULL, ?, 10)")) {
+            for (int i = 0; i < rows; i++) {
+                UUID uuid = uuid(i);
+                insert.setObject(1, textual ? uuid.toString() : uuid);
+                insert.setDate(2, creationDate);
+                insert.addBatch();
+                if ((i + 1) % 10_000 == 0 || i == rows - 1) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+    // Random-looking but reproducible UUID of a row, so lookups need no list of all keys
+    private static UUID uuid(int row) {
+        return new UUID(mix(row), mix(row + 0x9E3779B97F4A7C15L));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static Properties credentials() {
+        Properties properties = new Properties();
+        properties.setProperty("user", "sa");
+        properties.setProperty("password", "");
+        return properties;
+    }
+
+    private static long sizeOf(Path directory) throws IOException {
+        try (var files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private record Result(String layout, long fileBytes, double meanMicros, double p50Micros, double p99Micros) {
+        @Override
+        public String toString() {
+            return String.format("%-6s file = %d MB, mean = %.1f us, p50 = %.1f us, p99 = %.1f us",
+                    layout, fileBytes / (1024 * 1024), meanMicros, p50Micros, p99Micros);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.elstar.writer;
+
+import com.example.elstar.ReceiveBatchApplication;
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.repository.ElstarDataRepository;
+import com.example.elstar.repository.UuidIdIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ReceiveBatchApplication.class)
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class BulkStatusUpdateWriterTest {
+
+    private static final Log logger = LogFactory.getLog(BulkStatusUpdateWriterTest.class);
+
+    private static final UUID TEST_UUID_1 = UUID.fromString("a1b2c3d4-e5f6-7890-abcd-ef1234567890");
+    private static final UUID TEST_UUID_2 = UUID.fromString("b2c3d4e5-f6a7-8901-bcde-f12345678901");
+
+    @Autowired
+    private ItemWriter<StatusUpdate> statusUpdateWriter;
+
+    @Autowired
+    private ElstarDataRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private BulkStatusUpdateWriter writer;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        writer = new BulkStatusUpdateWriter(dataSource);
+        registry = new SimpleMeterRegistry();
+        writer.bindTo(registry);
+    }
+
+    @Test
+    void testJpaIsTheDefaultWriteMode() {
+        assertInstanceOf(StatusUpdateWriter.class, statusUpdateWriter);
+    }
+
+    @Test
+    void testWriteUpdatesAllRowsOfTheChunk() throws Exception {
+        writer.write(new Chunk<>(new StatusUpdate(TEST_UUID_1, 200), new StatusUpdate(TEST_UUID_2, 300)));
+
+        assertEquals(200, repository.findByUuid(TEST_UUID_1).orElseThrow().getStatus());
+        assertEquals(300, repository.findByUuid(TEST_UUID_2).orElseThrow().getStatus());
+        assertEquals(0, registry.get(BulkStatusUpdateWriter.UNKNOWN_METRIC).counter().count());
+        assertEquals(1, registry.get(BulkStatusUpdateWriter.BATCH_METRIC).timer().count());
+    }
+
+    @Test
+    void testUnknownUuidsAreCounted() throws Exception {
+        writer.write(new Chunk<>(new StatusUpdate(UUID.randomUUID(), 200), new StatusUpdate(TEST_UUID_1, 200),
+                new StatusUpdate(UUID.randomUUID(), 200)));
+
+        assertEquals(2, registry.get(BulkStatusUpdateWriter.UNKNOWN_METRIC).counter().count());
+        assertEquals(200, repository.findByUuid(TEST_UUID_1).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testUnknownUuidFailsChunkWithAssertUpdates() {
+        writer.setAssertUpdates(true);
+        UUID unknown = UUID.randomUUID();
+
+        EmptyResultDataAccessException exception = assertThrows(EmptyResultDataAccessException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> {
+                    try {
+                        writer.write(new Chunk<>(new StatusUpdate(TEST_UUID_1, 200), new StatusUpdate(unknown, 200)));
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+
+        assertTrue(exception.getMessage().contains(unknown.toString()));
+        assertEquals(0, repository.findByUuid(TEST_UUID_1).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testIncompleteItemsAreSkipped() throws Exception {
+        writer.write(new Chunk<>(new StatusUpdate(null, 200), new StatusUpdate(TEST_UUID_1, null)));
+
+        assertEquals(0, repository.findByUuid(TEST_UUID_1).orElseThrow().getStatus());
+        assertEquals(0, registry.get(BulkStatusUpdateWriter.BATCH_METRIC).timer().count());
+    }
+
+    @Test
+    void testConcurrentChunksInOppositeOrderDoNotDeadlock() throws Exception {
+        List<UUID> uuids = jdbcTemplate.queryForList("SELECT uuid FROM elstar_daten ORDER BY id", UUID.class);
+        List<UUID> reversed = new ArrayList<>(uuids);
+        Collections.reverse(reversed);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                List<UUID> order = thread % 2 == 0 ? uuids : reversed;
+                int status = 100 + thread;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        writeInTransaction(order, status);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(200, registry.get(BulkStatusUpdateWriter.BATCH_METRIC).timer().count());
+        assertEquals(0, registry.get(BulkStatusUpdateWriter.UNKNOWN_METRIC).counter().count());
+    }
+
+    @Test
+    void testIndexedWriteUpdatesByIdAndFallsBackForUnknownIds() throws Exception {
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+        index.bindTo(registry);
+        index.catchUp();
+        index.put(TEST_UUID_2, 99);
+        UUID added = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO elstar_daten (uuid, status) VALUES (?, 0)", added);
+        writer.setUuidIndex(index);
+
+        writer.write(new Chunk<>(new StatusUpdate(TEST_UUID_1, 200), new StatusUpdate(TEST_UUID_2, 300),
+                new StatusUpdate(added, 400), new StatusUpdate(UUID.randomUUID(), 500)));
+
+        assertEquals(200, repository.findByUuid(TEST_UUID_1).orElseThrow().getStatus());
+        assertEquals(300, repository.findByUuid(TEST_UUID_2).orElseThrow().getStatus());
+        assertEquals(400, repository.findByUuid(added).orElseThrow().getStatus());
+        assertEquals(repository.findByUuid(added).orElseThrow().getId(), index.getId(added));
+        assertEquals(1, registry.get(BulkStatusUpdateWriter.UNKNOWN_METRIC).counter().count());
+        // The stale id of TEST_UUID_2 and the unknown UUID
+        assertEquals(2, registry.get(UuidIdIndex.FALLBACK_METRIC).counter().count());
+    }
+
+    @Test
+    void testIndexedPerItemWriterUpdatesByIdAndFallsBackForUnknownIds() {
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+        index.bindTo(registry);
+        index.catchUp();
+        index.put(TEST_UUID_2, 99);
+        StatusUpdateWriter perItem = new StatusUpdateWriter(repository);
+        perItem.setUuidIndex(index);
+
+        timeChunks(perItem, List.of(TEST_UUID_1, TEST_UUID_2, UUID.randomUUID()), 10, 200);
+
+        assertEquals(200, repository.findByUuid(TEST_UUID_1).orElseThrow().getStatus());
+        assertEquals(200, repository.findByUuid(TEST_UUID_2).orElseThrow().getStatus());
+        assertEquals(2, registry.get(UuidIdIndex.FALLBACK_METRIC).counter().count());
+    }
+
+    /**
+     * Per-item and batched updates with and without the UUID-to-id index. The
+     * index is warmed before the clock starts.
+     */
+    @Test
+    @Tag("performance")
+    void testReportIndexedAgainstUuidUpdates() throws Exception {
+        int rows = Integer.getInteger("elstar.perf.rows", 20_000);
+        int chunkSize = 500;
+        jdbcTemplate.update("DELETE FROM elstar_daten");
+        List<UUID> uuids = seedRows(rows);
+        Collections.shuffle(uuids);
+        UuidIdIndex index = new UuidIdIndex(dataSource);
+        index.catchUp();
+        StatusUpdateWriter perItem = new StatusUpdateWriter(repository);
+        StatusUpdateWriter perItemById = new StatusUpdateWriter(repository);
+        perItemById.setUuidIndex(index);
+        BulkStatusUpdateWriter batchedById = new BulkStatusUpdateWriter(dataSource);
+        batchedById.setUuidIndex(index);
+
+        long perItemMillis = timeChunks(perItem, uuids, chunkSize, 100);
+        long perItemByIdMillis = timeChunks(perItemById, uuids, chunkSize, 101);
+        long batchedMillis = timeChunks(writer, uuids, chunkSize, 102);
+        long batchedByIdMillis = timeChunks(batchedById, uuids, chunkSize, 103);
+
+        logger.info(String.format("%d status updates in chunks of %d: per-item JPQL by uuid = %d ms, by id = %d ms;"
+                        + " JDBC batch by uuid = %d ms, by id = %d ms; index table = %d bytes",
+                rows, chunkSize, perItemMillis, perItemByIdMillis, batchedMillis, batchedByIdMillis,
+                index.getTableBytes()));
+        assertEquals(rows, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM elstar_daten WHERE status = 103", Integer.class));
+        assertEquals(0, registry.get(BulkStatusUpdateWriter.UNKNOWN_METRIC).counter().count());
+    }
+
+    @Test
+    @Tag("performance")
+    void testReportBatchAgainstPerItemUpdates() throws Exception {
+        int rows = Integer.getInteger("elstar.perf.rows", 20_000);
+        int chunkSize = 500;
+        jdbcTemplate.update("DELETE FROM elstar_daten");
+        List<UUID> uuids = seedRows(rows);
+
+        long perItem = timeChunks(new StatusUpdateWriter(repository), uuids, chunkSize, 100);
+        long batched = timeChunks(writer, uuids, chunkSize, 200);
+
+        logger.info(String.format("%d status updates in chunks of %d: per-item JPQL = %d ms, JDBC batch = %d ms",
+                rows, chunkSize, perItem, batched));
+        assertEquals(rows, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM elstar_daten WHERE status = 200", Integer.class));
+        assertTrue(batched < perItem, "Expected the JDBC batch to be faster");
+    }
+
+    private long timeChunks(ItemWriter<StatusUpdate> itemWriter, List<UUID> uuids, int chunkSize, int status) {
+        long start = System.nanoTime();
+        for (int from = 0; from < uuids.size(); from += chunkSize) {
+            Chunk<StatusUpdate> chunk = new Chunk<>();
+            for (UUID uuid : uuids.subList(from, Math.min(uuids.size(), from + chunkSize))) {
+                chunk.add(new StatusUpdate(uuid, status));
+            }
+            transactionTemplate.executeWithoutResult(transactionStatus -> {
+                try {
+                    itemWriter.write(chunk);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private void writeInTransaction(List<UUID> uuids, int status) {
+        Chunk<StatusUpdate> chunk = new Chunk<>();
+        for (UUID uuid : uuids) {
+            chunk.add(new StatusUpdate(uuid, status));
+        }
+        transactionTemplate.executeWithoutResult(transactionStatus -> {
+            try {
+                writer.write(chunk);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private List<UUID> seedRows(int rows) {
+        Date creationDate = Date.valueOf(LocalDate.now());
+        List<UUID> uuids = new ArrayList<>(rows);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            batch.add(new Object[]{uuid, "<ElstarDaten/>", creationDate});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO elstar_daten (uuid, xml_nachricht, creation_date, status) VALUES (?, ?, ?, 10)",
+                        batch);
+                batch.clear();
+            }
+        }
+        return uuids;
+    }
+}
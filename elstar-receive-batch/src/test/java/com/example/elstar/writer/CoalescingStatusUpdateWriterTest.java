@@ -0,0 +1,90 @@
+package com.example.elstar.writer;
+
+import com.example.elstar.dto.StatusUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.Chunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingStatusUpdateWriterTest {
+
+    private List<StatusUpdate> written;
+    private SimpleMeterRegistry registry;
+    private CoalescingStatusUpdateWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        written = new ArrayList<>();
+        registry = new SimpleMeterRegistry();
+        writer = new CoalescingStatusUpdateWriter(chunk -> written.addAll(chunk.getItems()));
+        writer.bindTo(registry);
+    }
+
+    @Test
+    void testLastUpdatePerUuidWins() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        writer.write(new Chunk<>(new StatusUpdate(first, 1), new StatusUpdate(second, 1),
+                new StatusUpdate(first, 2), new StatusUpdate(first, 3), new StatusUpdate(second, 4)));
+
+        assertEquals(2, written.size());
+        assertEquals(first, written.get(0).getUuid());
+        assertEquals(3, written.get(0).getStatus());
+        assertEquals(second, written.get(1).getUuid());
+        assertEquals(4, written.get(1).getStatus());
+        assertEquals(3, registry.get(CoalescingStatusUpdateWriter.COALESCED_METRIC).counter().count());
+        assertEquals(0.6, registry.get(CoalescingStatusUpdateWriter.RATIO_METRIC).summary().mean(), 1e-9);
+    }
+
+    @Test
+    void testDistinctUpdatesPassThrough() throws Exception {
+        Chunk<StatusUpdate> chunk = new Chunk<>(new StatusUpdate(UUID.randomUUID(), 1),
+                new StatusUpdate(UUID.randomUUID(), 2), new StatusUpdate(null, 3));
+
+        writer.write(chunk);
+
+        assertEquals(chunk.getItems(), written);
+        assertEquals(0.0, registry.get(CoalescingStatusUpdateWriter.RATIO_METRIC).summary().max());
+    }
+
+    @Test
+    void testUpdateWithoutStatusDoesNotReplaceValidOne() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        StatusUpdate valid = new StatusUpdate(uuid, 200);
+        StatusUpdate withoutStatus = new StatusUpdate(uuid, null);
+
+        writer.write(new Chunk<>(new StatusUpdate(uuid, 100), valid, withoutStatus));
+
+        assertEquals(2, written.size());
+        assertTrue(written.contains(valid), "Expected the last valid update in " + written);
+        assertTrue(written.contains(withoutStatus), "Expected the update without status in " + written);
+        assertEquals(1, registry.get(CoalescingStatusUpdateWriter.COALESCED_METRIC).counter().count());
+    }
+
+    @Test
+    void testBurstyChunkIsWrittenOncePerUuid() throws Exception {
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            uuids.add(UUID.randomUUID());
+        }
+        Chunk<StatusUpdate> chunk = new Chunk<>();
+        for (int i = 0; i < 1000; i++) {
+            chunk.add(new StatusUpdate(uuids.get(i % uuids.size()), i));
+        }
+
+        writer.write(chunk);
+
+        assertEquals(50, written.size());
+        for (StatusUpdate update : written) {
+            assertTrue(update.getStatus() >= 950, "Expected the last status of " + update.getUuid());
+        }
+        assertEquals(0.95, registry.get(CoalescingStatusUpdateWriter.RATIO_METRIC).summary().mean(), 1e-9);
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.elstar.writer;
+
+import com.example.elstar.ReceiveBatchApplication;
+import com.example.elstar.dto.StatusUpdate;
+import com.example.elstar.jms.StatusUpdateMessageConverter;
+import com.example.elstar.repository.ElstarDataRepository;
+import com.example.elstar.repository.UuidBloomFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.ConnectionFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The false-positive rate is tiny here, so a random UUID is never taken
+ * for a known one.
+ */
+@SpringBootTest(classes = ReceiveBatchApplication.class, properties = {
+        "elstar.batch.write-mode=jdbc",
+        "elstar.batch.coalesce=true",
+        "elstar.batch.park-unknown=true",
+        "elstar.batch.bloom.false-positive-rate=0.000001"
+})
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ParkingStatusUpdateWriterTest {
+
+    private static final Log logger = LogFactory.getLog(ParkingStatusUpdateWriterTest.class);
+
+    private static final UUID TEST_UUID_1 = UUID.fromString("a1b2c3d4-e5f6-7890-abcd-ef1234567890");
+    private static final UUID TEST_UUID_2 = UUID.fromString("b2c3d4e5-f6a7-8901-bcde-f12345678901");
+
+    @Autowired
+    private ItemWriter<StatusUpdate> statusUpdateWriter;
+
+    @Autowired
+    private UuidBloomFilter knownUuidFilter;
+
+    @Autowired
+    private ElstarDataRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private StatusUpdateMessageConverter messageConverter;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    private List<StatusUpdate> delegated;
+    private ParkingStatusUpdateWriter writer;
+    private ParkedStatusUpdateReconciler reconciler;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM elstar_status_parked");
+        knownUuidFilter.setRefreshInterval(UuidBloomFilter.DEFAULT_REFRESH_INTERVAL);
+        knownUuidFilter.rebuild();
+        delegated = new ArrayList<>();
+        registry = new SimpleMeterRegistry();
+        reconciler = new ParkedStatusUpdateReconciler(dataSource, knownUuidFilter);
+        reconciler.bindTo(registry);
+        BulkStatusUpdateWriter bulkWriter = new BulkStatusUpdateWriter(dataSource);
+        writer = new ParkingStatusUpdateWriter(chunk -> {
+            delegated.addAll(chunk.getItems());
+            bulkWriter.write(chunk);
+        }, knownUuidFilter, reconciler, dataSource);
+        writer.bindTo(registry);
+    }
+
+    @AfterEach
+    void resetRefreshInterval() {
+        knownUuidFilter.setRefreshInterval(UuidBloomFilter.DEFAULT_REFRESH_INTERVAL);
+    }
+
+    @Test
+    void testParkingSitsBetweenCoalescingAndTheJdbcWriter() {
+        ItemWriter<StatusUpdate> parking = ((CoalescingStatusUpdateWriter) statusUpdateWriter).getDelegate();
+
+        assertInstanceOf(BulkStatusUpdateWriter.class, ((ParkingStatusUpdateWriter) parking).getDelegate());
+    }
+
+    @Test
+    void testUnknownUuidsAreParkedWithoutReachingTheDelegate() throws Exception {
+        UUID unknown1 = UUID.randomUUID();
+        UUID unknown2 = UUID.randomUUID();
+
+        writer.write(new Chunk<>(new StatusUpdate(unknown1, 500), new StatusUpdate(TEST_UUID_1, 200),
+                new StatusUpdate(unknown2, 600)));
+
+        assertEquals(List.of(TEST_UUID_1), delegated.stream().map(StatusUpdate::getUuid).toList());
+        assertEquals(200, repository.findByUuid(TEST_UUID_1).orElseThrow().getStatus());
+        assertEquals(500, parkedStatus(unknown1));
+        assertEquals(600, parkedStatus(unknown2));
+        assertEquals(2, registry.get(ParkingStatusUpdateWriter.PARKED_METRIC).counter().count());
+    }
+
+    @Test
+    void testRowInsertedAfterTheRebuildIsParkedUntilTheRefresh() throws Exception {
+        UUID added = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO elstar_daten (uuid, status) VALUES (?, 0)", added);
+
+        writer.write(new Chunk<>(new StatusUpdate(added, 300)));
+
+        assertEquals(0, repository.findByUuid(added).orElseThrow().getStatus());
+        assertEquals(300, parkedStatus(added));
+
+        knownUuidFilter.setRefreshInterval(Duration.ZERO);
+        writer.write(new Chunk<>(new StatusUpdate(added, 400)));
+
+        assertEquals(400, repository.findByUuid(added).orElseThrow().getStatus());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM elstar_status_parked", Integer.class));
+        assertEquals(1, registry.get(ParkedStatusUpdateReconciler.REPLAYED_METRIC).counter().count());
+    }
+
+    @Test
+    void testRowCommittedOutOfIdOrderIsReplayedByTheRefresh() throws Exception {
+        long highestId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM elstar_daten", Long.class);
+        jdbcTemplate.update("INSERT INTO elstar_daten (id, uuid, status) VALUES (?, ?, 0)",
+                highestId + 100, UUID.randomUUID());
+        knownUuidFilter.rebuild();
+        UUID late = UUID.randomUUID();
+        writer.write(new Chunk<>(new StatusUpdate(late, 300), new StatusUpdate(UUID.randomUUID(), 400)));
+        jdbcTemplate.update("INSERT INTO elstar_daten (id, uuid, status) VALUES (?, ?, 0)", highestId + 1, late);
+
+        knownUuidFilter.setRefreshInterval(Duration.ZERO);
+        writer.write(new Chunk<>(new StatusUpdate(TEST_UUID_1, 200)));
+
+        assertEquals(300, repository.findByUuid(late).orElseThrow().getStatus());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM elstar_status_parked", Integer.class));
+    }
+
+    @Test
+    void testReconcileAppliesTheLastParkedStatusOnly() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        writer.write(new Chunk<>(new StatusUpdate(uuid, 500), new StatusUpdate(missing, 550)));
+        writer.write(new Chunk<>(new StatusUpdate(uuid, 600)));
+        jdbcTemplate.update("INSERT INTO elstar_daten (uuid, status) VALUES (?, 0)", uuid);
+
+        assertEquals(2, reconciler.reconcile(0));
+
+        assertEquals(600, repository.findByUuid(uuid).orElseThrow().getStatus());
+        assertEquals(550, parkedStatus(missing));
+        assertEquals(2, registry.get(ParkedStatusUpdateReconciler.REPLAYED_METRIC).counter().count());
+    }
+
+    @Test
+    void testIncompleteItemsGoToTheDelegate() throws Exception {
+        writer.write(new Chunk<>(new StatusUpdate(null, 200), new StatusUpdate(UUID.randomUUID(), null)));
+
+        assertEquals(2, delegated.size());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM elstar_status_parked", Integer.class));
+    }
+
+    @Test
+    void testJobParksUnknownUpdates() throws Exception {
+        JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setMessageConverter(messageConverter);
+        jmsTemplate.setReceiveTimeout(100);
+        while (jmsTemplate.receive(queueName) != null) {
+            // drain leftovers of earlier tests
+        }
+        UUID arrived = UUID.randomUUID();
+        writer.write(new Chunk<>(new StatusUpdate(arrived, 900)));
+        jdbcTemplate.update("INSERT INTO elstar_daten (uuid, status) VALUES (?, 0)", arrived);
+        UUID unknown = UUID.randomUUID();
+        jmsTemplate.convertAndSend(queueName, new StatusUpdate(TEST_UUID_2, 700));
+        jmsTemplate.convertAndSend(queueName, new StatusUpdate(unknown, 800));
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertEquals(700, repository.findByUuid(TEST_UUID_2).orElseThrow().getStatus());
+        assertEquals(800, parkedStatus(unknown));
+        // reconcileParkedStep replayed the update parked before its row showed up
+        assertEquals(900, repository.findByUuid(arrived).orElseThrow().getStatus());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM elstar_status_parked", Integer.class));
+    }
+
+    /**
+     * A partner replay: {@code elstar.perf.rows} updates of which one in ten
+     * has a row, written through the per-item and the JDBC writer, each alone
+     * and behind the filter.
+     */
+    @Test
+    @Tag("performance")
+    void testReportReplayBurstWithAndWithoutParking() {
+        int rows = Integer.getInteger("elstar.perf.rows", 20_000);
+        int chunkSize = 500;
+        List<UUID> known = seedRows(rows / 10);
+        List<StatusUpdate> updates = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            updates.add(new StatusUpdate(i % 10 == 0 ? known.get(i / 10) : UUID.randomUUID(), 200));
+        }
+        knownUuidFilter.rebuild();
+
+        long perItem = timeChunks(new StatusUpdateWriter(repository), updates, chunkSize);
+        long perItemParking = timeChunks(new ParkingStatusUpdateWriter(new StatusUpdateWriter(repository),
+                knownUuidFilter, reconciler, dataSource), updates, chunkSize);
+        jdbcTemplate.update("DELETE FROM elstar_status_parked");
+        long batched = timeChunks(new BulkStatusUpdateWriter(dataSource), updates, chunkSize);
+        long batchedParking = timeChunks(new ParkingStatusUpdateWriter(new BulkStatusUpdateWriter(dataSource),
+                knownUuidFilter, reconciler, dataSource), updates, chunkSize);
+
+        logger.info(String.format("%d status updates, 90%% unknown, chunks of %d: per-item JPQL = %d ms,"
+                        + " with parking = %d ms; JDBC batch = %d ms, with parking = %d ms (filter rate %.6f)",
+                rows, chunkSize,
+                perItem, perItemParking, batched, batchedParking, knownUuidFilter.getExpectedFalsePositiveRate()));
+        assertTrue(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM elstar_status_parked", Integer.class)
+                >= rows - rows / 10 - rows / 1000);
+    }
+
+    private long timeChunks(ItemWriter<StatusUpdate> itemWriter, List<StatusUpdate> updates, int chunkSize) {
+        long start = System.nanoTime();
+        for (int from = 0; from < updates.size(); from += chunkSize) {
+            Chunk<StatusUpdate> chunk = new Chunk<>(updates.subList(from, Math.min(updates.size(), from + chunkSize)));
+            transactionTemplate.executeWithoutResult(transactionStatus -> {
+                try {
+                    itemWriter.write(chunk);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private List<UUID> seedRows(int rows) {
+        Date creationDate = Date.valueOf(LocalDate.now());
+        List<UUID> uuids = new ArrayList<>(rows);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            batch.add(new Object[]{uuid, "<ElstarDaten/>", creationDate});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO elstar_daten (uuid, xml_nachricht, creation_date, status) VALUES (?, ?, ?, 10)", batch);
+        return uuids;
+    }
+
+    private Integer parkedStatus(UUID uuid) {
+        return jdbcTemplate.queryForObject("SELECT status FROM elstar_status_parked WHERE uuid = ?", Integer.class, uuid);
+    }
+}
@@ -1,8 +1,18 @@
 -- Schema DDL for ElstarData entity
 CREATE TABLE IF NOT EXISTS elstar_daten (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    uuid UUID NOT NULL UNIQUE,
+    uuid UUID NOT NULL,
     xml_nachricht TEXT,
     creation_date DATE,
     status INTEGER
 );
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_elstar_daten_uuid ON elstar_daten (uuid);
+
+-- Status updates for UUIDs that are not in elstar_daten
+CREATE TABLE IF NOT EXISTS elstar_status_parked (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    uuid UUID NOT NULL,
+    status INTEGER,
+    parked_at TIMESTAMP NOT NULL
+);
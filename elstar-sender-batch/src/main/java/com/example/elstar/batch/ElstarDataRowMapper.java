@@ -0,0 +1,37 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.entity.ElstarData;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Maps an {@code elstar_daten} row to a detached {@link ElstarData}. Without
+ * payload the {@code xml_nachricht} column is neither selected nor mapped.
+ */
+public class ElstarDataRowMapper implements RowMapper<ElstarData> {
+
+    private final boolean withPayload;
+
+    public ElstarDataRowMapper() {
+        this(true);
+    }
+
+    public ElstarDataRowMapper(boolean withPayload) {
+        this.withPayload = withPayload;
+    }
+
+    @Override
+    public ElstarData mapRow(ResultSet rs, int rowNum) throws SQLException {
+        ElstarData elstarData = new ElstarData(withPayload ? rs.getString("xml_nachricht") : null);
+        elstarData.setId(rs.getLong("id"));
+        elstarData.setUuid(rs.getObject("uuid", UUID.class));
+        Date creationDate = rs.getDate("creation_date");
+        elstarData.setCreationDate(creationDate != null ? creationDate.toLocalDate() : null);
+        elstarData.setStatus(rs.getObject("status", Integer.class));
+        return elstarData;
+    }
+}
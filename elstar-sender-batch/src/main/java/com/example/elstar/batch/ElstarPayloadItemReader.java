@@ -0,0 +1,66 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.dto.ElstarPayload;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.batch.infrastructure.item.support.AbstractItemCountingItemStreamItemReader;
+
+/**
+ * Streams {@link ElstarPayload} projections over a forward-only cursor of a
+ * Hibernate {@link StatelessSession}. Unlike {@code JpaCursorItemReader}, no
+ * entity is managed, so heap use does not grow with the number of rows read.
+ */
+public class ElstarPayloadItemReader extends AbstractItemCountingItemStreamItemReader<ElstarPayload> {
+
+    static final String QUERY = "SELECT new com.example.elstar.dto.ElstarPayload(e.id, e.uuid, e.xmlNachricht)"
+            + " FROM ElstarData e ORDER BY e.id";
+
+    private final SessionFactory sessionFactory;
+    private int fetchSize = 100;
+    private StatelessSession session;
+    private ScrollableResults<ElstarPayload> results;
+
+    public ElstarPayloadItemReader(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        setName("elstarPayloadReader");
+    }
+
+    /**
+     * JDBC fetch size of the cursor; defaults to 100.
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    protected void doOpen() {
+        session = sessionFactory.openStatelessSession();
+        results = session.createSelectionQuery(QUERY, ElstarPayload.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    @Override
+    protected ElstarPayload doRead() {
+        return results.next() ? results.get() : null;
+    }
+
+    @Override
+    protected void doClose() {
+        try {
+            if (results != null) {
+                results.close();
+            }
+        } finally {
+            results = null;
+            if (session != null) {
+                session.close();
+                session = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.elstar.batch;
+
+import org.springframework.batch.core.partition.Partitioner;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits {@code elstar_daten} into contiguous, non-overlapping id ranges.
+ * Each partition receives {@code minId} and {@code maxId} (both inclusive)
+ * in its step execution context.
+ */
+public class IdRangePartitioner implements Partitioner {
+
+    public static final String MIN_ID_KEY = "minId";
+    public static final String MAX_ID_KEY = "maxId";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdRangePartitioner(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM elstar_daten");
+        Number min = (Number) bounds.get("min_id");
+        Number max = (Number) bounds.get("max_id");
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        if (min == null || max == null) {
+            partitions.put("partition0", rangeContext(0, -1));
+            return partitions;
+        }
+
+        long minId = min.longValue();
+        long maxId = max.longValue();
+        long rangeSize = (maxId - minId) / Math.max(gridSize, 1) + 1;
+
+        int index = 0;
+        for (long start = minId; start <= maxId; start += rangeSize) {
+            long end = Math.min(start + rangeSize - 1, maxId);
+            partitions.put("partition" + index++, rangeContext(start, end));
+        }
+        return partitions;
+    }
+
+    private static ExecutionContext rangeContext(long minId, long maxId) {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(MIN_ID_KEY, minId);
+        context.putLong(MAX_ID_KEY, maxId);
+        return context;
+    }
+}
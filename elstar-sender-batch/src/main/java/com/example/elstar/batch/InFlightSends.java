@@ -0,0 +1,109 @@
+package com.example.elstar.batch;
+
+import jakarta.jms.CompletionListener;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends messages with JMS 2.0 asynchronous send and tracks their completion.
+ * At most {@code maxInFlight} sends are outstanding; further sends block until
+ * the broker acknowledges earlier ones. The first failure is kept and
+ * reported by the next {@link #send} or by {@link #awaitCompletion()}.
+ */
+class InFlightSends implements QueueWriter.MessageSender, CompletionListener {
+
+    private final MessageProducer producer;
+    private final int maxInFlight;
+    private final long timeoutMillis;
+    private final Semaphore permits;
+    private volatile Exception failure;
+    private boolean drained;
+
+    InFlightSends(MessageProducer producer, int maxInFlight, long timeoutMillis) {
+        this.producer = producer;
+        this.maxInFlight = maxInFlight;
+        this.timeoutMillis = timeoutMillis;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public void send(Message message) throws JMSException {
+        checkFailure();
+        acquire(1);
+        try {
+            producer.send(message, this);
+        } catch (JMSException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void onCompletion(Message message) {
+        permits.release();
+    }
+
+    @Override
+    public void onException(Message message, Exception exception) {
+        if (failure == null) {
+            failure = exception;
+        }
+        permits.release();
+    }
+
+    /**
+     * Waits until every send is acknowledged and throws if any of them failed.
+     */
+    void awaitCompletion() throws JMSException {
+        if (!drained) {
+            acquire(maxInFlight);
+            drained = true;
+        }
+        checkFailure();
+    }
+
+    /**
+     * Waits for outstanding sends without reporting failures, so the producer
+     * can be closed after a chunk failed half way.
+     */
+    void drain() {
+        if (drained) {
+            return;
+        }
+        try {
+            drained = permits.tryAcquire(maxInFlight, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acquire(int count) throws JMSException {
+        try {
+            if (!permits.tryAcquire(count, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new JMSException("Asynchronous sends not completed within " + timeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            JMSException jmsException = new JMSException("Interrupted while waiting for asynchronous sends");
+            jmsException.initCause(e);
+            throw jmsException;
+        }
+    }
+
+    private void checkFailure() throws JMSException {
+        Exception exception = failure;
+        if (exception instanceof JMSException jmsException) {
+            throw jmsException;
+        }
+        if (exception != null) {
+            JMSException jmsException = new JMSException("Asynchronous send failed: " + exception.getMessage());
+            jmsException.setLinkedException(exception);
+            jmsException.initCause(exception);
+            throw jmsException;
+        }
+    }
+}
@@ -1,25 +1,256 @@
 package com.example.elstar.batch;
 
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
 import org.springframework.batch.infrastructure.item.Chunk;
 import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.jms.connection.ConnectionFactoryUtils;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
 
-public class QueueWriter<T> implements ItemWriter<T> {
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Sends every item of a chunk to a JMS destination. Once bound to a
+ * {@link MeterRegistry} it records the latency of every send
+ * ({@value #SEND_METRIC}), of the whole chunk ({@value #CHUNK_METRIC}) and
+ * the number of items per chunk ({@value #CHUNK_ITEMS_METRIC}), each tagged
+ * with the destination. Without session-per-chunk a send is the whole
+ * {@code convertAndSend}; with asynchronous sends it is the hand-over to the
+ * provider, including the wait for a free in-flight slot.
+ * <p>
+ * With {@link #setBundling(int, long, ToIntFunction) bundling} consecutive
+ * items of a chunk are converted as a {@code List}, so the message converter
+ * can pack them into one message; {@value #BUNDLE_ITEMS_METRIC} then records
+ * the items per message.
+ */
+public class QueueWriter<T> implements ItemWriter<T>, MeterBinder {
+
+    public static final String SEND_METRIC = "elstar.send.message";
+    public static final String CHUNK_METRIC = "elstar.send.chunk";
+    public static final String CHUNK_ITEMS_METRIC = "elstar.send.chunk.items";
+    public static final String BUNDLE_ITEMS_METRIC = "elstar.send.bundle.items";
 
     private final JmsTemplate jmsTemplate;
     private final String destinationName;
+    private boolean sessionPerChunk;
+    private int maxInFlight;
+    private long completionTimeout = 30_000;
+    private int bundleMaxItems = 1;
+    private long bundleMaxBytes;
+    private ToIntFunction<? super T> itemBytes = item -> 0;
+    private Timer sendTimer;
+    private Timer chunkTimer;
+    private DistributionSummary chunkItems;
+    private DistributionSummary bundleItems;
 
     public QueueWriter(JmsTemplate jmsTemplate, String destinationName) {
         this.jmsTemplate = jmsTemplate;
         this.destinationName = destinationName;
     }
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        sendTimer = Timer.builder(SEND_METRIC)
+                .description("Latency of sending one message")
+                .tag("queue", destinationName)
+                .publishPercentileHistogram()
+                .register(registry);
+        chunkTimer = Timer.builder(CHUNK_METRIC)
+                .description("Latency of sending a whole chunk, including the commit")
+                .tag("queue", destinationName)
+                .publishPercentileHistogram()
+                .register(registry);
+        chunkItems = DistributionSummary.builder(CHUNK_ITEMS_METRIC)
+                .description("Items per chunk")
+                .tag("queue", destinationName)
+                .register(registry);
+        bundleItems = DistributionSummary.builder(BUNDLE_ITEMS_METRIC)
+                .description("Items per bundle message")
+                .tag("queue", destinationName)
+                .register(registry);
+    }
+
     @Override
     public void write(Chunk<? extends T> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (sessionPerChunk) {
+                writeInOneSession(chunk);
+            } else {
+                for (Object message : messages(chunk)) {
+                    long sendStart = System.nanoTime();
+                    jmsTemplate.convertAndSend(destinationName, message);
+                    record(sendTimer, sendStart);
+                }
+            }
+        } finally {
+            record(chunkTimer, start);
+            if (chunkItems != null) {
+                chunkItems.record(chunk.size());
+            }
+        }
+    }
+
+    private void writeInOneSession(Chunk<? extends T> chunk) {
+        jmsTemplate.execute(session -> {
+            Destination destination = jmsTemplate.getDestinationResolver()
+                    .resolveDestinationName(session, destinationName, jmsTemplate.isPubSubDomain());
+            MessageProducer producer = session.createProducer(destination);
+            InFlightSends inFlight = maxInFlight > 0 ? new InFlightSends(producer, maxInFlight, completionTimeout) : null;
+            try {
+                send(session, timed(inFlight != null ? inFlight : producer::send), chunk);
+                if (inFlight != null) {
+                    inFlight.awaitCompletion();
+                }
+                if (session.getTransacted()
+                        && !ConnectionFactoryUtils.isSessionTransactional(session, jmsTemplate.getConnectionFactory())) {
+                    session.commit();
+                }
+            } finally {
+                if (inFlight != null) {
+                    inFlight.drain();
+                }
+                JmsUtils.closeMessageProducer(producer);
+            }
+            return null;
+        }, false);
+    }
+
+    private MessageSender timed(MessageSender sender) {
+        Timer timer = sendTimer;
+        if (timer == null) {
+            return sender;
+        }
+        return message -> {
+            long start = System.nanoTime();
+            try {
+                sender.send(message);
+            } finally {
+                record(timer, start);
+            }
+        };
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Sends every item of the chunk through the given sender. Called once per
+     * chunk when {@link #setSessionPerChunk(boolean) session-per-chunk} is enabled.
+     */
+    protected void send(Session session, MessageSender sender, Chunk<? extends T> chunk) throws JMSException {
+        MessageConverter messageConverter = jmsTemplate.getMessageConverter();
+        for (Object message : messages(chunk)) {
+            sender.send(messageConverter.toMessage(message, session));
+        }
+    }
+
+    /**
+     * What to convert into one message each: the items themselves, or with
+     * bundling lists of consecutive items. A bundle ends at
+     * {@code bundleMaxItems} items or before the item that would take it past
+     * {@code bundleMaxBytes}; a bundle of one is sent as the plain item.
+     */
+    private Iterable<?> messages(Chunk<? extends T> chunk) {
+        if (bundleMaxItems <= 1) {
+            return chunk;
+        }
+        List<Object> messages = new ArrayList<>();
+        List<T> bundle = new ArrayList<>();
+        long bundleBytes = 0;
         for (T item : chunk) {
-            jmsTemplate.convertAndSend(destinationName, item);
+            int bytes = itemBytes.applyAsInt(item);
+            if (!bundle.isEmpty() && (bundle.size() == bundleMaxItems
+                    || bundleMaxBytes > 0 && bundleBytes + bytes > bundleMaxBytes)) {
+                messages.add(toMessageObject(bundle));
+                bundle = new ArrayList<>();
+                bundleBytes = 0;
+            }
+            bundle.add(item);
+            bundleBytes += bytes;
         }
+        if (!bundle.isEmpty()) {
+            messages.add(toMessageObject(bundle));
+        }
+        return messages;
+    }
+
+    private Object toMessageObject(List<T> bundle) {
+        if (bundleItems != null) {
+            bundleItems.record(bundle.size());
+        }
+        return bundle.size() == 1 ? bundle.get(0) : bundle;
+    }
+
+    /**
+     * Sends a whole chunk through one session and one producer instead of one
+     * {@code convertAndSend} per item. A transacted session is committed once per chunk.
+     */
+    public void setSessionPerChunk(boolean sessionPerChunk) {
+        this.sessionPerChunk = sessionPerChunk;
+    }
+
+    public boolean isSessionPerChunk() {
+        return sessionPerChunk;
+    }
+
+    /**
+     * Sends asynchronously (JMS 2.0 {@code CompletionListener}) with at most
+     * {@code maxInFlight} unacknowledged messages; {@code 0} (default) sends
+     * synchronously. The chunk fails if any send fails. Only applies with
+     * {@link #setSessionPerChunk(boolean) session-per-chunk}.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Milliseconds to wait for outstanding asynchronous sends; defaults to 30 s.
+     */
+    public void setCompletionTimeout(long completionTimeout) {
+        this.completionTimeout = completionTimeout;
+    }
+
+    /**
+     * Packs up to {@code maxItems} consecutive items of a chunk into one
+     * message, fewer if their {@code itemBytes} would exceed {@code maxBytes}
+     * ({@code 0} for no limit). {@code maxItems} of 1 (default) sends every
+     * item on its own. The message converter has to accept a {@code List} of items.
+     */
+    public void setBundling(int maxItems, long maxBytes, ToIntFunction<? super T> itemBytes) {
+        if (maxItems < 1) {
+            throw new IllegalArgumentException("maxItems must be at least 1");
+        }
+        this.bundleMaxItems = maxItems;
+        this.bundleMaxBytes = maxBytes;
+        this.itemBytes = itemBytes;
+    }
+
+    public int getBundleMaxItems() {
+        return bundleMaxItems;
     }
 
     public JmsTemplate getJmsTemplate() {
@@ -29,4 +260,13 @@ public class QueueWriter<T> implements ItemWriter<T> {
     public String getDestinationName() {
         return destinationName;
     }
+
+    /**
+     * Sends one message of the chunk, either directly through the producer or
+     * asynchronously.
+     */
+    @FunctionalInterface
+    public interface MessageSender {
+        void send(Message message) throws JMSException;
+    }
 }
@@ -0,0 +1,150 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.entity.ElstarData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.SessionAwareMessageListener;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker side of remote chunking: consumes the chunk requests of a
+ * {@link RemoteChunkWriter}, writes each chunk in one transaction through
+ * {@code writer} (the {@code QueueWriter} and, in incremental read mode, the
+ * sent-status update) and
+ * answers on the request's {@code JMSReplyTo}.
+ * <p>
+ * The transacted listener session is exposed to the writer: a
+ * {@code JmsTemplate} on the same {@code ConnectionFactory} sends the
+ * documents in it, so the sends, the reply and the acknowledgement of the
+ * request are committed together, after the rows are marked. A worker that
+ * dies before that commit sends nothing; the request is redelivered and the
+ * next worker sends and marks the chunk again.
+ * <p>
+ * A failed chunk is rolled back, so the broker redelivers the request. A
+ * request delivered more than {@code maxDeliveries} times is not written
+ * again but answered with {@value RemoteChunkWriter#ERROR_PROPERTY} and
+ * acknowledged, so the manager fails the step instead of the request being
+ * redelivered forever. The broker's own limit of delivery attempts has to be
+ * higher, or it moves the request to its dead letter queue and the manager
+ * fails on the reply timeout instead. Once bound to a
+ * {@link MeterRegistry} every chunk is timed as {@value #CHUNK_METRIC}.
+ */
+public class RemoteChunkListenerContainer extends DefaultMessageListenerContainer implements MeterBinder {
+
+    public static final String CHUNK_METRIC = "elstar.send.remote.chunk";
+
+    private static final String DELIVERY_COUNT_PROPERTY = "JMSXDeliveryCount";
+
+    private final MessageConverter messageConverter;
+    private final ItemWriter<ElstarData> writer;
+    private final TransactionOperations transactionOperations;
+    private int maxDeliveries = 3;
+    private Timer chunkTimer;
+
+    public RemoteChunkListenerContainer(MessageConverter messageConverter,
+                                        ItemWriter<ElstarData> writer,
+                                        TransactionOperations transactionOperations) {
+        this.messageConverter = messageConverter;
+        this.writer = writer;
+        this.transactionOperations = transactionOperations;
+        setSessionTransacted(true);
+        setExposeListenerSession(true);
+        setMessageListener((SessionAwareMessageListener<Message>) this::handle);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        chunkTimer = Timer.builder(CHUNK_METRIC)
+                .description("Time to send and mark one chunk requested by the manager")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private void handle(Message request, Session session) throws JMSException {
+        int sequence = request.getIntProperty(RemoteChunkWriter.SEQUENCE_PROPERTY);
+        Message reply = session.createMessage();
+        reply.setLongProperty(RemoteChunkWriter.STEP_EXECUTION_PROPERTY,
+                request.getLongProperty(RemoteChunkWriter.STEP_EXECUTION_PROPERTY));
+        reply.setIntProperty(RemoteChunkWriter.SEQUENCE_PROPERTY, sequence);
+        int deliveries = request.propertyExists(DELIVERY_COUNT_PROPERTY)
+                ? request.getIntProperty(DELIVERY_COUNT_PROPERTY) : 1;
+        if (deliveries > maxDeliveries) {
+            logger.warn("Chunk request " + sequence + " failed on " + maxDeliveries + " deliveries, giving up");
+            reply.setStringProperty(RemoteChunkWriter.ERROR_PROPERTY, "failed on " + maxDeliveries
+                    + " deliveries, see the worker log");
+        } else {
+            long start = System.nanoTime();
+            // A failure rolls back the listener session and with it the sends of this delivery
+            List<ElstarData> items = items(request);
+            transactionOperations.executeWithoutResult(status -> write(items));
+            reply.setIntProperty(RemoteChunkWriter.ITEMS_PROPERTY, items.size());
+            if (chunkTimer != null) {
+                chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        MessageProducer producer = session.createProducer(request.getJMSReplyTo());
+        try {
+            producer.send(reply);
+        } finally {
+            JmsUtils.closeMessageProducer(producer);
+        }
+    }
+
+    /**
+     * Deliveries of a request that are written before it is answered as
+     * failed; defaults to 3.
+     */
+    public void setMaxDeliveries(int maxDeliveries) {
+        if (maxDeliveries < 1) {
+            throw new IllegalArgumentException("maxDeliveries must be at least 1");
+        }
+        this.maxDeliveries = maxDeliveries;
+    }
+
+    // The converted bundle with the row ids of the request
+    private List<ElstarData> items(Message request) throws JMSException {
+        Object converted = messageConverter.fromMessage(request);
+        List<ElstarData> items = new ArrayList<>();
+        if (converted instanceof List<?> list) {
+            for (Object item : list) {
+                items.add((ElstarData) item);
+            }
+        } else {
+            items.add((ElstarData) converted);
+        }
+        String ids = request.getStringProperty(RemoteChunkWriter.IDS_PROPERTY);
+        String[] idList = ids != null ? ids.split(",") : new String[0];
+        if (idList.length != items.size()) {
+            throw new IllegalArgumentException("Chunk request of " + items.size() + " documents lists "
+                    + idList.length + " ids");
+        }
+        for (int i = 0; i < idList.length; i++) {
+            items.get(i).setId(Long.valueOf(idList[i]));
+        }
+        return items;
+    }
+
+    private void write(List<ElstarData> items) {
+        try {
+            writer.write(new Chunk<>(items));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to write " + items.size() + " documents", e);
+        }
+    }
+}
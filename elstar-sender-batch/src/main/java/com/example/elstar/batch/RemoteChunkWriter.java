@@ -0,0 +1,240 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.entity.ElstarData;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.listener.StepExecutionListener;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.jms.connection.SingleConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Manager side of remote chunking: instead of sending a chunk to the partner
+ * queue itself, the step sends it as one request to {@code requestQueue},
+ * where a {@link RemoteChunkListenerContainer} on some worker node sends the
+ * documents and marks their rows. The request body is the bundle of the
+ * {@code ElstarDataMessageConverter}; the row ids travel in
+ * {@value #IDS_PROPERTY} because the bundle carries only UUIDs.
+ * <p>
+ * Every worker answers on {@code replyQueue} with the request's
+ * {@value #STEP_EXECUTION_PROPERTY} and {@value #SEQUENCE_PROPERTY}, and
+ * either {@value #ITEMS_PROPERTY} or {@value #ERROR_PROPERTY}. Each manager
+ * step receives the replies of its own step execution through one consumer,
+ * opened in {@link #beforeStep} on a connection of its own and closed in
+ * {@link #afterStep}. At most
+ * {@code maxInFlight} requests are unanswered; {@link #write} waits for
+ * replies beyond that, and {@link #afterStep} waits for the rest. A failed
+ * or missing reply fails the step. Replies to redelivered requests are
+ * counted once.
+ * <p>
+ * The counts are kept in the step {@link ExecutionContext} as
+ * {@value #SENT_KEY}, {@value #REPLIED_KEY} and {@value #WRITTEN_KEY}. Not
+ * thread-safe: the manager step has to run on one thread.
+ */
+public class RemoteChunkWriter implements ItemWriter<ElstarData>, StepExecutionListener {
+
+    public static final String STEP_EXECUTION_PROPERTY = "elstarChunkStepExecutionId";
+    public static final String SEQUENCE_PROPERTY = "elstarChunkSequence";
+    public static final String IDS_PROPERTY = "elstarChunkIds";
+    public static final String ITEMS_PROPERTY = "elstarChunkItems";
+    public static final String ERROR_PROPERTY = "elstarChunkError";
+
+    public static final String SENT_KEY = "remoteChunkWriter.sent";
+    public static final String REPLIED_KEY = "remoteChunkWriter.replied";
+    public static final String WRITTEN_KEY = "remoteChunkWriter.written";
+
+    private final JmsTemplate jmsTemplate;
+    private final String requestQueue;
+    private final String replyQueue;
+    private int maxInFlight = 8;
+    private long replyTimeout = 60_000;
+    private long stepExecutionId;
+    private int sent;
+    private int replied;
+    private long written;
+    private final BitSet repliedSequences = new BitSet();
+    private Connection replyConnection;
+    private MessageConsumer replyConsumer;
+
+    public RemoteChunkWriter(JmsTemplate jmsTemplate, String requestQueue, String replyQueue) {
+        this.jmsTemplate = jmsTemplate;
+        this.requestQueue = requestQueue;
+        this.replyQueue = replyQueue;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        stepExecutionId = stepExecution.getId();
+        sent = 0;
+        replied = 0;
+        written = 0;
+        repliedSequences.clear();
+        try {
+            openReplyConsumer();
+        } catch (JMSException e) {
+            closeReplyConsumer();
+            throw JmsUtils.convertJmsAccessException(e);
+        }
+    }
+
+    // Not from a caching connection factory, which would keep the consumer of every step open
+    private void openReplyConsumer() throws JMSException {
+        ConnectionFactory connectionFactory = jmsTemplate.getConnectionFactory();
+        if (connectionFactory instanceof SingleConnectionFactory single
+                && single.getTargetConnectionFactory() != null) {
+            connectionFactory = single.getTargetConnectionFactory();
+        }
+        replyConnection = connectionFactory.createConnection();
+        Session session = replyConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        replyConsumer = session.createConsumer(resolve(session, replyQueue),
+                STEP_EXECUTION_PROPERTY + " = " + stepExecutionId);
+        replyConnection.start();
+    }
+
+    private void closeReplyConsumer() {
+        JmsUtils.closeMessageConsumer(replyConsumer);
+        JmsUtils.closeConnection(replyConnection);
+        replyConsumer = null;
+        replyConnection = null;
+    }
+
+    @Override
+    public void write(Chunk<? extends ElstarData> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        receiveReplies(0);
+        while (sent - replied >= maxInFlight) {
+            if (!receiveReplies(replyTimeout)) {
+                throw new IllegalStateException("No reply to " + (sent - replied) + " chunk requests within "
+                        + replyTimeout + " ms");
+            }
+        }
+        List<ElstarData> items = new ArrayList<>(chunk.getItems());
+        StringJoiner ids = new StringJoiner(",");
+        for (ElstarData item : items) {
+            ids.add(String.valueOf(item.getId()));
+        }
+        int sequence = sent;
+        jmsTemplate.send(requestQueue, session -> {
+            Message request = jmsTemplate.getMessageConverter().toMessage(items, session);
+            request.setLongProperty(STEP_EXECUTION_PROPERTY, stepExecutionId);
+            request.setIntProperty(SEQUENCE_PROPERTY, sequence);
+            request.setStringProperty(IDS_PROPERTY, ids.toString());
+            request.setJMSReplyTo(resolve(session, replyQueue));
+            return request;
+        });
+        sent++;
+    }
+
+    /**
+     * Waits for the replies still outstanding; fails the step if one of them
+     * reports a failure or does not arrive within {@code replyTimeout}.
+     */
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        ExitStatus exitStatus = null;
+        if (stepExecution.getStatus() == BatchStatus.COMPLETED) {
+            try {
+                while (replied < sent) {
+                    if (!receiveReplies(replyTimeout)) {
+                        throw new IllegalStateException("No reply to " + (sent - replied) + " of " + sent
+                                + " chunk requests within " + replyTimeout + " ms");
+                    }
+                }
+            } catch (Exception e) {
+                stepExecution.addFailureException(e);
+                stepExecution.setStatus(BatchStatus.FAILED);
+                exitStatus = ExitStatus.FAILED.addExitDescription(e);
+            }
+        }
+        closeReplyConsumer();
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        executionContext.putInt(SENT_KEY, sent);
+        executionContext.putInt(REPLIED_KEY, replied);
+        executionContext.putLong(WRITTEN_KEY, written);
+        return exitStatus;
+    }
+
+    /**
+     * Receives the replies available now, waiting up to {@code timeout} ms for
+     * the first one if {@code timeout} is positive. Answers whether any new
+     * reply arrived and throws for a reply that reports a failure.
+     */
+    private boolean receiveReplies(long timeout) throws JMSException {
+        int before = replied;
+        Message reply = timeout > 0 ? replyConsumer.receive(timeout) : replyConsumer.receiveNoWait();
+        while (reply != null) {
+            int sequence = reply.getIntProperty(SEQUENCE_PROPERTY);
+            if (!repliedSequences.get(sequence)) {
+                repliedSequences.set(sequence);
+                replied++;
+                if (reply.propertyExists(ERROR_PROPERTY)) {
+                    throw new IllegalStateException("Chunk request " + sequence + " failed on a worker: "
+                            + reply.getStringProperty(ERROR_PROPERTY));
+                }
+                written += reply.getIntProperty(ITEMS_PROPERTY);
+            }
+            reply = replyConsumer.receiveNoWait();
+        }
+        return replied > before;
+    }
+
+    private Destination resolve(Session session, String destinationName) throws JMSException {
+        return jmsTemplate.getDestinationResolver()
+                .resolveDestinationName(session, destinationName, jmsTemplate.isPubSubDomain());
+    }
+
+    /**
+     * Requests that may be unanswered at a time; defaults to 8.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Milliseconds to wait for a reply before the step fails; defaults to 60000.
+     */
+    public void setReplyTimeout(long replyTimeout) {
+        this.replyTimeout = replyTimeout;
+    }
+
+    public int getSent() {
+        return sent;
+    }
+
+    public int getReplied() {
+        return replied;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public String getRequestQueue() {
+        return requestQueue;
+    }
+
+    public String getReplyQueue() {
+        return replyQueue;
+    }
+}
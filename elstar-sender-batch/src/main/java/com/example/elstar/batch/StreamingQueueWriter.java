@@ -0,0 +1,231 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.entity.ElstarData;
+import com.example.elstar.jms.BytesMessageOutputStream;
+import com.example.elstar.jms.PayloadCodec;
+import com.example.elstar.jms.Utf8BytesMessages;
+import com.example.elstar.jms.Utf8ReaderInputStream;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageFormatException;
+import jakarta.jms.Session;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+
+import javax.sql.DataSource;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * {@link QueueWriter} for items read without their payload: the XML of the
+ * whole chunk is fetched with one {@code WHERE id IN (...)} query and every
+ * CLOB is streamed as UTF-8 into a {@link BytesMessage} through buffers that
+ * are reused across the chunk. Messages are sent in id order. Payloads of at
+ * least the compression threshold are compressed on the fly.
+ * <p>
+ * A message body written through the JMS API is buffered whole by the
+ * provider. Payloads of at least {@value #BODY_STREAM_THRESHOLD} characters
+ * are therefore handed to the provider as an {@link InputStream} in the
+ * {@value #BODY_STREAM_PROPERTY} property, which Artemis reads while sending,
+ * so only the buffers are held per payload. That property is Artemis-only:
+ * other providers, IBM MQ among them, reject it with a
+ * {@link MessageFormatException}, as the JMS specification demands for
+ * non-primitive values, and get the body written into the message instead.
+ * A written body is held whole by the provider, so it is bounded by
+ * {@link #setMaxWrittenBodyBytes(long) maxWrittenBodyBytes}: a payload
+ * exceeding it fails the chunk as soon as the limit is passed.
+ */
+public class StreamingQueueWriter extends QueueWriter<ElstarData> {
+
+    /** Artemis-only property whose {@link InputStream} value becomes the body of a message while it is sent. */
+    public static final String BODY_STREAM_PROPERTY = "JMS_AMQ_InputStream";
+
+    /** Payload length in characters from which the body is streamed: Artemis' default large message size. */
+    public static final int BODY_STREAM_THRESHOLD = 100 * 1024;
+
+    /** Default bound of a written body: IBM MQ's default maximum message length of 4 MB. */
+    public static final long DEFAULT_MAX_WRITTEN_BODY_BYTES = 4L * 1024 * 1024;
+
+    private static final String PAYLOAD_QUERY =
+            "SELECT id, xml_nachricht, LENGTH(xml_nachricht) AS payload_length FROM elstar_daten"
+                    + " WHERE id IN (:ids) ORDER BY id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private int bufferSize = Utf8BytesMessages.DEFAULT_BUFFER_SIZE;
+    private PayloadCodec compression;
+    private int compressionThreshold;
+    private long maxWrittenBodyBytes = DEFAULT_MAX_WRITTEN_BODY_BYTES;
+    private volatile boolean bodyStreamSupported = true;
+
+    public StreamingQueueWriter(JmsTemplate jmsTemplate, String destinationName, DataSource dataSource) {
+        super(jmsTemplate, destinationName);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        setSessionPerChunk(true);
+    }
+
+    @Override
+    public void setSessionPerChunk(boolean sessionPerChunk) {
+        if (!sessionPerChunk) {
+            throw new IllegalArgumentException("StreamingQueueWriter always sends through one session per chunk");
+        }
+        super.setSessionPerChunk(true);
+    }
+
+    @Override
+    public void setBundling(int maxItems, long maxBytes, ToIntFunction<? super ElstarData> itemBytes) {
+        if (maxItems > 1) {
+            throw new IllegalArgumentException("StreamingQueueWriter streams every payload into its own message");
+        }
+    }
+
+    /**
+     * Number of characters (and bytes) buffered per payload; defaults to 8192.
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize < 4) {
+            throw new IllegalArgumentException("bufferSize must be at least 4");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Compresses payloads of at least {@code threshold} characters with
+     * {@code compression}; {@code null} sends every payload uncompressed.
+     */
+    public void setCompression(PayloadCodec compression, int threshold) {
+        this.compression = compression;
+        this.compressionThreshold = threshold;
+    }
+
+    /**
+     * Maximum number of bytes, after compression, written into a message body;
+     * 0 leaves written bodies unbounded. Streamed bodies are not bounded, as
+     * they are never held whole.
+     */
+    public void setMaxWrittenBodyBytes(long maxWrittenBodyBytes) {
+        if (maxWrittenBodyBytes < 0) {
+            throw new IllegalArgumentException("maxWrittenBodyBytes must not be negative");
+        }
+        this.maxWrittenBodyBytes = maxWrittenBodyBytes;
+    }
+
+    @Override
+    protected void send(Session session, MessageSender sender, Chunk<? extends ElstarData> chunk)
+            throws JMSException {
+        Map<Long, ElstarData> itemsById = new HashMap<>(chunk.size() * 2);
+        for (ElstarData item : chunk) {
+            itemsById.put(item.getId(), item);
+        }
+        char[] charBuffer = new char[bufferSize];
+        byte[] byteBuffer = new byte[bufferSize];
+        int[] sent = {0};
+        jdbcTemplate.query(PAYLOAD_QUERY, Map.of("ids", List.copyOf(itemsById.keySet())), rs -> {
+            ElstarData item = itemsById.get(rs.getLong("id"));
+            try {
+                BytesMessage message = session.createBytesMessage();
+                if (item.getUuid() != null) {
+                    message.setJMSCorrelationID(item.getUuid().toString());
+                }
+                // The payload stays open until the message is sent, as a streamed body is read by the send
+                try (Reader payload = rs.getCharacterStream("xml_nachricht")) {
+                    if (payload != null) {
+                        long payloadLength = rs.getLong("payload_length");
+                        PayloadCodec codec = compression != null && payloadLength >= compressionThreshold
+                                ? compression : null;
+                        if (codec != null) {
+                            message.setStringProperty(PayloadCodec.PROPERTY, codec.getPropertyValue());
+                        }
+                        if (payloadLength < BODY_STREAM_THRESHOLD
+                                || !streamBody(message, payload, codec, charBuffer, byteBuffer)) {
+                            writeBody(message, item.getId(), payload, codec, charBuffer, byteBuffer);
+                        }
+                    }
+                    sender.send(message);
+                }
+                sent[0]++;
+            } catch (JMSException e) {
+                throw JmsUtils.convertJmsAccessException(e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (sent[0] != itemsById.size()) {
+            throw new IncorrectResultSizeDataAccessException(
+                    "Payload missing for some ids of the chunk", itemsById.size(), sent[0]);
+        }
+    }
+
+    private boolean streamBody(BytesMessage message, Reader payload, PayloadCodec codec,
+                               char[] charBuffer, byte[] byteBuffer) throws JMSException, IOException {
+        if (!bodyStreamSupported) {
+            return false;
+        }
+        try {
+            message.setObjectProperty(BODY_STREAM_PROPERTY,
+                    new Utf8ReaderInputStream(payload, codec, charBuffer, byteBuffer));
+            return true;
+        } catch (MessageFormatException e) {
+            bodyStreamSupported = false;
+            return false;
+        }
+    }
+
+    private void writeBody(BytesMessage message, Long id, Reader payload, PayloadCodec codec,
+                           char[] charBuffer, byte[] byteBuffer) throws IOException {
+        OutputStream body = new BytesMessageOutputStream(message);
+        if (maxWrittenBodyBytes > 0) {
+            body = new BoundedOutputStream(body, maxWrittenBodyBytes, id);
+        }
+        try (OutputStream out = codec != null ? codec.compress(body) : body) {
+            Utf8BytesMessages.write(payload, out, charBuffer, byteBuffer);
+        }
+    }
+
+    /**
+     * Fails once more than {@code maxBytes} have been written, before the
+     * provider buffers them.
+     */
+    private static final class BoundedOutputStream extends FilterOutputStream {
+
+        private final long maxBytes;
+        private final Long id;
+        private long written;
+
+        BoundedOutputStream(OutputStream out, long maxBytes, Long id) {
+            super(out);
+            this.maxBytes = maxBytes;
+            this.id = id;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            count(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count(len);
+            out.write(b, off, len);
+        }
+
+        private void count(int bytes) throws IOException {
+            written += bytes;
+            if (written > maxBytes) {
+                throw new IOException("Message body of elstar_daten id " + id + " exceeds "
+                        + maxBytes + " bytes; the JMS provider does not accept streamed bodies");
+            }
+        }
+    }
+}
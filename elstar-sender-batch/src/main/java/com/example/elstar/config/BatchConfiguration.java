@@ -1,70 +1,209 @@
 package com.example.elstar.config;
 
+import com.example.elstar.batch.ElstarDataRowMapper;
+import com.example.elstar.batch.ElstarPayloadItemReader;
 import com.example.elstar.batch.QueueWriter;
+import com.example.elstar.batch.StreamingQueueWriter;
+import com.example.elstar.dto.ElstarPayload;
 import com.example.elstar.entity.ElstarData;
 import com.example.elstar.jms.ElstarDataMessageConverter;
-import com.example.elstar.repository.ElstarDataRepository;
+import com.example.elstar.jms.Utf8BytesMessages;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.persistence.EntityManagerFactory;
 import org.springframework.batch.core.job.Job;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.Step;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.infrastructure.item.data.RepositoryItemWriter;
-import org.springframework.batch.infrastructure.item.data.builder.RepositoryItemWriterBuilder;
+import org.springframework.batch.infrastructure.item.ItemReader;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.batch.infrastructure.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.infrastructure.item.database.JdbcPagingItemReader;
 import org.springframework.batch.infrastructure.item.database.JpaCursorItemReader;
+import org.springframework.batch.infrastructure.item.database.Order;
+import org.springframework.batch.infrastructure.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.infrastructure.item.database.builder.JdbcPagingItemReaderBuilder;
 import org.springframework.batch.infrastructure.item.database.builder.JpaCursorItemReaderBuilder;
 import org.springframework.batch.infrastructure.item.support.CompositeItemWriter;
 import org.springframework.batch.infrastructure.item.support.builder.CompositeItemWriterBuilder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @Configuration
 public class BatchConfiguration {
 
     @Value("${elstar.jms.queue-name:DEV.QUEUE.1}")
     private String queueName;
 
+    @Value("${elstar.jms.session-per-chunk:true}")
+    private boolean sessionPerChunk;
+
+    @Value("${elstar.jms.async.enabled:false}")
+    private boolean asyncSend;
+
+    @Value("${elstar.jms.async.max-in-flight:100}")
+    private int maxInFlight;
+
+    @Value("${elstar.jms.async.completion-timeout:30000}")
+    private long completionTimeout;
+
+    @Value("${elstar.jms.bundle.max-items:1}")
+    private int bundleMaxItems;
+
+    @Value("${elstar.jms.bundle.max-bytes:1048576}")
+    private long bundleMaxBytes;
+
+    @Value("${elstar.jms.payload-mode:text}")
+    private String payloadMode;
+
+    @Value("${elstar.jms.stream-buffer-size:8192}")
+    private int streamBufferSize;
+
+    @Value("${elstar.jms.stream-max-written-body-bytes:4194304}")
+    private long streamMaxWrittenBodyBytes;
+
+    @Value("${elstar.batch.read-mode:full}")
+    private String readMode;
+
+    @Value("${elstar.batch.page-size:100}")
+    private int pageSize;
+
+    @Value("${elstar.batch.fetch-size:100}")
+    private int fetchSize;
+
+    /**
+     * In streaming payload mode only id and uuid are read; the XML is streamed
+     * by {@link StreamingQueueWriter}.
+     */
     @Bean
     public JpaCursorItemReader<ElstarData> elstarDatenReader(EntityManagerFactory entityManagerFactory) {
         return new JpaCursorItemReaderBuilder<ElstarData>()
                 .name("elstarDatenReader")
                 .entityManagerFactory(entityManagerFactory)
-                .queryString("SELECT e FROM ElstarData e")
+                .queryString(isStreamingPayload()
+                        ? "SELECT new com.example.elstar.entity.ElstarData(e.id, e.uuid) FROM ElstarData e ORDER BY e.id"
+                        : "SELECT e FROM ElstarData e")
                 .build();
     }
 
+    /**
+     * Incremental reader: keyset pagination over unsent rows
+     * ({@code WHERE (status IS NULL OR status = 0) AND id > :lastId ORDER BY id}).
+     * The last read id is kept in the step ExecutionContext, so a restart resumes
+     * after the last committed chunk. Rows marked as sent are skipped by later runs.
+     */
+    @Bean
+    public JdbcPagingItemReader<ElstarData> elstarIncrementalReader(DataSource dataSource) throws Exception {
+        return new JdbcPagingItemReaderBuilder<ElstarData>()
+                .name("elstarIncrementalReader")
+                .dataSource(dataSource)
+                .selectClause(isStreamingPayload()
+                        ? "SELECT id, uuid, creation_date, status"
+                        : "SELECT id, uuid, xml_nachricht, creation_date, status")
+                .fromClause("FROM elstar_daten")
+                .whereClause("WHERE status IS NULL OR status = " + ElstarData.STATUS_PENDING)
+                .sortKeys(Map.of("id", Order.ASCENDING))
+                .pageSize(pageSize)
+                .rowMapper(new ElstarDataRowMapper(!isStreamingPayload()))
+                .build();
+    }
+
+    /**
+     * Projection reader: streams {@code (id, uuid, xmlNachricht)} records over a
+     * stateless session cursor, without a growing persistence context.
+     */
+    @Bean
+    public ElstarPayloadItemReader elstarPayloadReader(EntityManagerFactory entityManagerFactory) {
+        ElstarPayloadItemReader reader = new ElstarPayloadItemReader(entityManagerFactory);
+        reader.setFetchSize(fetchSize);
+        return reader;
+    }
+
     @Bean
     public JmsTemplate jmsTemplate(
             jakarta.jms.ConnectionFactory connectionFactory,
-            ElstarDataMessageConverter messageConverter) {
+            ElstarDataMessageConverter messageConverter,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        messageConverter.bindTo(registry(meterRegistry));
         JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
         jmsTemplate.setMessageConverter(messageConverter);
+        jmsTemplate.setSessionTransacted(sessionPerChunk);
         return jmsTemplate;
     }
 
     @Bean
-    public QueueWriter<ElstarData> queueWriter(JmsTemplate jmsTemplate) {
-        return new QueueWriter<>(jmsTemplate, queueName);
+    public QueueWriter<ElstarData> queueWriter(
+            JmsTemplate jmsTemplate,
+            ElstarDataMessageConverter messageConverter,
+            DataSource dataSource,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        QueueWriter<ElstarData> queueWriter;
+        if (isStreamingPayload()) {
+            StreamingQueueWriter streamingQueueWriter = new StreamingQueueWriter(jmsTemplate, queueName, dataSource);
+            streamingQueueWriter.setBufferSize(streamBufferSize);
+            streamingQueueWriter.setMaxWrittenBodyBytes(streamMaxWrittenBodyBytes);
+            streamingQueueWriter.setCompression(
+                    messageConverter.getCompression(), messageConverter.getCompressionThreshold());
+            queueWriter = streamingQueueWriter;
+        } else {
+            queueWriter = new QueueWriter<>(jmsTemplate, queueName);
+            queueWriter.setSessionPerChunk(sessionPerChunk);
+        }
+        if (asyncSend) {
+            queueWriter.setMaxInFlight(maxInFlight);
+            queueWriter.setCompletionTimeout(completionTimeout);
+        }
+        if (bundleMaxItems > 1) {
+            // Budget in encoded bytes: umlauts take two
+            queueWriter.setBundling(bundleMaxItems, bundleMaxBytes, item -> item.getXmlNachricht() != null
+                    ? (int) Math.min(Utf8BytesMessages.encodedLength(item.getXmlNachricht()), Integer.MAX_VALUE)
+                    : 0);
+        }
+        queueWriter.bindTo(registry(meterRegistry));
+        return queueWriter;
     }
 
+    /**
+     * Marks the chunk's rows as sent with one JDBC batch update by id. Only the
+     * status column is written, so the XML payload is never rewritten. The
+     * column also takes the partner results of the receiver, so only
+     * incremental runs, which read unsent rows only, use this writer.
+     */
     @Bean
-    public RepositoryItemWriter<ElstarData> repositoryItemWriter(ElstarDataRepository repository) {
-        return new  RepositoryItemWriterBuilder<ElstarData>()
-                .repository(repository)
-                .methodName("save")
+    public JdbcBatchItemWriter<ElstarData> sentStatusWriter(DataSource dataSource) {
+        return new JdbcBatchItemWriterBuilder<ElstarData>()
+                .dataSource(dataSource)
+                .sql("UPDATE elstar_daten SET status = " + ElstarData.STATUS_SENT + " WHERE id = :id")
+                .beanMapped()
                 .build();
     }
 
+    /**
+     * Sends the chunk; in incremental read mode also marks its rows as sent.
+     * Full, projection and partitioned runs leave {@code status} alone, so a
+     * re-send never overwrites a partner result the receiver has stored.
+     */
     @Bean
     public CompositeItemWriter<ElstarData> compositeWriter(
             QueueWriter<ElstarData> queueWriter,
-            RepositoryItemWriter<ElstarData> repositoryItemWriter) {
+            JdbcBatchItemWriter<ElstarData> sentStatusWriter) {
+        List<ItemWriter<? super ElstarData>> delegates = new ArrayList<>();
+        delegates.add(queueWriter);
+        if (isIncremental()) {
+            delegates.add(sentStatusWriter);
+        }
         return new CompositeItemWriterBuilder<ElstarData>()
-                .delegates(queueWriter, repositoryItemWriter)
+                .delegates(delegates)
                 .build();
     }
 
@@ -72,15 +211,40 @@ public class BatchConfiguration {
     public Step elstarStep(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
-            JpaCursorItemReader<ElstarData> reader,
+            JpaCursorItemReader<ElstarData> elstarDatenReader,
+            JdbcPagingItemReader<ElstarData> elstarIncrementalReader,
+            ElstarPayloadItemReader elstarPayloadReader,
             CompositeItemWriter<ElstarData> writer) {
+        if ("projection".equals(readMode)) {
+            return new StepBuilder("elstarStep", jobRepository)
+                    .<ElstarPayload, ElstarData>chunk(10)
+                    .transactionManager(transactionManager)
+                    .reader(elstarPayloadReader)
+                    .processor(ElstarPayload::toElstarData)
+                    .writer(writer)
+                    .build();
+        }
+        ItemReader<ElstarData> reader = isIncremental() ? elstarIncrementalReader : elstarDatenReader;
         return new StepBuilder("elstarStep", jobRepository)
                 .<ElstarData, ElstarData>chunk(10)
+                .transactionManager(transactionManager)
                 .reader(reader)
                 .writer(writer)
                 .build();
     }
 
+    private static MeterRegistry registry(ObjectProvider<MeterRegistry> meterRegistry) {
+        return meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    private boolean isIncremental() {
+        return "incremental".equals(readMode);
+    }
+
+    private boolean isStreamingPayload() {
+        return "streaming".equals(payloadMode);
+    }
+
     @Bean
     public Job elstarJob(JobRepository jobRepository, Step elstarStep) {
         return new JobBuilder("elstarJob", jobRepository)
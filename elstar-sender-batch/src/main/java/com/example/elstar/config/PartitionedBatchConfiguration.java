@@ -0,0 +1,108 @@
+package com.example.elstar.config;
+
+import com.example.elstar.batch.IdRangePartitioner;
+import com.example.elstar.entity.ElstarData;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.infrastructure.item.database.JpaCursorItemReader;
+import org.springframework.batch.infrastructure.item.database.builder.JpaCursorItemReaderBuilder;
+import org.springframework.batch.infrastructure.item.support.CompositeItemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Partitioned variant of {@code elstarJob}: {@code elstar_daten} is split into
+ * id ranges and every range is sent by its own worker step on a thread pool.
+ * Enabled with {@code elstar.batch.partition.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "elstar.batch.partition", name = "enabled", havingValue = "true")
+public class PartitionedBatchConfiguration {
+
+    @Value("${elstar.batch.partition.grid-size:4}")
+    private int gridSize;
+
+    @Value("${elstar.batch.partition.pool-size:4}")
+    private int poolSize;
+
+    @Value("${elstar.jms.payload-mode:text}")
+    private String payloadMode;
+
+    @Bean
+    public IdRangePartitioner elstarIdRangePartitioner(DataSource dataSource) {
+        return new IdRangePartitioner(dataSource);
+    }
+
+    @Bean
+    @StepScope
+    public JpaCursorItemReader<ElstarData> elstarPartitionReader(
+            EntityManagerFactory entityManagerFactory,
+            @Value("#{stepExecutionContext['minId']}") Long minId,
+            @Value("#{stepExecutionContext['maxId']}") Long maxId) {
+        return new JpaCursorItemReaderBuilder<ElstarData>()
+                .name("elstarPartitionReader")
+                .entityManagerFactory(entityManagerFactory)
+                .queryString("streaming".equals(payloadMode)
+                        ? "SELECT new com.example.elstar.entity.ElstarData(e.id, e.uuid) FROM ElstarData e"
+                                + " WHERE e.id BETWEEN :minId AND :maxId ORDER BY e.id"
+                        : "SELECT e FROM ElstarData e WHERE e.id BETWEEN :minId AND :maxId ORDER BY e.id")
+                .parameterValues(Map.of("minId", minId, "maxId", maxId))
+                .build();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor elstarPartitionTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(poolSize);
+        taskExecutor.setMaxPoolSize(poolSize);
+        taskExecutor.setThreadNamePrefix("elstar-partition-");
+        return taskExecutor;
+    }
+
+    @Bean
+    public Step elstarWorkerStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            JpaCursorItemReader<ElstarData> elstarPartitionReader,
+            CompositeItemWriter<ElstarData> writer) {
+        return new StepBuilder("elstarWorkerStep", jobRepository)
+                .<ElstarData, ElstarData>chunk(10)
+                .transactionManager(transactionManager)
+                .reader(elstarPartitionReader)
+                .writer(writer)
+                .build();
+    }
+
+    @Bean
+    public Step elstarPartitionedStep(
+            JobRepository jobRepository,
+            IdRangePartitioner partitioner,
+            Step elstarWorkerStep,
+            ThreadPoolTaskExecutor elstarPartitionTaskExecutor) {
+        return new StepBuilder("elstarPartitionedStep", jobRepository)
+                .partitioner("elstarWorkerStep", partitioner)
+                .step(elstarWorkerStep)
+                .gridSize(gridSize)
+                .taskExecutor(elstarPartitionTaskExecutor)
+                .build();
+    }
+
+    @Bean
+    public Job elstarPartitionedJob(JobRepository jobRepository, Step elstarPartitionedStep) {
+        return new JobBuilder("elstarPartitionedJob", jobRepository)
+                .start(elstarPartitionedStep)
+                .build();
+    }
+}
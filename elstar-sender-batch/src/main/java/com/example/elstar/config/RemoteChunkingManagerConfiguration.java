@@ -0,0 +1,96 @@
+package com.example.elstar.config;
+
+import com.example.elstar.batch.ElstarPayloadItemReader;
+import com.example.elstar.batch.RemoteChunkWriter;
+import com.example.elstar.dto.ElstarPayload;
+import com.example.elstar.entity.ElstarData;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.infrastructure.item.ItemReader;
+import org.springframework.batch.infrastructure.item.database.JdbcPagingItemReader;
+import org.springframework.batch.infrastructure.item.database.JpaCursorItemReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Manager node of remote chunking: {@code elstarRemoteChunkingJob} reads like
+ * {@code elstarJob} but hands every chunk to the worker nodes over
+ * {@code elstar.batch.remote.request-queue} and aggregates their replies.
+ * Enabled with {@code elstar.batch.remote.manager.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "elstar.batch.remote.manager", name = "enabled", havingValue = "true")
+public class RemoteChunkingManagerConfiguration {
+
+    @Value("${elstar.batch.remote.request-queue:ELSTAR.CHUNK.REQUEST}")
+    private String requestQueue;
+
+    @Value("${elstar.batch.remote.reply-queue:ELSTAR.CHUNK.REPLY}")
+    private String replyQueue;
+
+    @Value("${elstar.batch.remote.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${elstar.batch.remote.max-in-flight:8}")
+    private int maxInFlight;
+
+    @Value("${elstar.batch.remote.reply-timeout:60000}")
+    private long replyTimeout;
+
+    @Value("${elstar.batch.read-mode:full}")
+    private String readMode;
+
+    @Bean
+    public RemoteChunkWriter elstarRemoteChunkWriter(JmsTemplate jmsTemplate) {
+        RemoteChunkWriter writer = new RemoteChunkWriter(jmsTemplate, requestQueue, replyQueue);
+        writer.setMaxInFlight(maxInFlight);
+        writer.setReplyTimeout(replyTimeout);
+        return writer;
+    }
+
+    /**
+     * Uses the reader of {@code elstar.batch.read-mode}. The writer is also
+     * registered as step listener, which waits for the last replies.
+     */
+    @Bean
+    public Step elstarManagerStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            JpaCursorItemReader<ElstarData> elstarDatenReader,
+            JdbcPagingItemReader<ElstarData> elstarIncrementalReader,
+            ElstarPayloadItemReader elstarPayloadReader,
+            RemoteChunkWriter elstarRemoteChunkWriter) {
+        if ("projection".equals(readMode)) {
+            return new StepBuilder("elstarManagerStep", jobRepository)
+                    .<ElstarPayload, ElstarData>chunk(chunkSize)
+                    .transactionManager(transactionManager)
+                    .reader(elstarPayloadReader)
+                    .processor(ElstarPayload::toElstarData)
+                    .writer(elstarRemoteChunkWriter)
+                    .listener(elstarRemoteChunkWriter)
+                    .build();
+        }
+        ItemReader<ElstarData> reader = "incremental".equals(readMode) ? elstarIncrementalReader : elstarDatenReader;
+        return new StepBuilder("elstarManagerStep", jobRepository)
+                .<ElstarData, ElstarData>chunk(chunkSize)
+                .transactionManager(transactionManager)
+                .reader(reader)
+                .writer(elstarRemoteChunkWriter)
+                .listener(elstarRemoteChunkWriter)
+                .build();
+    }
+
+    @Bean
+    public Job elstarRemoteChunkingJob(JobRepository jobRepository, Step elstarManagerStep) {
+        return new JobBuilder("elstarRemoteChunkingJob", jobRepository)
+                .start(elstarManagerStep)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.elstar.config;
+
+import com.example.elstar.batch.RemoteChunkListenerContainer;
+import com.example.elstar.entity.ElstarData;
+import com.example.elstar.jms.ElstarDataMessageConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.jms.ConnectionFactory;
+import org.springframework.batch.infrastructure.item.support.CompositeItemWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Worker node of remote chunking: consumes the chunk requests of
+ * {@code elstarRemoteChunkingJob} and sends and marks them through the
+ * {@code compositeWriter}, configured by the same {@code elstar.jms.*} and
+ * {@code elstar.batch.read-mode} properties as {@code elstarJob}; rows are
+ * marked as sent in incremental read mode only. Enabled with
+ * {@code elstar.batch.remote.worker.enabled=true}; a node may be manager and
+ * worker at once.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "elstar.batch.remote.worker", name = "enabled", havingValue = "true")
+public class RemoteChunkingWorkerConfiguration {
+
+    @Value("${elstar.batch.remote.request-queue:ELSTAR.CHUNK.REQUEST}")
+    private String requestQueue;
+
+    @Value("${elstar.batch.remote.worker.concurrency:1}")
+    private String concurrency;
+
+    @Value("${elstar.batch.remote.worker.max-deliveries:3}")
+    private int maxDeliveries;
+
+    @Bean
+    public RemoteChunkListenerContainer elstarChunkWorkerContainer(
+            ConnectionFactory connectionFactory,
+            ElstarDataMessageConverter messageConverter,
+            CompositeItemWriter<ElstarData> compositeWriter,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        RemoteChunkListenerContainer container = new RemoteChunkListenerContainer(
+                messageConverter, compositeWriter, new TransactionTemplate(transactionManager));
+        container.setConnectionFactory(connectionFactory);
+        container.setDestinationName(requestQueue);
+        container.setConcurrency(concurrency);
+        container.setMaxDeliveries(maxDeliveries);
+        container.bindTo(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        return container;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.elstar.dto;
+
+import com.example.elstar.entity.ElstarData;
+
+import java.util.UUID;
+
+/**
+ * The columns the send path needs from {@code elstar_daten}, read without a
+ * persistence context.
+ */
+public record ElstarPayload(Long id, UUID uuid, String xmlNachricht) {
+
+    /**
+     * Detached {@link ElstarData} for the queue and status writers.
+     */
+    public ElstarData toElstarData() {
+        ElstarData elstarData = new ElstarData(id, uuid);
+        elstarData.setXmlNachricht(xmlNachricht);
+        return elstarData;
+    }
+}
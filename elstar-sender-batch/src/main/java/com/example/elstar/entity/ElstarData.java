@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
 import jakarta.persistence.Table;
 
@@ -12,14 +13,24 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "elstar_daten")
+@Table(name = "elstar_daten", indexes = {
+        @Index(name = "ux_elstar_daten_uuid", columnList = "uuid", unique = true),
+        @Index(name = "idx_elstar_daten_status_id", columnList = "status, id")
+})
 public class ElstarData {
 
+    /** Initial status; rows with this status (or none) have not been sent yet. */
+    public static final int STATUS_PENDING = 0;
+
+    /** Set once the row was sent; outside the partner result codes that overwrite it later. */
+    public static final int STATUS_SENT = 10;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "uuid", unique = true, nullable = false)
+    /** Hibernate's default UUID mapping: the native UUID type, or BINARY(16) on databases without one. */
+    @Column(name = "uuid", nullable = false)
     private UUID uuid;
 
     @Lob
@@ -38,6 +49,14 @@ public class ElstarData {
         this.xmlNachricht = xmlNachricht;
     }
 
+    /**
+     * Projection without the XML payload, used by the streaming payload mode.
+     */
+    public ElstarData(Long id, UUID uuid) {
+        this.id = id;
+        this.uuid = uuid;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,49 @@
+package com.example.elstar.jms;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link InputStream} reading the body of a received {@link BytesMessage}.
+ */
+public class BytesMessageInputStream extends InputStream {
+
+    private final BytesMessage message;
+    private final byte[] single = new byte[1];
+    private byte[] buffer = new byte[0];
+
+    public BytesMessageInputStream(BytesMessage message) {
+        this.message = message;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        try {
+            if (off == 0) {
+                return message.readBytes(b, len);
+            }
+            // BytesMessage cannot read at an offset
+            if (buffer.length < len) {
+                buffer = new byte[len];
+            }
+            int read = message.readBytes(buffer, len);
+            if (read > 0) {
+                System.arraycopy(buffer, 0, b, off, read);
+            }
+            return read;
+        } catch (JMSException e) {
+            throw new IOException(e);
+        }
+    }
+}
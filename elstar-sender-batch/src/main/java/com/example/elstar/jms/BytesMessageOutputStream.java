@@ -0,0 +1,38 @@
+package com.example.elstar.jms;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link OutputStream} writing into the body of a {@link BytesMessage}.
+ * Closing the stream does not affect the message.
+ */
+public class BytesMessageOutputStream extends OutputStream {
+
+    private final BytesMessage message;
+
+    public BytesMessageOutputStream(BytesMessage message) {
+        this.message = message;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        try {
+            message.writeByte((byte) b);
+        } catch (JMSException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        try {
+            message.writeBytes(b, off, len);
+        } catch (JMSException e) {
+            throw new IOException(e);
+        }
+    }
+}
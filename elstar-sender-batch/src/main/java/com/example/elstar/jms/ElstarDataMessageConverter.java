@@ -1,59 +1,293 @@
 package com.example.elstar.jms;
 
 import com.example.elstar.entity.ElstarData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.jms.BytesMessage;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.Session;
 import jakarta.jms.TextMessage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.support.converter.MessageConversionException;
 import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.stereotype.Component;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * Converts one {@link ElstarData} to a message with the UUID as correlation
+ * ID and the XML as body, and a {@code List} of them to one bundle message.
+ * <p>
+ * A bundle is a {@link BytesMessage} whose int property {@value #BUNDLE_COUNT_PROPERTY}
+ * holds the number of documents and whose string property {@value #BUNDLE_UUIDS_PROPERTY}
+ * lists their UUIDs, comma-separated and empty for a document without one. The
+ * body holds every document as the int length of its UTF-8 bytes ({@code -1}
+ * for none) followed by those bytes; it is compressed as a whole once the
+ * documents reach the compression threshold together. {@code fromMessage}
+ * answers a {@code List<ElstarData>} for a bundle.
+ */
 @Component
-public class ElstarDataMessageConverter implements MessageConverter {
+public class ElstarDataMessageConverter implements MessageConverter, MeterBinder {
+
+    /** Counter of messages that could not be converted, tagged with converter and operation. */
+    public static final String FAILURE_METRIC = "elstar.jms.conversion.failures";
+
+    /** JMS int property with the number of documents of a bundle; absent on single documents. */
+    public static final String BUNDLE_COUNT_PROPERTY = "elstarBundleCount";
+
+    /** JMS string property with the comma-separated UUIDs of a bundle's documents. */
+    public static final String BUNDLE_UUIDS_PROPERTY = "elstarBundleUuids";
+
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 4096;
+
+    // Length of a UUID in its canonical form
+    private static final int UUID_LENGTH = 36;
+
+    private PayloadCodec compression;
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+    private Counter toMessageFailures;
+    private Counter fromMessageFailures;
+
+    /**
+     * Codec for payloads of at least {@link #setCompressionThreshold(int) threshold}
+     * characters: {@code none} (default), {@code gzip} or {@code deflate}.
+     */
+    @Value("${elstar.jms.compression:none}")
+    public void setCompression(String compression) {
+        this.compression = PayloadCodec.fromPropertyValue(compression);
+    }
+
+    public PayloadCodec getCompression() {
+        return compression;
+    }
+
+    @Value("${elstar.jms.compression-threshold:" + DEFAULT_COMPRESSION_THRESHOLD + "}")
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        toMessageFailures = failureCounter(registry, "toMessage");
+        fromMessageFailures = failureCounter(registry, "fromMessage");
+    }
 
     @Override
     public Message toMessage(Object object, Session session) throws JMSException, MessageConversionException {
+        try {
+            return createMessage(object, session);
+        } catch (MessageConversionException e) {
+            increment(toMessageFailures);
+            throw e;
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        try {
+            return extractElstarData(message);
+        } catch (MessageConversionException e) {
+            increment(fromMessageFailures);
+            throw e;
+        }
+    }
+
+    private Message createMessage(Object object, Session session) throws JMSException {
+        if (object instanceof List<?> documents) {
+            return createBundle(documents, session);
+        }
         if (!(object instanceof ElstarData)) {
             throw new MessageConversionException("Expected ElstarData but got: " +
                     (object != null ? object.getClass().getName() : "null"));
         }
 
         ElstarData elstarData = (ElstarData) object;
-        TextMessage textMessage = session.createTextMessage();
+        String xmlNachricht = elstarData.getXmlNachricht();
+        Message message;
 
-        textMessage.setText(elstarData.getXmlNachricht());
+        if (compression != null && xmlNachricht != null && xmlNachricht.length() >= compressionThreshold) {
+            message = compress(xmlNachricht, session);
+        } else {
+            TextMessage textMessage = session.createTextMessage();
+            textMessage.setText(xmlNachricht);
+            message = textMessage;
+        }
 
         if (elstarData.getUuid() != null) {
-            textMessage.setJMSCorrelationID(elstarData.getUuid().toString());
+            message.setJMSCorrelationID(elstarData.getUuid().toString());
         }
 
-        return textMessage;
+        return message;
     }
 
-    @Override
-    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
-        if (!(message instanceof TextMessage)) {
-            throw new MessageConversionException("Expected TextMessage but got: " +
-                    message.getClass().getName());
+    private BytesMessage createBundle(List<?> documents, Session session) throws JMSException {
+        StringBuilder uuids = new StringBuilder(documents.size() * (UUID_LENGTH + 1));
+        long chars = 0;
+        for (Object document : documents) {
+            if (!(document instanceof ElstarData elstarData)) {
+                throw new MessageConversionException("Expected ElstarData in bundle but got: " +
+                        (document != null ? document.getClass().getName() : "null"));
+            }
+            if (!uuids.isEmpty()) {
+                uuids.append(',');
+            }
+            if (elstarData.getUuid() != null) {
+                uuids.append(elstarData.getUuid());
+            }
+            chars += elstarData.getXmlNachricht() != null ? elstarData.getXmlNachricht().length() : 0;
+        }
+
+        BytesMessage bytesMessage = session.createBytesMessage();
+        PayloadCodec codec = compression != null && chars >= compressionThreshold ? compression : null;
+        OutputStream body = new BytesMessageOutputStream(bytesMessage);
+        try (DataOutputStream out = new DataOutputStream(codec != null ? codec.compress(body) : body)) {
+            for (Object document : documents) {
+                String xmlNachricht = ((ElstarData) document).getXmlNachricht();
+                if (xmlNachricht == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] bytes = xmlNachricht.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        } catch (IOException e) {
+            throw Utf8BytesMessages.unwrap(e);
+        }
+        bytesMessage.setIntProperty(BUNDLE_COUNT_PROPERTY, documents.size());
+        bytesMessage.setStringProperty(BUNDLE_UUIDS_PROPERTY, uuids.toString());
+        if (codec != null) {
+            bytesMessage.setStringProperty(PayloadCodec.PROPERTY, codec.getPropertyValue());
         }
+        return bytesMessage;
+    }
 
-        TextMessage textMessage = (TextMessage) message;
+    private Object extractElstarData(Message message) throws JMSException {
+        if (message.propertyExists(BUNDLE_COUNT_PROPERTY)) {
+            return extractBundle(message);
+        }
         ElstarData elstarData = new ElstarData();
 
-        elstarData.setXmlNachricht(textMessage.getText());
+        if (message instanceof TextMessage textMessage) {
+            elstarData.setXmlNachricht(textMessage.getText());
+        } else if (message instanceof BytesMessage bytesMessage) {
+            // Streaming payload mode or compressed payload: UTF-8 encoded XML
+            elstarData.setXmlNachricht(decode(bytesMessage));
+        } else {
+            throw new MessageConversionException("Expected TextMessage or BytesMessage but got: " +
+                    message.getClass().getName());
+        }
+
+        elstarData.setUuid(uuidOrNull(message.getJMSCorrelationID()));
+
+        return elstarData;
+    }
+
+    private BytesMessage compress(String xmlNachricht, Session session) throws JMSException {
+        BytesMessage bytesMessage = session.createBytesMessage();
+        try (Writer writer = new OutputStreamWriter(
+                compression.compress(new BytesMessageOutputStream(bytesMessage)), StandardCharsets.UTF_8)) {
+            writer.write(xmlNachricht);
+        } catch (IOException e) {
+            throw Utf8BytesMessages.unwrap(e);
+        }
+        bytesMessage.setStringProperty(PayloadCodec.PROPERTY, compression.getPropertyValue());
+        return bytesMessage;
+    }
+
+    private List<ElstarData> extractBundle(Message message) throws JMSException {
+        if (!(message instanceof BytesMessage bytesMessage)) {
+            throw new MessageConversionException("Expected BytesMessage for bundle but got: " +
+                    message.getClass().getName());
+        }
+        int count = bytesMessage.getIntProperty(BUNDLE_COUNT_PROPERTY);
+        String uuidList = bytesMessage.getStringProperty(BUNDLE_UUIDS_PROPERTY);
+        String[] uuids = uuidList != null ? uuidList.split(",", -1) : new String[0];
+        if (count < 0 || count > 0 && uuids.length != count) {
+            throw new MessageConversionException("Bundle of " + count + " documents lists " + uuids.length
+                    + " UUIDs");
+        }
 
-        String correlationId = textMessage.getJMSCorrelationID();
-        if (correlationId != null && !correlationId.isEmpty()) {
-            try {
-                elstarData.setUuid(UUID.fromString(correlationId));
-            } catch (IllegalArgumentException e) {
-                // Correlation ID is not a valid UUID, leave uuid as null
+        PayloadCodec codec = codec(bytesMessage);
+        List<ElstarData> documents = new ArrayList<>(count);
+        InputStream body = new BytesMessageInputStream(bytesMessage);
+        try (DataInputStream in = new DataInputStream(codec != null ? codec.decompress(body) : body)) {
+            for (int i = 0; i < count; i++) {
+                ElstarData elstarData = new ElstarData();
+                int length = in.readInt();
+                if (length >= 0) {
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    elstarData.setXmlNachricht(new String(bytes, StandardCharsets.UTF_8));
+                }
+                elstarData.setUuid(uuidOrNull(uuids[i]));
+                documents.add(elstarData);
             }
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not read bundle of " + count + " documents", e);
         }
+        return documents;
+    }
 
-        return elstarData;
+    private String decode(BytesMessage bytesMessage) throws JMSException {
+        PayloadCodec codec = codec(bytesMessage);
+        if (codec == null) {
+            return Utf8BytesMessages.read(bytesMessage);
+        }
+        try (InputStream in = codec.decompress(new BytesMessageInputStream(bytesMessage))) {
+            return Utf8BytesMessages.read(in, bytesMessage.getBodyLength());
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not decompress " + codec.getPropertyValue() + " payload", e);
+        }
+    }
+
+    // A correlation ID that is not a valid UUID leaves uuid as null
+    private static UUID uuidOrNull(String correlationId) {
+        if (correlationId == null || correlationId.isEmpty()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(correlationId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static PayloadCodec codec(BytesMessage bytesMessage) throws JMSException {
+        try {
+            return PayloadCodec.fromPropertyValue(bytesMessage.getStringProperty(PayloadCodec.PROPERTY));
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException(e.getMessage(), e);
+        }
+    }
+
+    private static Counter failureCounter(MeterRegistry registry, String operation) {
+        return Counter.builder(FAILURE_METRIC)
+                .description("Messages that could not be converted")
+                .tag("converter", "elstarData")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
     }
 }
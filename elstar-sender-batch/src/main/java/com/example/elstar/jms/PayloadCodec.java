@@ -0,0 +1,100 @@
+package com.example.elstar.jms;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression codecs for message payloads. The codec of a compressed message
+ * is named in the {@value #PROPERTY} string property; messages without it are
+ * uncompressed.
+ */
+public enum PayloadCodec {
+
+    /** gzip at the default deflate level; readable with standard tools. */
+    GZIP("gzip") {
+        @Override
+        public OutputStream compress(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+    },
+
+    /** Raw zlib stream at {@link Deflater#BEST_SPEED}: cheaper to encode, slightly larger output. */
+    DEFLATE("deflate") {
+        @Override
+        public OutputStream compress(OutputStream out) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deflater.end();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream in) {
+            Inflater inflater = new Inflater();
+            return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        }
+    };
+
+    /** JMS string property naming the codec of a compressed payload. */
+    public static final String PROPERTY = "elstarCodec";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String propertyValue;
+
+    PayloadCodec(String propertyValue) {
+        this.propertyValue = propertyValue;
+    }
+
+    public String getPropertyValue() {
+        return propertyValue;
+    }
+
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * Resolves a configuration or property value; {@code null}, empty and
+     * {@code none} mean uncompressed and yield {@code null}.
+     */
+    public static PayloadCodec fromPropertyValue(String value) {
+        if (value == null || value.isEmpty() || "none".equalsIgnoreCase(value)) {
+            return null;
+        }
+        for (PayloadCodec codec : values()) {
+            if (codec.propertyValue.equalsIgnoreCase(value)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payload codec: " + value);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.elstar.jms;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes character payloads as UTF-8 into a {@link BytesMessage} and back,
+ * going through fixed-size buffers instead of materializing the payload as a
+ * {@code String} or {@code byte[]}.
+ */
+public final class Utf8BytesMessages {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private Utf8BytesMessages() {
+    }
+
+    /**
+     * Streams all characters of {@code reader} into {@code message} as UTF-8.
+     *
+     * @see #write(Reader, OutputStream, char[], byte[])
+     */
+    public static long write(Reader reader, BytesMessage message, char[] charBuffer, byte[] byteBuffer)
+            throws IOException, JMSException {
+        try {
+            return write(reader, new BytesMessageOutputStream(message), charBuffer, byteBuffer);
+        } catch (IOException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Streams all characters of {@code reader} into {@code out} as UTF-8. The
+     * caller owns both buffers and may reuse them for the next payload; the byte
+     * buffer must hold at least four bytes.
+     *
+     * @return number of bytes written
+     */
+    public static long write(Reader reader, OutputStream out, char[] charBuffer, byte[] byteBuffer)
+            throws IOException {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.wrap(charBuffer);
+        ByteBuffer bytes = ByteBuffer.wrap(byteBuffer);
+        long written = 0;
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            int read = reader.read(charBuffer, chars.position(), chars.remaining());
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                chars.position(chars.position() + read);
+            }
+            chars.flip();
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isOverflow()) {
+                    written += drain(bytes, out);
+                }
+            } while (result.isOverflow());
+            chars.compact();
+        }
+        while (encoder.flush(bytes).isOverflow()) {
+            written += drain(bytes, out);
+        }
+        return written + drain(bytes, out);
+    }
+
+    /**
+     * Number of bytes {@link #write} produces for {@code text}, counted without
+     * encoding it. An unpaired surrogate counts as its one-byte replacement.
+     */
+    public static long encodedLength(CharSequence text) {
+        long length = 0;
+        int count = text.length();
+        for (int i = 0; i < count; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Decodes the UTF-8 body of {@code message} into a {@code String}.
+     */
+    public static String read(BytesMessage message) throws JMSException {
+        try {
+            return read(new BytesMessageInputStream(message), message.getBodyLength());
+        } catch (IOException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Decodes UTF-8 from {@code in} into a {@code String}; {@code sizeHint} only
+     * presizes the result.
+     */
+    public static String read(InputStream in, long sizeHint) throws IOException {
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        StringBuilder text = new StringBuilder((int) Math.min(sizeHint, Integer.MAX_VALUE - 8));
+        char[] buffer = new char[DEFAULT_BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            text.append(buffer, 0, read);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns the {@link JMSException} behind an I/O failure of the message streams.
+     */
+    static JMSException unwrap(IOException e) {
+        if (e.getCause() instanceof JMSException jmsException) {
+            return jmsException;
+        }
+        JMSException jmsException = new JMSException(e.getMessage());
+        jmsException.setLinkedException(e);
+        jmsException.initCause(e);
+        return jmsException;
+    }
+
+    private static int drain(ByteBuffer bytes, OutputStream out) throws IOException {
+        int length = bytes.position();
+        if (length > 0) {
+            out.write(bytes.array(), 0, length);
+            bytes.clear();
+        }
+        return length;
+    }
+}
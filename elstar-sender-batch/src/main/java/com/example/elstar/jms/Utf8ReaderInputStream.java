@@ -0,0 +1,122 @@
+package com.example.elstar.jms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link InputStream} of the UTF-8 bytes of a {@link Reader}, compressed with
+ * a {@link PayloadCodec} or not. Characters are read, encoded and compressed
+ * one buffer at a time as the stream is read, so neither the text nor its
+ * bytes are ever held as a whole. The caller owns both buffers and may reuse
+ * them once the stream is exhausted; the byte buffer must hold at least four
+ * bytes. Closing the stream closes the reader.
+ */
+public class Utf8ReaderInputStream extends InputStream {
+
+    private final Reader reader;
+    private final char[] charBuffer;
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final PendingBytes pending = new PendingBytes();
+    private final OutputStream out;
+    private int position;
+    private boolean endOfInput;
+
+    public Utf8ReaderInputStream(Reader reader, PayloadCodec codec, char[] charBuffer, byte[] byteBuffer)
+            throws IOException {
+        this.reader = reader;
+        this.charBuffer = charBuffer;
+        this.chars = CharBuffer.wrap(charBuffer);
+        this.bytes = ByteBuffer.wrap(byteBuffer);
+        this.out = codec != null ? codec.compress(pending) : pending;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (position == pending.size()) {
+            if (endOfInput) {
+                return -1;
+            }
+            pending.reset();
+            position = 0;
+            fill();
+        }
+        int read = Math.min(len, pending.size() - position);
+        System.arraycopy(pending.buffer(), position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            reader.close();
+        }
+    }
+
+    // Encodes the next buffer of characters into pending, and finishes the stream at the end of the input
+    private void fill() throws IOException {
+        int read = reader.read(charBuffer, chars.position(), chars.remaining());
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            chars.position(chars.position() + read);
+        }
+        chars.flip();
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                drain();
+            }
+        } while (result.isOverflow());
+        chars.compact();
+        if (endOfInput) {
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+            drain();
+            out.close();
+        } else {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (bytes.position() > 0) {
+            out.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
+        }
+    }
+
+    // Bytes encoded but not read yet; bounded by what one buffer of characters encodes and compresses to
+    private static final class PendingBytes extends ByteArrayOutputStream {
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
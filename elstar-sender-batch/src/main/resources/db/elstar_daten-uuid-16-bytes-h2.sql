@@ -0,0 +1,19 @@
+-- Migrates elstar_daten.uuid to the 16-byte layout of ElstarData: a UUID column
+-- (BINARY(16) on databases without a UUID type) with the unique index ux_elstar_daten_uuid.
+--
+-- Works from a textual column (CHAR(36)/VARCHAR(36) holding the canonical form) and from
+-- a UUID column whose unique constraint has a generated name. H2 version; PostgreSQL uses
+-- elstar_daten-uuid-16-bytes-postgresql.sql. Run once with both jobs stopped.
+
+ALTER TABLE elstar_daten ADD COLUMN uuid_16 UUID;
+
+UPDATE elstar_daten SET uuid_16 = CAST(uuid AS UUID);
+
+-- Drops the old column together with its unique constraint and index
+ALTER TABLE elstar_daten DROP COLUMN uuid;
+
+ALTER TABLE elstar_daten ALTER COLUMN uuid_16 RENAME TO uuid;
+
+ALTER TABLE elstar_daten ALTER COLUMN uuid SET NOT NULL;
+
+CREATE UNIQUE INDEX ux_elstar_daten_uuid ON elstar_daten (uuid);
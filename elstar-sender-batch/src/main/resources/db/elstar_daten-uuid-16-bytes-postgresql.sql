@@ -0,0 +1,36 @@
+-- Migrates elstar_daten.uuid to the 16-byte layout of ElstarData: a native UUID column
+-- with the unique constraint ux_elstar_daten_uuid, as Hibernate creates it.
+--
+-- Works from a textual column (CHAR(36)/VARCHAR(36)/TEXT holding the canonical form) and from
+-- a UUID column whose unique constraint has a generated name (elstar_daten_uuid_key, UK...).
+-- PostgreSQL version, run with psql; H2 uses elstar_daten-uuid-16-bytes-h2.sql.
+-- Run once with both jobs stopped; the type change rewrites the table.
+
+BEGIN;
+
+-- Drops every single-column unique constraint on uuid, whatever its name
+DO $$
+DECLARE
+    constraint_name name;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'elstar_daten'::regclass
+          AND c.contype = 'u'
+          AND cardinality(c.conkey) = 1
+          AND a.attname = 'uuid'
+    LOOP
+        EXECUTE format('ALTER TABLE elstar_daten DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END
+$$;
+
+ALTER TABLE elstar_daten ALTER COLUMN uuid TYPE UUID USING uuid::uuid;
+
+ALTER TABLE elstar_daten ALTER COLUMN uuid SET NOT NULL;
+
+ALTER TABLE elstar_daten ADD CONSTRAINT ux_elstar_daten_uuid UNIQUE (uuid);
+
+COMMIT;
@@ -0,0 +1,171 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.TestBatchApplication;
+import com.example.elstar.dto.ElstarPayload;
+import com.example.elstar.entity.ElstarData;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
+import org.springframework.batch.infrastructure.item.database.JpaCursorItemReader;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TestBatchApplication.class, properties = "elstar.batch.read-mode=projection")
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ElstarPayloadItemReaderTest {
+
+    private static final Log logger = LogFactory.getLog(ElstarPayloadItemReaderTest.class);
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private ElstarPayloadItemReader elstarPayloadReader;
+
+    @Autowired
+    private JpaCursorItemReader<ElstarData> elstarDatenReader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JmsTemplate jmsTemplate;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    @BeforeEach
+    void clearQueue() {
+        drainQueue();
+    }
+
+    @Test
+    void testReaderStreamsProjectionInIdOrder() throws Exception {
+        elstarPayloadReader.open(new ExecutionContext());
+        ElstarPayload first = elstarPayloadReader.read();
+        List<Long> ids = new ArrayList<>(List.of(first.id()));
+        ElstarPayload item;
+        while ((item = elstarPayloadReader.read()) != null) {
+            ids.add(item.id());
+        }
+        elstarPayloadReader.close();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids);
+        assertEquals(UUID.fromString("a1b2c3d4-e5f6-7890-abcd-ef1234567890"), first.uuid());
+        assertEquals("<ElstarDaten><PersonalNr>12345</PersonalNr><Steuerklasse>1</Steuerklasse></ElstarDaten>",
+                first.xmlNachricht());
+    }
+
+    @Test
+    void testReaderResumesFromExecutionContext() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        elstarPayloadReader.open(executionContext);
+        elstarPayloadReader.read();
+        elstarPayloadReader.read();
+        elstarPayloadReader.update(executionContext);
+        elstarPayloadReader.close();
+
+        elstarPayloadReader.open(executionContext);
+        ElstarPayload next = elstarPayloadReader.read();
+        elstarPayloadReader.close();
+
+        assertEquals(3L, next.id());
+    }
+
+    @Test
+    void testProjectionJobSendsAllRowsAndKeepsTheirStatus() throws Exception {
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertEquals(5, drainQueue());
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM elstar_daten WHERE status = " + ElstarData.STATUS_PENDING, Integer.class));
+    }
+
+    @Test
+    @Tag("performance")
+    void testReportHeapGrowthAgainstJpaCursorReader() throws Exception {
+        int rows = Integer.getInteger("elstar.perf.rows", 200_000);
+        jdbcTemplate.update("DELETE FROM elstar_daten");
+        seedRows(rows);
+
+        long jpaGrowth = maxHeapGrowth(elstarDatenReader, rows);
+        long projectionGrowth = maxHeapGrowth(elstarPayloadReader, rows);
+
+        logger.info(String.format("Scan of %d rows, max retained heap growth: JpaCursorItemReader = %d MB, "
+                        + "ElstarPayloadItemReader = %d MB",
+                rows, jpaGrowth / (1024 * 1024), projectionGrowth / (1024 * 1024)));
+        assertTrue(projectionGrowth < jpaGrowth, "Expected the projection reader to retain less heap");
+    }
+
+    // Retained heap after a full GC, sampled every tenth of the scan
+    private static long maxHeapGrowth(ItemStreamReader<?> reader, int rows) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        long maxGrowth = 0;
+        reader.open(new ExecutionContext());
+        try {
+            int read = 0;
+            while (reader.read() != null) {
+                if (++read % (rows / 10) == 0) {
+                    System.gc();
+                    maxGrowth = Math.max(maxGrowth, memory.getHeapMemoryUsage().getUsed() - baseline);
+                }
+            }
+            assertEquals(rows, read);
+        } finally {
+            reader.close();
+        }
+        return maxGrowth;
+    }
+
+    private void seedRows(int rows) {
+        Date creationDate = Date.valueOf(LocalDate.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{UUID.randomUUID(), "<ElstarDaten><PersonalNr>" + i + "</PersonalNr></ElstarDaten>", creationDate});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO elstar_daten (uuid, xml_nachricht, creation_date, status) VALUES (?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private int drainQueue() {
+        jmsTemplate.setReceiveTimeout(100);
+        int drained = 0;
+        while (jmsTemplate.receive(queueName) != null) {
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.elstar.batch;
+
+import jakarta.jms.CompletionListener;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightSendsTest {
+
+    private ExecutorService broker;
+    private AtomicInteger outstanding;
+    private AtomicInteger maxOutstanding;
+    private AtomicInteger sent;
+
+    @BeforeEach
+    void setUp() {
+        broker = Executors.newSingleThreadExecutor();
+        outstanding = new AtomicInteger();
+        maxOutstanding = new AtomicInteger();
+        sent = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.shutdownNow();
+    }
+
+    @Test
+    void testNeverExceedsMaxInFlight() throws Exception {
+        InFlightSends inFlight = new InFlightSends(producer(-1, true), 3, 5_000);
+
+        for (int i = 0; i < 50; i++) {
+            inFlight.send(null);
+        }
+        inFlight.awaitCompletion();
+
+        assertEquals(50, sent.get());
+        assertEquals(0, outstanding.get());
+        assertTrue(maxOutstanding.get() <= 3, "max outstanding was " + maxOutstanding.get());
+    }
+
+    @Test
+    void testFailedSendIsReportedOnCompletion() throws Exception {
+        InFlightSends inFlight = new InFlightSends(producer(2, true), 10, 5_000);
+
+        inFlight.send(null);
+        inFlight.send(null);
+        inFlight.send(null);
+
+        JMSException exception = assertThrows(JMSException.class, inFlight::awaitCompletion);
+        assertEquals("rejected", exception.getMessage());
+    }
+
+    @Test
+    void testSendAfterFailureIsRejected() throws Exception {
+        InFlightSends inFlight = new InFlightSends(producer(0, true), 10, 5_000);
+        inFlight.send(null);
+        broker.submit(() -> null).get(1, TimeUnit.SECONDS);
+
+        assertThrows(JMSException.class, () -> inFlight.send(null));
+        assertEquals(1, sent.get());
+    }
+
+    @Test
+    void testTimesOutWhenBrokerNeverAcknowledges() throws Exception {
+        InFlightSends inFlight = new InFlightSends(producer(-1, false), 2, 50);
+        inFlight.send(null);
+        inFlight.send(null);
+
+        assertThrows(JMSException.class, () -> inFlight.send(null));
+        assertThrows(JMSException.class, inFlight::awaitCompletion);
+    }
+
+    // Producer stub completing each asynchronous send on a separate thread
+    private MessageProducer producer(int failAt, boolean acknowledge) {
+        return (MessageProducer) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{MessageProducer.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("send") || args.length != 2) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    Message message = (Message) args[0];
+                    CompletionListener listener = (CompletionListener) args[1];
+                    int index = sent.getAndIncrement();
+                    maxOutstanding.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+                    if (acknowledge) {
+                        broker.submit(() -> {
+                            outstanding.decrementAndGet();
+                            if (index == failAt) {
+                                listener.onException(message, new JMSException("rejected"));
+                            } else {
+                                listener.onCompletion(message);
+                            }
+                        });
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.TestBatchApplication;
+import com.example.elstar.entity.ElstarData;
+import com.example.elstar.repository.ElstarDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.database.JdbcPagingItemReader;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TestBatchApplication.class, properties = "elstar.batch.read-mode=incremental")
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class IncrementalElstarJobTest {
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private ElstarDataRepository repository;
+
+    @Autowired
+    private JdbcPagingItemReader<ElstarData> elstarIncrementalReader;
+
+    @Autowired
+    private JmsTemplate jmsTemplate;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    @BeforeEach
+    void clearQueue() {
+        drainQueue();
+    }
+
+    @Test
+    void testFirstRunSendsAllUnsentRowsAndMarksThemSent() throws Exception {
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertEquals(5, drainQueue());
+        for (ElstarData elstarData : repository.findAll()) {
+            assertEquals(ElstarData.STATUS_SENT, elstarData.getStatus());
+        }
+    }
+
+    @Test
+    void testSecondRunOnlySendsNewRows() throws Exception {
+        jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+        drainQueue();
+
+        ElstarData newRow = new ElstarData("<ElstarDaten><PersonalNr>44444</PersonalNr></ElstarDaten>");
+        newRow.setUuid(UUID.randomUUID());
+        repository.save(newRow);
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertEquals(1, jobExecution.getStepExecutions().iterator().next().getReadCount());
+        assertEquals(1, drainQueue());
+    }
+
+    @Test
+    void testReaderSkipsRowsThatAreNotPending() throws Exception {
+        ElstarData processed = repository.findById(2L).orElseThrow();
+        processed.setStatus(1);
+        repository.save(processed);
+
+        List<Long> ids = readAllIds(new ExecutionContext());
+
+        assertEquals(List.of(1L, 3L, 4L, 5L), ids);
+    }
+
+    @Test
+    void testReaderResumesAfterWatermarkFromExecutionContext() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        elstarIncrementalReader.open(executionContext);
+        elstarIncrementalReader.read();
+        elstarIncrementalReader.read();
+        elstarIncrementalReader.read();
+        elstarIncrementalReader.update(executionContext);
+        elstarIncrementalReader.close();
+
+        List<Long> remaining = readAllIds(executionContext);
+
+        assertEquals(List.of(4L, 5L), remaining);
+    }
+
+    private List<Long> readAllIds(ExecutionContext executionContext) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        elstarIncrementalReader.open(executionContext);
+        ElstarData item;
+        while ((item = elstarIncrementalReader.read()) != null) {
+            ids.add(item.getId());
+        }
+        elstarIncrementalReader.close();
+        return ids;
+    }
+
+    private int drainQueue() {
+        jmsTemplate.setReceiveTimeout(100);
+        int drained = 0;
+        while (jmsTemplate.receive(queueName) != null) {
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.elstar.batch;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.step.StepExecution;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Pieces of the sender's load test: the deterministic UUID of row
+ * {@code i}, the heap high-water mark and the report. The receive module's
+ * load test derives its UUIDs the same way, so its status updates match the
+ * rows sent here.
+ */
+final class LoadTestSupport {
+
+    private static final Log logger = LogFactory.getLog(LoadTestSupport.class);
+
+    private LoadTestSupport() {
+    }
+
+    static UUID uuid(int row) {
+        return UUID.nameUUIDFromBytes(("elstar-load-" + row).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static void resetHeapPeak() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    // Sum of the per-pool peaks since resetHeapPeak(), an upper bound of the heap in use at any time
+    static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    static void report(JobExecution jobExecution, long items, long heapPeak) {
+        Duration total = Duration.between(jobExecution.getStartTime(), jobExecution.getEndTime());
+        StringBuilder report = new StringBuilder(String.format(
+                "%s: %d items in %d ms, %.0f items/s, heap high-water mark %d MB",
+                jobExecution.getJobInstance().getJobName(), items, total.toMillis(),
+                items * 1000.0 / Math.max(1, total.toMillis()), heapPeak / (1024 * 1024)));
+        for (StepExecution step : jobExecution.getStepExecutions()) {
+            Duration duration = Duration.between(step.getStartTime(), step.getEndTime());
+            report.append(String.format("%n  %-24s read %d, written %d, commits %d, %d ms, %.0f items/s",
+                    step.getStepName(), step.getReadCount(), step.getWriteCount(), step.getCommitCount(),
+                    duration.toMillis(), step.getWriteCount() * 1000.0 / Math.max(1, duration.toMillis())));
+        }
+        logger.info(report);
+    }
+}
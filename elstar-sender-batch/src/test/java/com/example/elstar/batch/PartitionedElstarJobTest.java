@@ -0,0 +1,200 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.TestBatchApplication;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TestBatchApplication.class, properties = "elstar.batch.partition.enabled=true")
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+class PartitionedElstarJobTest {
+
+    private static final Log logger = LogFactory.getLog(PartitionedElstarJobTest.class);
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private Job elstarPartitionedJob;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private IdRangePartitioner partitioner;
+
+    @Autowired
+    private Step elstarWorkerStep;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JmsTemplate jmsTemplate;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    @BeforeEach
+    void setUp() {
+        jobOperatorTestUtils.setJob(elstarPartitionedJob);
+        drainQueue();
+    }
+
+    @Test
+    void testPartitionsCoverIdRangeWithoutGaps() {
+        jdbcTemplate.update("DELETE FROM elstar_daten");
+        seedRows(101);
+        long minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM elstar_daten", Long.class);
+        long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM elstar_daten", Long.class);
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        assertEquals(4, partitions.size());
+        long expectedStart = minId;
+        for (ExecutionContext context : partitions.values()) {
+            assertEquals(expectedStart, context.getLong(IdRangePartitioner.MIN_ID_KEY));
+            expectedStart = context.getLong(IdRangePartitioner.MAX_ID_KEY) + 1;
+        }
+        assertEquals(maxId + 1, expectedStart);
+    }
+
+    @Test
+    void testPartitionerReturnsEmptyRangeForEmptyTable() {
+        jdbcTemplate.update("DELETE FROM elstar_daten");
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        assertEquals(1, partitions.size());
+        ExecutionContext context = partitions.values().iterator().next();
+        assertTrue(context.getLong(IdRangePartitioner.MIN_ID_KEY) > context.getLong(IdRangePartitioner.MAX_ID_KEY));
+    }
+
+    @Test
+    @Sql(scripts = "/test-data.sql")
+    void testPartitionedJobSendsAllRecords() throws Exception {
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        long workerExecutions = jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith("elstarWorkerStep"))
+                .count();
+        assertTrue(workerExecutions > 1, "Expected more than one worker partition");
+        assertEquals(5, drainQueue());
+    }
+
+    @Test
+    @Sql(scripts = "/test-data.sql")
+    void testPartitionedJobKeepsPartnerResults() throws Exception {
+        jdbcTemplate.update("UPDATE elstar_daten SET status = 200 WHERE id IN (1, 4)");
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertEquals(5, drainQueue());
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM elstar_daten WHERE status = 200", Integer.class));
+    }
+
+    @Test
+    @Tag("performance")
+    void testThroughputGrowsWithNumberOfPartitions() throws Exception {
+        int rows = Integer.getInteger("elstar.perf.rows", 200_000);
+        jdbcTemplate.update("DELETE FROM elstar_daten");
+        seedRows(rows);
+
+        double singlePartition = measureThroughput(1, rows);
+        double fourPartitions = measureThroughput(4, rows);
+
+        logger.info(String.format("Partitioned send of %d rows: 1 partition = %.0f items/s,"
+                        + " 4 partitions = %.0f items/s",
+                rows, singlePartition, fourPartitions));
+        assertTrue(fourPartitions > singlePartition,
+                "Expected 4 partitions to outperform a single partition");
+    }
+
+    private double measureThroughput(int gridSize, int rows) throws Exception {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(gridSize);
+        taskExecutor.setMaxPoolSize(gridSize);
+        taskExecutor.setThreadNamePrefix("perf-partition-");
+        taskExecutor.initialize();
+        try {
+            Step managerStep = new StepBuilder("elstarPartitionedStep" + gridSize, jobRepository)
+                    .partitioner("elstarWorkerStep", partitioner)
+                    .step(elstarWorkerStep)
+                    .gridSize(gridSize)
+                    .taskExecutor(taskExecutor)
+                    .build();
+
+            long start = System.nanoTime();
+            JobExecution jobExecution = jobOperatorTestUtils.startStep(managerStep);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+            long written = jobExecution.getStepExecutions().stream()
+                    .filter(stepExecution -> stepExecution.getStepName().startsWith("elstarWorkerStep"))
+                    .mapToLong(StepExecution::getWriteCount)
+                    .sum();
+            assertEquals(rows, written);
+            assertEquals(rows, drainQueue());
+            return rows / seconds;
+        } finally {
+            taskExecutor.shutdown();
+        }
+    }
+
+    private void seedRows(int rows) {
+        Date creationDate = Date.valueOf(LocalDate.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{UUID.randomUUID(), "<ElstarDaten><PersonalNr>" + i + "</PersonalNr></ElstarDaten>", creationDate});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO elstar_daten (uuid, xml_nachricht, creation_date, status) VALUES (?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private int drainQueue() {
+        jmsTemplate.setReceiveTimeout(100);
+        int drained = 0;
+        while (jmsTemplate.receive(queueName) != null) {
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.TestBatchApplication;
+import com.example.elstar.entity.ElstarData;
+import com.example.elstar.jms.ElstarDataMessageConverter;
+import jakarta.jms.CompletionListener;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies against embedded Artemis that a chunk is sent through a single
+ * connection, session and producer with one commit.
+ */
+@SpringBootTest(classes = TestBatchApplication.class)
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+class QueueWriterSessionTest {
+
+    private static final Log logger = LogFactory.getLog(QueueWriterSessionTest.class);
+
+    private static final int CHUNK_SIZE = 10;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private ElstarDataMessageConverter messageConverter;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    private ConnectionFactory brokerConnectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        brokerConnectionFactory = connectionFactory instanceof CachingConnectionFactory caching
+                ? caching.getTargetConnectionFactory()
+                : connectionFactory;
+        drainQueue();
+    }
+
+    @Test
+    void testSessionPerChunkUsesOneConnectionSessionAndCommitPerChunk() throws Exception {
+        JmsCounters counters = new JmsCounters();
+        QueueWriter<ElstarData> queueWriter = queueWriter(counting(brokerConnectionFactory, counters), true);
+
+        queueWriter.write(chunk(CHUNK_SIZE));
+        queueWriter.write(chunk(CHUNK_SIZE));
+        queueWriter.write(chunk(CHUNK_SIZE));
+
+        assertEquals(3, counters.connections.get());
+        assertEquals(3, counters.sessions.get());
+        assertEquals(3, counters.producers.get());
+        assertEquals(3, counters.commits.get());
+        assertEquals(3 * CHUNK_SIZE, drainQueue());
+    }
+
+    @Test
+    void testPerItemSendOpensSessionPerMessage() throws Exception {
+        JmsCounters counters = new JmsCounters();
+        QueueWriter<ElstarData> queueWriter = queueWriter(counting(brokerConnectionFactory, counters), false);
+
+        queueWriter.write(chunk(CHUNK_SIZE));
+
+        assertEquals(CHUNK_SIZE, counters.connections.get());
+        assertEquals(CHUNK_SIZE, counters.sessions.get());
+        assertEquals(CHUNK_SIZE, drainQueue());
+    }
+
+    @Test
+    void testCachingConnectionFactoryReusesSessionAcrossChunks() throws Exception {
+        JmsCounters counters = new JmsCounters();
+        CachingConnectionFactory caching = new CachingConnectionFactory(counting(brokerConnectionFactory, counters));
+        caching.setCacheProducers(true);
+        try {
+            QueueWriter<ElstarData> queueWriter = queueWriter(caching, true);
+
+            queueWriter.write(chunk(CHUNK_SIZE));
+            queueWriter.write(chunk(CHUNK_SIZE));
+            queueWriter.write(chunk(CHUNK_SIZE));
+
+            assertEquals(1, counters.connections.get());
+            assertEquals(1, counters.sessions.get());
+            assertEquals(1, counters.producers.get());
+            assertEquals(3, counters.commits.get());
+            assertEquals(3 * CHUNK_SIZE, drainQueue());
+        } finally {
+            caching.destroy();
+        }
+    }
+
+    @Test
+    void testFailedChunkIsNotCommitted() {
+        QueueWriter<Object> queueWriter = queueWriter(brokerConnectionFactory, true);
+        Chunk<Object> chunk = new Chunk<>(chunk(3).getItems());
+        chunk.add("not an ElstarData");
+
+        assertThrows(Exception.class, () -> queueWriter.write(chunk));
+
+        assertEquals(0, drainQueue());
+    }
+
+    @Test
+    void testAsyncSendDeliversAllMessages() throws Exception {
+        JmsCounters counters = new JmsCounters();
+        QueueWriter<ElstarData> queueWriter = queueWriter(counting(brokerConnectionFactory, counters), false, 4);
+        queueWriter.setSessionPerChunk(true);
+
+        queueWriter.write(chunk(CHUNK_SIZE));
+        queueWriter.write(chunk(CHUNK_SIZE));
+        queueWriter.write(chunk(CHUNK_SIZE));
+
+        assertEquals(3, counters.sessions.get());
+        assertEquals(0, counters.commits.get());
+        assertEquals(3 * CHUNK_SIZE, drainQueue());
+    }
+
+    @Test
+    void testAsyncSendFailureFailsChunkWithoutCommit() {
+        JmsCounters counters = new JmsCounters();
+        QueueWriter<ElstarData> queueWriter = queueWriter(
+                failingAsyncSend(counting(brokerConnectionFactory, counters), 5), true, 4);
+
+        assertThrows(Exception.class, () -> queueWriter.write(chunk(CHUNK_SIZE)));
+
+        assertEquals(0, counters.commits.get());
+        assertEquals(0, drainQueue());
+    }
+
+    @Test
+    void testBundlesAreSentInOneSession() throws Exception {
+        JmsCounters counters = new JmsCounters();
+        QueueWriter<ElstarData> queueWriter = queueWriter(counting(brokerConnectionFactory, counters), true);
+        queueWriter.setBundling(4, 0, item -> 0);
+
+        queueWriter.write(chunk(CHUNK_SIZE));
+
+        assertEquals(1, counters.sessions.get());
+        assertEquals(1, counters.commits.get());
+        assertEquals(3, drainQueue());
+    }
+
+    @Test
+    @Tag("performance")
+    void testReportBundledDocumentsPerSecond() throws Exception {
+        int chunks = Integer.getInteger("elstar.perf.chunks", 100);
+        int chunkSize = 100;
+        StringBuilder report = new StringBuilder("bundle | messages/s | documents/s");
+        for (int bundle : new int[]{1, 10, 100}) {
+            QueueWriter<ElstarData> queueWriter = queueWriter(brokerConnectionFactory, true);
+            queueWriter.setBundling(bundle, 0, item -> 0);
+            long start = System.nanoTime();
+            for (int i = 0; i < chunks; i++) {
+                queueWriter.write(chunk(chunkSize));
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            int messages = drainQueue();
+            assertEquals(chunks * chunkSize / bundle, messages);
+            report.append(String.format("%n%6d | %10.0f | %11.0f",
+                    bundle, messages / seconds, chunks * chunkSize / seconds));
+        }
+        logger.info(report);
+    }
+
+    @Test
+    @Tag("performance")
+    void testReportAsyncMessagesPerSecond() throws Exception {
+        int chunks = Integer.getInteger("elstar.perf.chunks", 500);
+        QueueWriter<ElstarData> sync = queueWriter(brokerConnectionFactory, false, 0);
+        sync.setSessionPerChunk(true);
+        QueueWriter<ElstarData> async = queueWriter(brokerConnectionFactory, false, CHUNK_SIZE);
+        async.setSessionPerChunk(true);
+
+        double syncRate = messagesPerSecond(sync, chunks);
+        double asyncRate = messagesPerSecond(async, chunks);
+        double asyncTransacted = messagesPerSecond(queueWriter(brokerConnectionFactory, true, CHUNK_SIZE), chunks);
+
+        logger.info(String.format("QueueWriter, %d messages: synchronous = %.0f msg/s, asynchronous = %.0f msg/s, "
+                + "asynchronous + transacted = %.0f msg/s", chunks * CHUNK_SIZE, syncRate, asyncRate, asyncTransacted));
+        assertTrue(asyncRate > syncRate, "Expected asynchronous sends to outperform synchronous sends");
+    }
+
+    @Test
+    @Tag("performance")
+    void testReportMessagesPerSecond() throws Exception {
+        int chunks = Integer.getInteger("elstar.perf.chunks", 500);
+        CachingConnectionFactory caching = new CachingConnectionFactory(brokerConnectionFactory);
+        caching.setCacheProducers(true);
+        try {
+            double perItem = messagesPerSecond(queueWriter(brokerConnectionFactory, false), chunks);
+            double perChunk = messagesPerSecond(queueWriter(brokerConnectionFactory, true), chunks);
+            double perChunkCached = messagesPerSecond(queueWriter(caching, true), chunks);
+
+            logger.info(String.format("QueueWriter, %d messages: per item = %.0f msg/s, session per chunk = %.0f msg/s,"
+                            + " session per chunk + caching = %.0f msg/s",
+                    chunks * CHUNK_SIZE, perItem, perChunk, perChunkCached));
+            assertTrue(perChunk > perItem, "Expected session-per-chunk to outperform per-item sends");
+        } finally {
+            caching.destroy();
+        }
+    }
+
+    private double messagesPerSecond(QueueWriter<ElstarData> queueWriter, int chunks) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < chunks; i++) {
+            queueWriter.write(chunk(CHUNK_SIZE));
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        assertEquals(chunks * CHUNK_SIZE, drainQueue());
+        return chunks * CHUNK_SIZE / seconds;
+    }
+
+    private <T> QueueWriter<T> queueWriter(ConnectionFactory factory, boolean sessionPerChunk) {
+        return queueWriter(factory, sessionPerChunk, 0);
+    }
+
+    private <T> QueueWriter<T> queueWriter(ConnectionFactory factory, boolean sessionPerChunk, int maxInFlight) {
+        JmsTemplate jmsTemplate = new JmsTemplate(factory);
+        jmsTemplate.setMessageConverter(messageConverter);
+        jmsTemplate.setSessionTransacted(sessionPerChunk);
+        QueueWriter<T> queueWriter = new QueueWriter<>(jmsTemplate, queueName);
+        queueWriter.setSessionPerChunk(sessionPerChunk);
+        queueWriter.setMaxInFlight(maxInFlight);
+        return queueWriter;
+    }
+
+    private static Chunk<ElstarData> chunk(int size) {
+        Chunk<ElstarData> chunk = new Chunk<>();
+        for (int i = 0; i < size; i++) {
+            ElstarData item = new ElstarData("<ElstarDaten><PersonalNr>" + i + "</PersonalNr></ElstarDaten>");
+            item.setUuid(UUID.randomUUID());
+            chunk.add(item);
+        }
+        return chunk;
+    }
+
+    private int drainQueue() {
+        JmsTemplate jmsTemplate = new JmsTemplate(brokerConnectionFactory);
+        jmsTemplate.setReceiveTimeout(100);
+        int drained = 0;
+        while (jmsTemplate.receive(queueName) != null) {
+            drained++;
+        }
+        return drained;
+    }
+
+    private static class JmsCounters {
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger sessions = new AtomicInteger();
+        final AtomicInteger producers = new AtomicInteger();
+        final AtomicInteger commits = new AtomicInteger();
+    }
+
+    // Wraps the broker factory and counts connection, session, producer and commit calls
+    private static ConnectionFactory counting(ConnectionFactory target, JmsCounters counters) {
+        return proxy(ConnectionFactory.class, target, (method, result) -> {
+            if (method.equals("createConnection")) {
+                counters.connections.incrementAndGet();
+                return proxy(Connection.class, result, (connectionMethod, session) -> {
+                    if (connectionMethod.equals("createSession")) {
+                        counters.sessions.incrementAndGet();
+                        return proxy(Session.class, session, (sessionMethod, sessionResult) -> {
+                            if (sessionMethod.equals("createProducer")) {
+                                counters.producers.incrementAndGet();
+                            } else if (sessionMethod.equals("commit")) {
+                                counters.commits.incrementAndGet();
+                            }
+                            return sessionResult;
+                        });
+                    }
+                    return session;
+                });
+            }
+            return result;
+        });
+    }
+
+    // Lets the broker reject the asynchronous send with the given index
+    private static ConnectionFactory failingAsyncSend(ConnectionFactory target, int failAt) {
+        AtomicInteger sends = new AtomicInteger();
+        ResultHandler producers = (method, producer) -> method.equals("createProducer")
+                ? failingProducer((MessageProducer) producer, sends, failAt)
+                : producer;
+        ResultHandler sessions = (method, session) -> method.equals("createSession")
+                ? proxy(Session.class, session, producers)
+                : session;
+        return proxy(ConnectionFactory.class, target, (method, connection) -> method.equals("createConnection")
+                ? proxy(Connection.class, connection, sessions)
+                : connection);
+    }
+
+    private static MessageProducer failingProducer(MessageProducer target, AtomicInteger sends, int failAt) {
+        Object proxy = Proxy.newProxyInstance(QueueWriterSessionTest.class.getClassLoader(),
+                new Class<?>[]{MessageProducer.class}, (instance, method, args) -> {
+                    if (method.getName().equals("send") && args.length == 2
+                            && args[1] instanceof CompletionListener listener && sends.getAndIncrement() == failAt) {
+                        listener.onException((Message) args[0], new JMSException("rejected by broker"));
+                        return null;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        return (MessageProducer) proxy;
+    }
+
+    private interface ResultHandler {
+        Object handle(String methodName, Object result);
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, ResultHandler handler) {
+        Object proxy = Proxy.newProxyInstance(QueueWriterSessionTest.class.getClassLoader(), new Class<?>[]{type},
+                (instance, method, args) -> {
+                    try {
+                        return handler.handle(method.getName(), method.invoke(target, args));
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        return type.cast(proxy);
+    }
+}
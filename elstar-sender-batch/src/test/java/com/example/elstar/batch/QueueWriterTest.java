@@ -1,6 +1,8 @@
 package com.example.elstar.batch;
 
 import com.example.elstar.entity.ElstarData;
+import com.example.elstar.jms.Utf8BytesMessages;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.batch.infrastructure.item.Chunk;
@@ -84,6 +86,92 @@ class QueueWriterTest {
         }
     }
 
+    @Test
+    void testWriteRecordsSendLatencyAndChunkSize() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queueWriter.bindTo(registry);
+
+        queueWriter.write(new Chunk<>(new ElstarData("<xml>1</xml>"), new ElstarData("<xml>2</xml>")));
+        queueWriter.write(new Chunk<>(new ElstarData("<xml>3</xml>")));
+
+        assertEquals(3, registry.get(QueueWriter.SEND_METRIC).tag("queue", QUEUE_NAME).timer().count());
+        assertEquals(2, registry.get(QueueWriter.CHUNK_METRIC).timer().count());
+        assertEquals(3.0, registry.get(QueueWriter.CHUNK_ITEMS_METRIC).summary().totalAmount());
+    }
+
+    @Test
+    void testBundlingSplitsAtMaxItems() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queueWriter.bindTo(registry);
+        queueWriter.setBundling(3, 0, item -> item.getXmlNachricht().length());
+
+        queueWriter.write(chunk(7, "<xml/>"));
+
+        assertEquals(3, sentMessages.size());
+        assertEquals(3, ((List<?>) sentMessages.get(0)).size());
+        assertEquals(3, ((List<?>) sentMessages.get(1)).size());
+        assertInstanceOf(ElstarData.class, sentMessages.get(2), "A bundle of one is sent as the item");
+        assertEquals(3, registry.get(QueueWriter.BUNDLE_ITEMS_METRIC).summary().count());
+        assertEquals(7.0, registry.get(QueueWriter.BUNDLE_ITEMS_METRIC).summary().totalAmount());
+    }
+
+    @Test
+    void testBundlingSplitsAtMaxBytes() throws Exception {
+        queueWriter.setBundling(100, 25, item -> item.getXmlNachricht().length());
+
+        // 10 chars each: two fit into 25 bytes, the third starts the next bundle
+        queueWriter.write(chunk(5, "<a>123</a>"));
+
+        assertEquals(3, sentMessages.size());
+        assertEquals(2, ((List<?>) sentMessages.get(0)).size());
+        assertEquals(2, ((List<?>) sentMessages.get(1)).size());
+        assertInstanceOf(ElstarData.class, sentMessages.get(2));
+    }
+
+    @Test
+    void testBundlingBudgetCountsEncodedBytes() throws Exception {
+        queueWriter.setBundling(100, 25, item -> (int) Utf8BytesMessages.encodedLength(item.getXmlNachricht()));
+
+        // 10 chars but 13 bytes each: two no longer fit into 25 bytes
+        queueWriter.write(chunk(2, "<a>äöü</a>"));
+
+        assertEquals(2, sentMessages.size());
+        assertInstanceOf(ElstarData.class, sentMessages.get(0));
+        assertInstanceOf(ElstarData.class, sentMessages.get(1));
+    }
+
+    @Test
+    void testBundlingSendsOversizedItemAlone() throws Exception {
+        queueWriter.setBundling(100, 5, item -> item.getXmlNachricht().length());
+
+        queueWriter.write(chunk(2, "<xml>too large</xml>"));
+
+        assertEquals(2, sentMessages.size());
+        assertInstanceOf(ElstarData.class, sentMessages.get(0));
+        assertInstanceOf(ElstarData.class, sentMessages.get(1));
+    }
+
+    @Test
+    void testBundlingPreservesOrder() throws Exception {
+        queueWriter.setBundling(4, 0, item -> 0);
+
+        queueWriter.write(chunk(8, "<xml/>"));
+
+        List<Object> items = new ArrayList<>();
+        for (Object message : sentMessages) {
+            items.addAll((List<?>) message);
+        }
+        for (int i = 0; i < 8; i++) {
+            assertEquals((long) i, ((ElstarData) items.get(i)).getId());
+        }
+    }
+
+    @Test
+    void testBundlingRejectsLessThanOneItem() {
+        assertThrows(IllegalArgumentException.class, () -> queueWriter.setBundling(0, 0, item -> 0));
+        assertEquals(1, queueWriter.getBundleMaxItems());
+    }
+
     @Test
     void testGetJmsTemplate() {
         assertSame(testJmsTemplate, queueWriter.getJmsTemplate());
@@ -94,6 +182,16 @@ class QueueWriterTest {
         assertEquals(QUEUE_NAME, queueWriter.getDestinationName());
     }
 
+    private static Chunk<ElstarData> chunk(int size, String xml) {
+        Chunk<ElstarData> chunk = new Chunk<>();
+        for (int i = 0; i < size; i++) {
+            ElstarData item = new ElstarData(xml);
+            item.setId((long) i);
+            chunk.add(item);
+        }
+        return chunk;
+    }
+
     // Simple test stub for JmsTemplate
     private static class TestJmsTemplate extends JmsTemplate {
         private final List<Object> sentMessages;
@@ -0,0 +1,275 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.TestBatchApplication;
+import com.example.elstar.entity.ElstarData;
+import com.example.elstar.jms.ElstarDataMessageConverter;
+import jakarta.jms.ConnectionFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemReader;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.batch.infrastructure.item.database.JpaCursorItemReader;
+import org.springframework.batch.infrastructure.item.support.CompositeItemWriter;
+import org.springframework.batch.infrastructure.item.support.ListItemReader;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs manager and workers of remote chunking in one context, with embedded
+ * Artemis as the transport between them.
+ */
+@SpringBootTest(classes = TestBatchApplication.class, properties = {
+        "elstar.batch.read-mode=incremental",
+        "elstar.batch.remote.manager.enabled=true",
+        "elstar.batch.remote.worker.enabled=true",
+        "elstar.batch.remote.worker.concurrency=3",
+        "elstar.batch.remote.chunk-size=4",
+        "elstar.batch.remote.max-in-flight=2"})
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+class RemoteChunkingJobTest {
+
+    private static final Log logger = LogFactory.getLog(RemoteChunkingJobTest.class);
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private Job elstarRemoteChunkingJob;
+
+    @Autowired
+    private Step elstarStep;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JpaCursorItemReader<ElstarData> elstarDatenReader;
+
+    @Autowired
+    private CompositeItemWriter<ElstarData> compositeWriter;
+
+    @Autowired
+    private QueueWriter<ElstarData> queueWriter;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private ElstarDataMessageConverter messageConverter;
+
+    @Autowired
+    private JmsTemplate jmsTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    @Value("${elstar.batch.remote.reply-queue}")
+    private String replyQueue;
+
+    @BeforeEach
+    void setUp() {
+        jobOperatorTestUtils.setJob(elstarRemoteChunkingJob);
+        jdbcTemplate.update("DELETE FROM elstar_daten");
+        drainQueue();
+    }
+
+    @Test
+    void testWorkersSendAndMarkEveryRow() throws Exception {
+        seedRows(50);
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertEquals(50, drainQueue());
+        assertEquals(50, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM elstar_daten WHERE status = " + ElstarData.STATUS_SENT, Integer.class));
+        ExecutionContext executionContext = jobExecution.getStepExecutions().iterator().next().getExecutionContext();
+        assertEquals(13, executionContext.getInt(RemoteChunkWriter.SENT_KEY));
+        assertEquals(13, executionContext.getInt(RemoteChunkWriter.REPLIED_KEY));
+        assertEquals(50, executionContext.getLong(RemoteChunkWriter.WRITTEN_KEY));
+    }
+
+    @Test
+    void testFailedChunkIsRedeliveredWithoutItsSends() throws Exception {
+        AtomicInteger deliveries = new AtomicInteger();
+        ItemWriter<ElstarData> failingOnce = chunk -> {
+            queueWriter.write(chunk);
+            if (deliveries.incrementAndGet() == 1) {
+                throw new IllegalStateException("database unavailable");
+            }
+        };
+        RemoteChunkListenerContainer worker = worker("ELSTAR.CHUNK.FAILING", failingOnce, "1");
+        try {
+            JobExecution jobExecution = jobOperatorTestUtils.startStep(
+                    managerStep("ELSTAR.CHUNK.FAILING", 10_000, new ListItemReader<>(items(3))));
+
+            assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+            assertEquals(2, deliveries.get());
+            assertEquals(3, drainQueue());
+            ExecutionContext executionContext = jobExecution.getStepExecutions().iterator().next().getExecutionContext();
+            assertEquals(3, executionContext.getLong(RemoteChunkWriter.WRITTEN_KEY));
+        } finally {
+            worker.shutdown();
+        }
+    }
+
+    @Test
+    void testChunkFailingOnEveryDeliveryFailsManagerStep() throws Exception {
+        AtomicInteger deliveries = new AtomicInteger();
+        ItemWriter<ElstarData> failing = chunk -> {
+            deliveries.incrementAndGet();
+            throw new IllegalStateException("partner queue unavailable");
+        };
+        RemoteChunkListenerContainer worker = worker("ELSTAR.CHUNK.FAILING", failing, "1");
+        try {
+            JobExecution jobExecution = jobOperatorTestUtils.startStep(
+                    managerStep("ELSTAR.CHUNK.FAILING", 10_000, new ListItemReader<>(items(3))));
+
+            assertEquals(BatchStatus.FAILED, jobExecution.getStatus());
+            assertEquals(3, deliveries.get());
+            Throwable failure = jobExecution.getAllFailureExceptions().get(0);
+            assertTrue(failure.getMessage().contains("failed on 3 deliveries"), failure.getMessage());
+        } finally {
+            worker.shutdown();
+        }
+        jmsTemplate.setReceiveTimeout(100);
+        assertNull(jmsTemplate.receive("ELSTAR.CHUNK.FAILING"));
+    }
+
+    @Test
+    void testMissingReplyFailsManagerStep() throws Exception {
+        JobExecution jobExecution = jobOperatorTestUtils.startStep(
+                managerStep("ELSTAR.CHUNK.UNANSWERED", 500, new ListItemReader<>(items(3))));
+
+        assertEquals(BatchStatus.FAILED, jobExecution.getStatus());
+        Throwable failure = jobExecution.getAllFailureExceptions().get(0);
+        assertTrue(failure.getMessage().startsWith("No reply"), failure.getMessage());
+        jmsTemplate.setReceiveTimeout(100);
+        while (jmsTemplate.receive("ELSTAR.CHUNK.UNANSWERED") != null) {
+            // drop the unanswered requests
+        }
+    }
+
+    @Test
+    @Tag("performance")
+    void testReportThroughputPerWorkerCount() throws Exception {
+        int rows = Integer.getInteger("elstar.perf.rows", 20_000);
+        seedRows(rows);
+
+        long start = System.nanoTime();
+        JobExecution local = jobOperatorTestUtils.startStep(elstarStep);
+        double localRate = rows / ((System.nanoTime() - start) / 1_000_000_000.0);
+        assertEquals(BatchStatus.COMPLETED, local.getStatus());
+        assertEquals(rows, drainQueue());
+
+        StringBuilder report = new StringBuilder(String.format("elstarStep = %.0f items/s", localRate));
+        for (String workers : new String[]{"1", "4"}) {
+            RemoteChunkListenerContainer worker = worker("ELSTAR.CHUNK.PERF", compositeWriter, workers);
+            try {
+                start = System.nanoTime();
+                JobExecution jobExecution = jobOperatorTestUtils.startStep(
+                        managerStep("ELSTAR.CHUNK.PERF", 60_000, elstarDatenReader));
+                double rate = rows / ((System.nanoTime() - start) / 1_000_000_000.0);
+                assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+                assertEquals(rows, drainQueue());
+                report.append(String.format(", %s worker(s) = %.0f items/s", workers, rate));
+            } finally {
+                worker.shutdown();
+            }
+        }
+        logger.info("Remote chunking of " + rows + " rows: " + report);
+    }
+
+    private Step managerStep(String requestQueue, long replyTimeout, ItemReader<ElstarData> reader) {
+        RemoteChunkWriter writer = new RemoteChunkWriter(jmsTemplate, requestQueue, replyQueue);
+        writer.setReplyTimeout(replyTimeout);
+        return new StepBuilder("remoteManagerStep", jobRepository)
+                .<ElstarData, ElstarData>chunk(100)
+                .transactionManager(transactionManager)
+                .reader(reader)
+                .writer(writer)
+                .listener(writer)
+                .build();
+    }
+
+    private RemoteChunkListenerContainer worker(String requestQueue, ItemWriter<ElstarData> writer,
+                                                String concurrency) {
+        RemoteChunkListenerContainer worker = new RemoteChunkListenerContainer(
+                messageConverter, writer, new TransactionTemplate(transactionManager));
+        worker.setConnectionFactory(connectionFactory);
+        worker.setDestinationName(requestQueue);
+        worker.setConcurrency(concurrency);
+        worker.afterPropertiesSet();
+        worker.start();
+        return worker;
+    }
+
+    private static List<ElstarData> items(int count) {
+        List<ElstarData> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ElstarData item = new ElstarData("<ElstarDaten><PersonalNr>" + i + "</PersonalNr></ElstarDaten>");
+            item.setId((long) i + 1);
+            item.setUuid(UUID.randomUUID());
+            items.add(item);
+        }
+        return items;
+    }
+
+    private void seedRows(int rows) {
+        Date creationDate = Date.valueOf(LocalDate.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{UUID.randomUUID(), "<ElstarDaten><PersonalNr>" + i + "</PersonalNr></ElstarDaten>", creationDate});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO elstar_daten (uuid, xml_nachricht, creation_date, status) VALUES (?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private int drainQueue() {
+        jmsTemplate.setReceiveTimeout(100);
+        int drained = 0;
+        while (jmsTemplate.receive(queueName) != null) {
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.TestBatchApplication;
+import com.example.elstar.entity.ElstarData;
+import com.example.elstar.jms.ElstarDataMessageConverter;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test of {@code elstarJob}: seeds {@code elstar.perf.rows} rows of
+ * {@code elstar.perf.payload-chars} characters, sends them to embedded
+ * Artemis and prints throughput, step durations and the heap high-water mark.
+ * A consumer drains the queue while the job runs so the broker does not have
+ * to hold millions of messages and counts the documents of bundle messages.
+ * Row {@code i} gets {@link LoadTestSupport#uuid(int)}, which the receive
+ * module's load test uses for the matching status updates.
+ */
+@SpringBootTest(classes = TestBatchApplication.class)
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Tag("performance")
+class SenderLoadTest {
+
+    private static final Log logger = LogFactory.getLog(SenderLoadTest.class);
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    @Test
+    void testSendSeededRows() throws Exception {
+        int rows = Integer.getInteger("elstar.perf.rows", 100_000);
+        int payloadChars = Integer.getInteger("elstar.perf.payload-chars", 1_000);
+        jdbcTemplate.update("DELETE FROM elstar_daten");
+        long seedStart = System.nanoTime();
+        seedRows(rows, payloadChars);
+        logger.info(String.format("Seeded %d rows of %d chars in %d ms",
+                rows, payloadChars, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart)));
+
+        AtomicBoolean jobDone = new AtomicBoolean();
+        CompletableFuture<Integer> drained = CompletableFuture.supplyAsync(() -> drain(jobDone));
+        LoadTestSupport.resetHeapPeak();
+        JobExecution jobExecution;
+        try {
+            jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+        } finally {
+            jobDone.set(true);
+        }
+        long heapPeak = LoadTestSupport.heapPeak();
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        LoadTestSupport.report(jobExecution, rows, heapPeak);
+        assertEquals(rows, drained.get(1, TimeUnit.MINUTES));
+        assertEquals(rows, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM elstar_daten WHERE status = " + ElstarData.STATUS_PENDING, Integer.class));
+    }
+
+    private int drain(AtomicBoolean jobDone) {
+        try (Connection connection = connectionFactory.createConnection()) {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            MessageConsumer consumer = session.createConsumer(session.createQueue(queueName));
+            connection.start();
+            int messages = 0;
+            int documents = 0;
+            while (true) {
+                Message message = consumer.receive(1000);
+                if (message != null) {
+                    messages++;
+                    documents += message.propertyExists(ElstarDataMessageConverter.BUNDLE_COUNT_PROPERTY)
+                            ? message.getIntProperty(ElstarDataMessageConverter.BUNDLE_COUNT_PROPERTY) : 1;
+                } else if (jobDone.get()) {
+                    logger.info(String.format("Drained %d documents in %d messages", documents, messages));
+                    return documents;
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Draining " + queueName + " failed", e);
+        }
+    }
+
+    private void seedRows(int rows, int payloadChars) {
+        String filler = "x".repeat(Math.max(0, payloadChars - 60));
+        Date creationDate = Date.valueOf(LocalDate.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{LoadTestSupport.uuid(i),
+                    "<ElstarDaten><PersonalNr>" + i + "</PersonalNr><Name>" + filler + "</Name></ElstarDaten>",
+                    creationDate});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO elstar_daten (uuid, xml_nachricht, creation_date, status) VALUES (?, ?, ?, 0)",
+                        batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.TestBatchApplication;
+import com.example.elstar.entity.ElstarData;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TestBatchApplication.class)
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+@Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class SentStatusWriterTest {
+
+    @Autowired
+    private JdbcBatchItemWriter<ElstarData> sentStatusWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private JmsTemplate jmsTemplate;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    @Test
+    void testWriterMarksOnlyChunkRowsAsSent() throws Exception {
+        sentStatusWriter.write(new Chunk<>(item(1L), item(3L)));
+
+        assertEquals(ElstarData.STATUS_SENT, status(1L));
+        assertEquals(ElstarData.STATUS_PENDING, status(2L));
+        assertEquals(ElstarData.STATUS_SENT, status(3L));
+    }
+
+    @Test
+    void testWriterDoesNotRewritePayload() throws Exception {
+        ElstarData item = item(2L);
+        item.setXmlNachricht("<changed/>");
+
+        sentStatusWriter.write(new Chunk<>(item));
+
+        assertEquals("<ElstarDaten><PersonalNr>67890</PersonalNr><Steuerklasse>3</Steuerklasse></ElstarDaten>",
+                jdbcTemplate.queryForObject("SELECT xml_nachricht FROM elstar_daten WHERE id = 2", String.class));
+    }
+
+    @Test
+    void testWriterFailsForUnknownId() {
+        assertThrows(EmptyResultDataAccessException.class, () -> sentStatusWriter.write(new Chunk<>(item(99L))));
+    }
+
+    @Test
+    void testFullRunKeepsPartnerResult() throws Exception {
+        jdbcTemplate.update("UPDATE elstar_daten SET status = 200 WHERE id = 2");
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertEquals(5, drainQueue());
+        assertEquals(200, status(2L));
+        assertEquals(ElstarData.STATUS_PENDING, status(1L));
+    }
+
+    private static ElstarData item(Long id) {
+        ElstarData item = new ElstarData();
+        item.setId(id);
+        return item;
+    }
+
+    private int status(Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM elstar_daten WHERE id = ?", Integer.class, id);
+    }
+
+    private int drainQueue() {
+        jmsTemplate.setReceiveTimeout(100);
+        int drained = 0;
+        while (jmsTemplate.receive(queueName) != null) {
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,471 @@
+package com.example.elstar.batch;
+
+import com.example.elstar.TestBatchApplication;
+import com.example.elstar.entity.ElstarData;
+import com.example.elstar.jms.ElstarDataMessageConverter;
+import com.example.elstar.jms.PayloadCodec;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageFormatException;
+import jakarta.jms.Session;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.database.JpaCursorItemReader;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TestBatchApplication.class, properties = "elstar.jms.payload-mode=streaming")
+@SpringBatchTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+class StreamingQueueWriterTest {
+
+    private static final Log logger = LogFactory.getLog(StreamingQueueWriterTest.class);
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private QueueWriter<ElstarData> queueWriter;
+
+    @Autowired
+    private JpaCursorItemReader<ElstarData> elstarDatenReader;
+
+    @Autowired
+    private ElstarDataMessageConverter messageConverter;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${elstar.jms.queue-name}")
+    private String queueName;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM elstar_daten");
+        drainQueue();
+    }
+
+    @Test
+    void testStreamingModeUsesStreamingQueueWriter() {
+        assertInstanceOf(StreamingQueueWriter.class, queueWriter);
+    }
+
+    @Test
+    void testReaderDoesNotLoadPayload() throws Exception {
+        ElstarData row = insert("<ElstarDaten><PersonalNr>12345</PersonalNr></ElstarDaten>");
+
+        elstarDatenReader.open(new ExecutionContext());
+        ElstarData item = elstarDatenReader.read();
+        elstarDatenReader.close();
+
+        assertEquals(row.getId(), item.getId());
+        assertEquals(row.getUuid(), item.getUuid());
+        assertNull(item.getXmlNachricht());
+    }
+
+    @Test
+    void testPayloadRoundTripsThroughBytesMessageAcrossBufferBoundaries() throws Exception {
+        StringBuilder xml = new StringBuilder("<ElstarDaten>");
+        for (int i = 0; i < 500; i++) {
+            xml.append("<Name>Jürgen Müller € 😀 ").append(i).append("</Name>");
+        }
+        xml.append("</ElstarDaten>");
+        ElstarData row = insert(xml.toString());
+        StreamingQueueWriter writer = streamingWriter(7);
+
+        writer.write(new Chunk<>(new ElstarData(row.getId(), row.getUuid())));
+
+        List<Message> messages = receiveAll();
+        assertEquals(1, messages.size());
+        assertInstanceOf(BytesMessage.class, messages.get(0));
+        ElstarData received = (ElstarData) messageConverter.fromMessage(messages.get(0));
+        assertEquals(xml.toString(), received.getXmlNachricht());
+        assertEquals(row.getUuid(), received.getUuid());
+    }
+
+    @Test
+    void testPayloadAboveThresholdIsCompressed() throws Exception {
+        ElstarData small = insert("<xml>small</xml>");
+        ElstarData large = insert("<ElstarDaten>" + "<Name>Jürgen Müller</Name>".repeat(1000) + "</ElstarDaten>");
+        StreamingQueueWriter writer = streamingWriter(64);
+        writer.setCompression(PayloadCodec.DEFLATE, 1024);
+
+        writer.write(new Chunk<>(projection(small), projection(large)));
+
+        List<Message> messages = receiveAll();
+        assertNull(messages.get(0).getStringProperty(PayloadCodec.PROPERTY));
+        assertEquals("deflate", messages.get(1).getStringProperty(PayloadCodec.PROPERTY));
+        assertTrue(((BytesMessage) messages.get(1)).getBodyLength() < 1024);
+        assertEquals("<xml>small</xml>", ((ElstarData) messageConverter.fromMessage(messages.get(0))).getXmlNachricht());
+        assertEquals("<ElstarDaten>" + "<Name>Jürgen Müller</Name>".repeat(1000) + "</ElstarDaten>",
+                ((ElstarData) messageConverter.fromMessage(messages.get(1))).getXmlNachricht());
+    }
+
+    @Test
+    void testLargePayloadRoundTripsAsStreamedBody() throws Exception {
+        List<String> xml = List.of(largeXml(StreamingQueueWriter.BODY_STREAM_THRESHOLD * 2),
+                largeXml(StreamingQueueWriter.BODY_STREAM_THRESHOLD * 4));
+        ElstarData plain = insert(xml.get(0));
+        ElstarData compressed = insert(xml.get(1));
+        StreamingQueueWriter writer = streamingWriter(8192);
+        writer.setCompression(PayloadCodec.GZIP, StreamingQueueWriter.BODY_STREAM_THRESHOLD * 3);
+
+        writer.write(new Chunk<>(projection(plain), projection(compressed)));
+
+        // Artemis reads the body of a large message through its session, so it is decoded before closing that
+        List<ElstarData> received = new ArrayList<>();
+        List<String> codecs = new ArrayList<>();
+        JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.execute(session -> {
+            try (MessageConsumer consumer = session.createConsumer(session.createQueue(queueName))) {
+                Message message;
+                while ((message = consumer.receive(1000)) != null) {
+                    codecs.add(message.getStringProperty(PayloadCodec.PROPERTY));
+                    received.add((ElstarData) messageConverter.fromMessage(message));
+                }
+            }
+            return null;
+        }, true);
+        assertEquals(2, received.size());
+        assertNull(codecs.get(0));
+        assertEquals("gzip", codecs.get(1));
+        for (int i = 0; i < 2; i++) {
+            assertEquals(xml.get(i), received.get(i).getXmlNachricht());
+        }
+        assertEquals(compressed.getUuid(), received.get(1).getUuid());
+    }
+
+    @Test
+    void testLargePayloadIsHeldOnlyInTheBuffers() throws Exception {
+        String xml = largeXml(4_000_000);
+        long payloadBytes = xml.getBytes(StandardCharsets.UTF_8).length;
+        ElstarData row = insert(xml);
+        xml = null;
+        ProviderStub provider = new ProviderStub(true);
+        StreamingQueueWriter writer = streamingWriter(8192);
+
+        long allocated = allocatedBytes(
+                () -> writer.send(provider.session(), provider::send, new Chunk<>(projection(row))));
+
+        assertEquals(payloadBytes, provider.streamedBytes);
+        assertEquals(0, provider.writtenBody.size());
+        assertTrue(allocated < 1024 * 1024, allocated + " bytes allocated for a payload of " + payloadBytes);
+    }
+
+    @Test
+    void testProviderWithoutBodyStreamsGetsTheBodyWritten() throws Exception {
+        String xml = largeXml(StreamingQueueWriter.BODY_STREAM_THRESHOLD * 2);
+        ElstarData first = insert(xml);
+        ElstarData second = insert(xml);
+        ProviderStub provider = new ProviderStub(false);
+
+        streamingWriter(8192).send(provider.session(), provider::send,
+                new Chunk<>(projection(first), projection(second)));
+
+        assertEquals(xml + xml, provider.writtenBody.toString(StandardCharsets.UTF_8));
+        assertEquals(1, provider.rejectedBodyStreams);
+        assertEquals(0, provider.streamedBytes);
+    }
+
+    @Test
+    void testWrittenBodyIsBoundedForProviderWithoutBodyStreams() {
+        String xml = largeXml(StreamingQueueWriter.BODY_STREAM_THRESHOLD * 2);
+        ElstarData row = insert(xml);
+        ProviderStub provider = new ProviderStub(false);
+        StreamingQueueWriter writer = streamingWriter(8192);
+        writer.setMaxWrittenBodyBytes(StreamingQueueWriter.BODY_STREAM_THRESHOLD);
+
+        Exception e = assertThrows(Exception.class, () -> writer.send(provider.session(), provider::send,
+                new Chunk<>(projection(row))));
+
+        assertTrue(e.getMessage().contains("id " + row.getId()), e.getMessage());
+        assertTrue(provider.writtenBody.size() <= StreamingQueueWriter.BODY_STREAM_THRESHOLD,
+                provider.writtenBody.size() + " bytes buffered");
+        assertEquals(0, provider.sentMessages);
+    }
+
+    @Test
+    void testWrittenBodyBoundAppliesAfterCompression() throws Exception {
+        String xml = largeXml(StreamingQueueWriter.BODY_STREAM_THRESHOLD * 2);
+        ElstarData row = insert(xml);
+        ProviderStub provider = new ProviderStub(false);
+        StreamingQueueWriter writer = streamingWriter(8192);
+        writer.setCompression(PayloadCodec.DEFLATE, 1024);
+        writer.setMaxWrittenBodyBytes(StreamingQueueWriter.BODY_STREAM_THRESHOLD);
+
+        writer.send(provider.session(), provider::send, new Chunk<>(projection(row)));
+
+        assertEquals(1, provider.sentMessages);
+        assertTrue(provider.writtenBody.size() < StreamingQueueWriter.BODY_STREAM_THRESHOLD);
+    }
+
+    @Test
+    void testStreamedBodyIsNotBounded() throws Exception {
+        ElstarData row = insert(largeXml(StreamingQueueWriter.BODY_STREAM_THRESHOLD * 2));
+        ProviderStub provider = new ProviderStub(true);
+        StreamingQueueWriter writer = streamingWriter(8192);
+        writer.setMaxWrittenBodyBytes(1024);
+
+        writer.send(provider.session(), provider::send, new Chunk<>(projection(row)));
+
+        assertEquals(1, provider.sentMessages);
+        assertTrue(provider.streamedBytes > 1024);
+    }
+
+    @Test
+    void testChunkIsSentInIdOrder() throws Exception {
+        ElstarData first = insert("<xml>1</xml>");
+        ElstarData second = insert("<xml>2</xml>");
+        ElstarData third = insert("<xml>3</xml>");
+
+        queueWriter.write(new Chunk<>(projection(third), projection(first), projection(second)));
+
+        List<String> payloads = new ArrayList<>();
+        for (Message message : receiveAll()) {
+            payloads.add(((ElstarData) messageConverter.fromMessage(message)).getXmlNachricht());
+        }
+        assertEquals(List.of("<xml>1</xml>", "<xml>2</xml>", "<xml>3</xml>"), payloads);
+    }
+
+    @Test
+    void testMissingRowFailsChunkWithoutSending() {
+        ElstarData existing = insert("<xml>1</xml>");
+        ElstarData missing = new ElstarData(999L, UUID.randomUUID());
+
+        assertThrows(Exception.class, () -> queueWriter.write(new Chunk<>(projection(existing), missing)));
+
+        assertEquals(0, receiveAll().size());
+    }
+
+    @Test
+    void testJobSendsAllRowsAsBytesMessages() throws Exception {
+        for (int i = 0; i < 15; i++) {
+            insert("<ElstarDaten><PersonalNr>" + i + "</PersonalNr></ElstarDaten>");
+        }
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobOperatorTestUtils.getUniqueJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        List<Message> messages = receiveAll();
+        assertEquals(15, messages.size());
+        for (Message message : messages) {
+            assertInstanceOf(BytesMessage.class, message);
+        }
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM elstar_daten WHERE status = " + ElstarData.STATUS_SENT, Integer.class));
+    }
+
+    @Test
+    @Tag("performance")
+    void testReportAllocatedBytesPerChunk() throws Exception {
+        int payloadChars = Integer.getInteger("elstar.perf.payload-chars", 2_000_000);
+        String xml = largeXml(payloadChars);
+        List<ElstarData> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(insert(xml));
+        }
+        xml = null;
+
+        QueueWriter<ElstarData> textWriter = new QueueWriter<>(textJmsTemplate(), queueName);
+        textWriter.setSessionPerChunk(true);
+        long text = allocatedBytes(() -> {
+            Chunk<ElstarData> chunk = new Chunk<>();
+            for (ElstarData row : rows) {
+                ElstarData item = new ElstarData(jdbcTemplate.queryForObject(
+                        "SELECT xml_nachricht FROM elstar_daten WHERE id = ?", String.class, row.getId()));
+                item.setId(row.getId());
+                item.setUuid(row.getUuid());
+                chunk.add(item);
+            }
+            textWriter.write(chunk);
+        });
+        assertEquals(10, drainQueue());
+
+        long streaming = allocatedBytes(() -> {
+            Chunk<ElstarData> chunk = new Chunk<>();
+            for (ElstarData row : rows) {
+                chunk.add(projection(row));
+            }
+            queueWriter.write(chunk);
+        });
+        assertEquals(10, drainQueue());
+
+        logger.info(String.format("Chunk of 10 x %d chars: text = %d MB allocated, streaming = %d MB allocated",
+                payloadChars, text / (1024 * 1024), streaming / (1024 * 1024)));
+        assertTrue(streaming < text, "Expected streaming mode to allocate less than text mode");
+    }
+
+    private interface ChunkAction {
+        void run() throws Exception;
+    }
+
+    private static long allocatedBytes(ChunkAction action) throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        action.run();
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private JmsTemplate textJmsTemplate() {
+        JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setMessageConverter(messageConverter);
+        jmsTemplate.setSessionTransacted(true);
+        return jmsTemplate;
+    }
+
+    private StreamingQueueWriter streamingWriter(int bufferSize) {
+        JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setSessionTransacted(true);
+        StreamingQueueWriter writer = new StreamingQueueWriter(jmsTemplate, queueName, dataSource);
+        writer.setBufferSize(bufferSize);
+        return writer;
+    }
+
+    private ElstarData insert(String xml) {
+        UUID uuid = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO elstar_daten (uuid, xml_nachricht, status) VALUES (?, ?, 0)", uuid, xml);
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM elstar_daten WHERE uuid = ?", Long.class, uuid);
+        return new ElstarData(id, uuid);
+    }
+
+    private static ElstarData projection(ElstarData row) {
+        return new ElstarData(row.getId(), row.getUuid());
+    }
+
+    private static String largeXml(int chars) {
+        StringBuilder xml = new StringBuilder(chars);
+        xml.append("<ElstarDaten>");
+        while (xml.length() < chars - 20) {
+            xml.append("<Name>Jürgen Müller</Name>");
+        }
+        return xml.append("</ElstarDaten>").toString();
+    }
+
+    /**
+     * JMS provider stub that, like a real one, buffers a body written into the
+     * message, and reads a streamed body through one fixed buffer while the
+     * message is sent. With {@code bodyStreams} false it rejects the stream
+     * property as the JMS specification demands.
+     */
+    private static final class ProviderStub {
+
+        private final boolean bodyStreams;
+        private final ByteArrayOutputStream writtenBody = new ByteArrayOutputStream();
+        private final byte[] chunk = new byte[100 * 1024];
+        private InputStream bodyStream;
+        private long streamedBytes;
+        private int rejectedBodyStreams;
+        private int sentMessages;
+
+        ProviderStub(boolean bodyStreams) {
+            this.bodyStreams = bodyStreams;
+        }
+
+        Session session() {
+            return proxy(Session.class, (method, args) -> {
+                if (method.equals("createBytesMessage")) {
+                    return message();
+                }
+                throw new UnsupportedOperationException(method);
+            });
+        }
+
+        void send(Message message) throws JMSException {
+            sentMessages++;
+            if (bodyStream == null) {
+                return;
+            }
+            try (InputStream in = bodyStream) {
+                int read;
+                while ((read = in.read(chunk)) >= 0) {
+                    streamedBytes += read;
+                }
+            } catch (IOException e) {
+                throw new JMSException(e.getMessage());
+            }
+            bodyStream = null;
+        }
+
+        private BytesMessage message() {
+            return proxy(BytesMessage.class, (method, args) -> switch (method) {
+                case "setJMSCorrelationID", "setStringProperty" -> null;
+                case "setObjectProperty" -> {
+                    if (!bodyStreams) {
+                        rejectedBodyStreams++;
+                        throw new MessageFormatException("Invalid object property type");
+                    }
+                    assertEquals(StreamingQueueWriter.BODY_STREAM_PROPERTY, args[0]);
+                    bodyStream = (InputStream) args[1];
+                    yield null;
+                }
+                case "writeBytes" -> {
+                    writtenBody.write((byte[]) args[0], (int) args[1], (int) args[2]);
+                    yield null;
+                }
+                default -> throw new UnsupportedOperationException(method);
+            });
+        }
+
+        private static <T> T proxy(Class<T> type, Handler handler) {
+            return type.cast(Proxy.newProxyInstance(StreamingQueueWriterTest.class.getClassLoader(),
+                    new Class<?>[]{type}, (instance, method, args) -> handler.handle(method.getName(), args)));
+        }
+
+        private interface Handler {
+            Object handle(String method, Object[] args) throws Exception;
+        }
+    }
+
+    private List<Message> receiveAll() {
+        JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setReceiveTimeout(100);
+        List<Message> messages = new ArrayList<>();
+        Message message;
+        while ((message = jmsTemplate.receive(queueName)) != null) {
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private int drainQueue() {
+        return receiveAll().size();
+    }
+}
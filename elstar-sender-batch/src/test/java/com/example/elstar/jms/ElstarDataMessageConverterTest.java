@@ -0,0 +1,274 @@
+package com.example.elstar.jms;
+
+import com.example.elstar.TestBatchApplication;
+import com.example.elstar.entity.ElstarData;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Message;
+import jakarta.jms.TextMessage;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TestBatchApplication.class)
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {com.ibm.mq.spring.boot.MQAutoConfiguration.class})
+class ElstarDataMessageConverterTest {
+
+    private static final Log logger = LogFactory.getLog(ElstarDataMessageConverterTest.class);
+
+    private static final String QUEUE_NAME = "converter.test.queue";
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    private ElstarDataMessageConverter converter;
+    private JmsTemplate jmsTemplate;
+
+    @BeforeEach
+    void setUp() {
+        converter = new ElstarDataMessageConverter();
+        jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setMessageConverter(converter);
+        jmsTemplate.setReceiveTimeout(1000);
+    }
+
+    @Test
+    void testUncompressedByDefault() throws Exception {
+        ElstarData elstarData = elstarData(xmlSample(new Random(1), 100));
+
+        Message message = sendAndReceive(elstarData);
+
+        assertInstanceOf(TextMessage.class, message);
+        assertNull(message.getStringProperty(PayloadCodec.PROPERTY));
+        assertRoundTrip(elstarData, message);
+    }
+
+    @Test
+    void testPayloadBelowThresholdIsNotCompressed() throws Exception {
+        converter.setCompression("gzip");
+        converter.setCompressionThreshold(1_000_000);
+        ElstarData elstarData = elstarData(xmlSample(new Random(2), 100));
+
+        Message message = sendAndReceive(elstarData);
+
+        assertInstanceOf(TextMessage.class, message);
+        assertRoundTrip(elstarData, message);
+    }
+
+    @Test
+    void testGzipRoundTrip() throws Exception {
+        assertCompressedRoundTrip(PayloadCodec.GZIP);
+    }
+
+    @Test
+    void testDeflateRoundTrip() throws Exception {
+        assertCompressedRoundTrip(PayloadCodec.DEFLATE);
+    }
+
+    @Test
+    void testUnknownCodecIsRejected() throws Exception {
+        converter.setCompression("gzip");
+        converter.setCompressionThreshold(0);
+        jmsTemplate.convertAndSend(QUEUE_NAME, elstarData("<xml/>"), message -> {
+            message.setStringProperty(PayloadCodec.PROPERTY, "lzma");
+            return message;
+        });
+
+        Message message = jmsTemplate.receive(QUEUE_NAME);
+
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(message));
+        assertThrows(IllegalArgumentException.class, () -> converter.setCompression("lzma"));
+    }
+
+    @Test
+    void testBundleRoundTrip() throws Exception {
+        ElstarData withoutUuid = new ElstarData("<ElstarDaten>ohne UUID: äöü</ElstarDaten>");
+        ElstarData withoutPayload = elstarData(null);
+        List<ElstarData> bundle = List.of(elstarData(xmlSample(new Random(4), 3)), withoutUuid, withoutPayload,
+                elstarData(""));
+
+        Message message = sendAndReceive(bundle);
+
+        assertInstanceOf(BytesMessage.class, message);
+        assertEquals(4, message.getIntProperty(ElstarDataMessageConverter.BUNDLE_COUNT_PROPERTY));
+        assertNull(message.getStringProperty(PayloadCodec.PROPERTY));
+        assertBundleRoundTrip(bundle, message);
+    }
+
+    @Test
+    void testBundleIsCompressedAsAWhole() throws Exception {
+        converter.setCompression("gzip");
+        converter.setCompressionThreshold(1024);
+        // Each document is below the threshold, the bundle is above it
+        List<ElstarData> bundle = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            bundle.add(elstarData(xmlSample(new Random(i), 1)));
+        }
+        long utf8Length = bundle.stream()
+                .mapToLong(elstarData -> elstarData.getXmlNachricht().getBytes(StandardCharsets.UTF_8).length)
+                .sum();
+
+        Message message = sendAndReceive(bundle);
+
+        assertEquals(PayloadCodec.GZIP.getPropertyValue(), message.getStringProperty(PayloadCodec.PROPERTY));
+        assertTrue(((BytesMessage) message).getBodyLength() * 2 < utf8Length,
+                "Expected compressed bundle to be a fraction of " + utf8Length + " bytes");
+        assertBundleRoundTrip(bundle, message);
+    }
+
+    @Test
+    void testBundleWithMismatchingUuidsIsRejected() throws Exception {
+        jmsTemplate.convertAndSend(QUEUE_NAME, List.of(elstarData("<a/>"), elstarData("<b/>")), message -> {
+            message.setStringProperty(ElstarDataMessageConverter.BUNDLE_UUIDS_PROPERTY, UUID.randomUUID().toString());
+            return message;
+        });
+
+        Message message = jmsTemplate.receive(QUEUE_NAME);
+
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(message));
+    }
+
+    @Test
+    void testBundleOfOtherObjectsIsRejected() {
+        assertThrows(MessageConversionException.class,
+                () -> jmsTemplate.convertAndSend(QUEUE_NAME, List.of(elstarData("<a/>"), "<b/>")));
+    }
+
+    @Test
+    @Tag("performance")
+    void testReportCompressionCostAgainstBytesSaved() throws Exception {
+        int iterations = Integer.getInteger("elstar.perf.iterations", 200);
+        StringBuilder report = new StringBuilder(
+                "codec    | payload | UTF-8 bytes | message bytes | ratio | encode us | decode us");
+        for (int records : new int[]{5, 50, 500}) {
+            String xml = xmlSample(new Random(records), records);
+            int utf8Bytes = xml.getBytes(StandardCharsets.UTF_8).length;
+            for (PayloadCodec codec : new PayloadCodec[]{null, PayloadCodec.GZIP, PayloadCodec.DEFLATE}) {
+                converter.setCompression(codec != null ? codec.getPropertyValue() : "none");
+                converter.setCompressionThreshold(0);
+                ElstarData elstarData = elstarData(xml);
+                Message message = sendAndReceive(elstarData);
+                long messageBytes = message instanceof BytesMessage bytesMessage
+                        ? bytesMessage.getBodyLength() : utf8Bytes;
+
+                double encodeMicros = measure(iterations, () -> jmsTemplate.execute(session -> {
+                    for (int i = 0; i < iterations; i++) {
+                        converter.toMessage(elstarData, session);
+                    }
+                    return null;
+                }));
+                double decodeMicros = measure(iterations, () -> {
+                    for (int i = 0; i < iterations; i++) {
+                        if (message instanceof BytesMessage bytesMessage) {
+                            bytesMessage.reset();
+                        }
+                        converter.fromMessage(message);
+                    }
+                });
+
+                report.append(String.format("%n%-8s | %7d | %11d | %13d | %5.1f | %9.1f | %9.1f",
+                        codec != null ? codec.getPropertyValue() : "none", xml.length(), utf8Bytes, messageBytes,
+                        (double) utf8Bytes / messageBytes, encodeMicros, decodeMicros));
+                if (codec != null && records >= 50) {
+                    assertTrue(messageBytes * 4 < utf8Bytes, "Expected at least 4:1 on " + records + " records");
+                }
+            }
+        }
+        logger.info(report);
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private static double measure(int iterations, Action action) throws Exception {
+        action.run();
+        long start = System.nanoTime();
+        action.run();
+        return (System.nanoTime() - start) / 1000.0 / iterations;
+    }
+
+    private void assertCompressedRoundTrip(PayloadCodec codec) throws Exception {
+        converter.setCompression(codec.getPropertyValue());
+        converter.setCompressionThreshold(1024);
+        ElstarData elstarData = elstarData(xmlSample(new Random(3), 200));
+
+        Message message = sendAndReceive(elstarData);
+
+        assertInstanceOf(BytesMessage.class, message);
+        assertEquals(codec.getPropertyValue(), message.getStringProperty(PayloadCodec.PROPERTY));
+        long utf8Length = elstarData.getXmlNachricht().getBytes(StandardCharsets.UTF_8).length;
+        assertTrue(((BytesMessage) message).getBodyLength() * 4 < utf8Length,
+                "Expected compressed body to be a fraction of " + utf8Length + " bytes");
+        assertRoundTrip(elstarData, message);
+    }
+
+    private Message sendAndReceive(Object object) {
+        jmsTemplate.convertAndSend(QUEUE_NAME, object);
+        Message message = jmsTemplate.receive(QUEUE_NAME);
+        assertNotNull(message);
+        return message;
+    }
+
+    private void assertRoundTrip(ElstarData expected, Message message) throws Exception {
+        ElstarData received = (ElstarData) converter.fromMessage(message);
+        assertEquals(expected.getXmlNachricht(), received.getXmlNachricht());
+        assertEquals(expected.getUuid(), received.getUuid());
+    }
+
+    private void assertBundleRoundTrip(List<ElstarData> expected, Message message) throws Exception {
+        List<?> received = assertInstanceOf(List.class, converter.fromMessage(message));
+        assertEquals(expected.size(), received.size());
+        for (int i = 0; i < expected.size(); i++) {
+            ElstarData document = (ElstarData) received.get(i);
+            assertEquals(expected.get(i).getXmlNachricht(), document.getXmlNachricht());
+            assertEquals(expected.get(i).getUuid(), document.getUuid());
+        }
+    }
+
+    private static ElstarData elstarData(String xml) {
+        ElstarData elstarData = new ElstarData(xml);
+        elstarData.setUuid(UUID.randomUUID());
+        return elstarData;
+    }
+
+    // ELStAM-like message with one record per employee
+    private static String xmlSample(Random random, int records) {
+        String[] names = {"Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner", "Becker"};
+        String[] firstNames = {"Jürgen", "Anna", "Peter", "Sabine", "Thomas", "Monika", "Stefan", "Ute"};
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<ElstarDaten>\n");
+        for (int i = 0; i < records; i++) {
+            xml.append("  <Arbeitnehmer>\n")
+                    .append("    <PersonalNr>").append(10000 + random.nextInt(90000)).append("</PersonalNr>\n")
+                    .append("    <IdNr>").append(String.format("%011d", Math.abs(random.nextLong()) % 100_000_000_000L))
+                    .append("</IdNr>\n")
+                    .append("    <Name>").append(names[random.nextInt(names.length)]).append("</Name>\n")
+                    .append("    <Vorname>").append(firstNames[random.nextInt(firstNames.length)]).append("</Vorname>\n")
+                    .append("    <Geburtsdatum>19").append(50 + random.nextInt(50)).append("-0")
+                    .append(1 + random.nextInt(9)).append("-1").append(random.nextInt(10)).append("</Geburtsdatum>\n")
+                    .append("    <Steuerklasse>").append(1 + random.nextInt(6)).append("</Steuerklasse>\n")
+                    .append("    <Kinderfreibetrag>").append(random.nextInt(4)).append(".0</Kinderfreibetrag>\n")
+                    .append("    <Kirchensteuer>").append(random.nextBoolean() ? "rk" : "ev").append("</Kirchensteuer>\n")
+                    .append("    <GueltigAb>2025-01-01</GueltigAb>\n")
+                    .append("  </Arbeitnehmer>\n");
+        }
+        return xml.append("</ElstarDaten>\n").toString();
+    }
+}
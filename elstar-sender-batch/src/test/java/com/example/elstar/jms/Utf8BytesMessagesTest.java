@@ -0,0 +1,24 @@
+package com.example.elstar.jms;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Utf8BytesMessagesTest {
+
+    @Test
+    void testEncodedLengthMatchesUtf8Encoding() {
+        for (String text : new String[]{"", "<xml/>", "<Name>Jürgen Müller</Name>", "€ 😀 ß"}) {
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, Utf8BytesMessages.encodedLength(text), text);
+        }
+    }
+
+    @Test
+    void testUnpairedSurrogateCountsAsReplacement() {
+        String text = "a\uD800b\uDC00";
+
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, Utf8BytesMessages.encodedLength(text));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.elstar.jms;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Utf8ReaderInputStreamTest {
+
+    private static final String TEXT = "<Name>Jürgen Müller € 😀</Name>".repeat(200);
+
+    @Test
+    void testEncodesAcrossBufferBoundaries() throws Exception {
+        for (int bufferSize : new int[]{4, 5, 7, 8192}) {
+            byte[] bytes = readAll(new Utf8ReaderInputStream(new StringReader(TEXT), null,
+                    new char[bufferSize], new byte[bufferSize]), 3);
+
+            assertArrayEquals(TEXT.getBytes(StandardCharsets.UTF_8), bytes, "buffer size " + bufferSize);
+        }
+    }
+
+    @Test
+    void testCompressesOnTheFly() throws Exception {
+        for (PayloadCodec codec : PayloadCodec.values()) {
+            byte[] bytes = readAll(new Utf8ReaderInputStream(new StringReader(TEXT), codec,
+                    new char[64], new byte[64]), 1000);
+
+            assertTrue(bytes.length < TEXT.length() / 4, codec + ": " + bytes.length);
+            assertEquals(TEXT, Utf8BytesMessages.read(codec.decompress(new ByteArrayInputStream(bytes)), 0),
+                    codec.name());
+        }
+    }
+
+    @Test
+    void testEmptyReaderYieldsNoBytes() throws Exception {
+        InputStream in = new Utf8ReaderInputStream(new StringReader(""), null, new char[8], new byte[8]);
+
+        assertEquals(-1, in.read());
+        assertEquals(-1, in.read(new byte[8], 0, 8));
+    }
+
+    @Test
+    void testSingleByteReads() throws Exception {
+        InputStream in = new Utf8ReaderInputStream(new StringReader("ü"), null, new char[8], new byte[8]);
+
+        assertEquals(0xC3, in.read());
+        assertEquals(0xBC, in.read());
+        assertEquals(-1, in.read());
+    }
+
+    private static byte[] readAll(InputStream in, int readSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[readSize];
+        int read;
+        while ((read = in.read(buffer, 0, readSize)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.elstar.repository;
+
+import org.h2.Driver;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@code db/elstar_daten-uuid-16-bytes-h2.sql} against the earlier layouts
+ * of {@code elstar_daten} in a private H2 database.
+ */
+class UuidMigrationTest {
+
+    private static final UUID UUID_1 = UUID.fromString("a1b2c3d4-e5f6-7890-abcd-ef1234567890");
+    private static final UUID UUID_2 = UUID.fromString("b2c3d4e5-f6a7-8901-bcde-f12345678901");
+
+    @Test
+    void testMigratesTextualUuidColumn() {
+        JdbcTemplate jdbcTemplate = database("text", "VARCHAR(36) NOT NULL UNIQUE");
+        insertRows(jdbcTemplate, UUID_1.toString(), UUID_2.toString());
+
+        migrate(jdbcTemplate);
+
+        assertMigrated(jdbcTemplate);
+    }
+
+    @Test
+    void testMigratesUuidColumnWithGeneratedConstraintName() {
+        JdbcTemplate jdbcTemplate = database("generated", "UUID NOT NULL UNIQUE");
+        insertRows(jdbcTemplate, UUID_1, UUID_2);
+
+        migrate(jdbcTemplate);
+
+        assertMigrated(jdbcTemplate);
+    }
+
+    private static void assertMigrated(JdbcTemplate jdbcTemplate) {
+        assertEquals("UUID", jdbcTemplate.queryForObject("SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS"
+                + " WHERE TABLE_NAME = 'ELSTAR_DATEN' AND COLUMN_NAME = 'UUID'", String.class));
+        assertEquals("NO", jdbcTemplate.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS"
+                + " WHERE TABLE_NAME = 'ELSTAR_DATEN' AND COLUMN_NAME = 'UUID'", String.class));
+        assertEquals("UNIQUE INDEX", jdbcTemplate.queryForObject("SELECT INDEX_TYPE_NAME FROM INFORMATION_SCHEMA.INDEXES"
+                + " WHERE INDEX_NAME = 'UX_ELSTAR_DATEN_UUID'", String.class));
+        assertEquals(1, jdbcTemplate.update("UPDATE elstar_daten SET status = 200 WHERE uuid = ?", UUID_2));
+        assertEquals(200, jdbcTemplate.queryForObject("SELECT status FROM elstar_daten WHERE id = 2", Integer.class));
+        assertThrows(DuplicateKeyException.class, () -> insertRows(jdbcTemplate, UUID_1));
+    }
+
+    private static JdbcTemplate database(String name, String uuidColumn) {
+        DataSource dataSource = new SimpleDriverDataSource(new Driver(),
+                "jdbc:h2:mem:uuid-migration-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS elstar_daten");
+        jdbcTemplate.execute("CREATE TABLE elstar_daten (id BIGINT AUTO_INCREMENT PRIMARY KEY, uuid " + uuidColumn
+                + ", xml_nachricht TEXT, creation_date DATE, status INTEGER)");
+        return jdbcTemplate;
+    }
+
+    private static void insertRows(JdbcTemplate jdbcTemplate, Object... uuids) {
+        for (Object uuid : uuids) {
+            jdbcTemplate.update("INSERT INTO elstar_daten (uuid, xml_nachricht, status) VALUES (?, '<ElstarDaten/>', 10)",
+                    uuid);
+        }
+    }
+
+    private static void migrate(JdbcTemplate jdbcTemplate) {
+        new ResourceDatabasePopulator(new ClassPathResource("db/elstar_daten-uuid-16-bytes-h2.sql"))
+                .execute(jdbcTemplate.getDataSource());
+    }
+}
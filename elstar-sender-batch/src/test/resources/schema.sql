@@ -1,8 +1,12 @@
 -- Schema DDL for ElstarData entity
 CREATE TABLE IF NOT EXISTS elstar_daten (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    uuid UUID NOT NULL UNIQUE,
+    uuid UUID NOT NULL,
     xml_nachricht TEXT,
     creation_date DATE,
     status INTEGER
 );
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_elstar_daten_uuid ON elstar_daten (uuid);
+
+CREATE INDEX IF NOT EXISTS idx_elstar_daten_status_id ON elstar_daten (status, id);